@@ -9,7 +9,9 @@ import org.odpi.egeria.connectors.ibm.datastage.dataengineconnector.mapping.Proc
 import org.odpi.egeria.connectors.ibm.datastage.dataengineconnector.mapping.SchemaTypeMapping;
 import org.odpi.egeria.connectors.ibm.datastage.dataengineconnector.model.*;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClientRegistry;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IdentityCache;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceList;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
@@ -102,20 +104,25 @@ public class DataStageConnector extends DataEngineConnectorBase {
         String igcUser = (String) proxyProperties.get("ibm.igc.username");
         String igcPass = (String) proxyProperties.get("ibm.igc.password");
         Integer igcPage = (Integer) proxyProperties.get("ibm.igc.pagesize");
+        String startupCachePath = (String) proxyProperties.get("ibm.igc.cache.path");
 
         this.defaultUserId = igcUser;
 
-        // Create new REST API client (opens a new session)
-        this.igcRestClient = new IGCRestClient(igcHost, igcPort, igcUser, igcPass);
+        // Retrieve the REST API client (opens a new session, unless another connector already has one open)
+        // (with the default page size provided as part of config parameters, defaulting to 100: it cannot be changed
+        // on a client that may be shared)
+        this.igcRestClient = IGCRestClientRegistry.acquire(
+                igcHost,
+                igcPort,
+                igcUser,
+                igcPass,
+                startupCachePath,
+                igcPage == null ? IGCRestClient.DEFAULT_PAGE_SIZE : igcPage,
+                IdentityCache.DEFAULT_MAXIMUM_SIZE
+        );
         if (this.igcRestClient.isSuccessfullyInitialised()) {
             // Set the version based on the IGC client's auto-determination of the IGC environment's version
             this.igcVersion = this.igcRestClient.getIgcVersion();
-            // Set the default page size to whatever is provided as part of config parameters (default to 100)
-            if (igcPage != null) {
-                this.igcRestClient.setDefaultPageSize(igcPage);
-            } else {
-                this.igcRestClient.setDefaultPageSize(100);
-            }
             // Register the types we'll use as part of job processing
             for (String lineageAssetType : getLineageAssetTypes()) {
                 Class pojo = igcRestClient.findPOJOForType(lineageAssetType);
@@ -139,8 +146,8 @@ public class DataStageConnector extends DataEngineConnectorBase {
      */
     @Override
     public void disconnect() {
-        // Close the session on the IGC REST client
-        this.igcRestClient.disconnect();
+        // Release the IGC REST client (closing its session if no other connector is using it)
+        IGCRestClientRegistry.release(this.igcRestClient);
     }
 
     /**
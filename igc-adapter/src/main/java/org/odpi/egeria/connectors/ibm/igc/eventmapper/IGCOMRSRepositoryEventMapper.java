@@ -2,8 +2,10 @@
 /* Copyright Contributors to the ODPi Egeria project. */
 package org.odpi.egeria.connectors.ibm.igc.eventmapper;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.clients.consumer.*;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
@@ -12,11 +14,14 @@ import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceLi
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchSorting;
 import org.odpi.egeria.connectors.ibm.igc.eventmapper.model.*;
+import org.odpi.egeria.connectors.ibm.igc.eventmapper.stores.FailedEventStore;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSMetadataCollection;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSRepositoryConnector;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.entities.EntityMapping;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStubPayload;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.relationships.RelationshipMapping;
 import org.odpi.openmetadata.frameworks.connectors.Connector;
 import org.odpi.openmetadata.frameworks.connectors.VirtualConnectorExtension;
@@ -34,8 +39,13 @@ import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * IGCOMRSRepositoryEventMapper supports the event mapper function for the IBM Information Server suite
@@ -64,6 +74,59 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
     private String igcKafkaTopic;
 
     private ObjectMapper mapper;
+    private JsonFactory jsonFactory;
+
+    private FailedEventStore failedEventStore;
+
+    /** Outbound events produced by the inbound event currently being processed, sent once it has been processed. */
+    private OMRSEventBatch eventBatch = new OMRSEventBatch();
+
+    /**
+     * Each stub (by stub name) as it was before it was first written or deleted for the events in the current batch,
+     * so that it can be put back if the batch is discarded (and the inbound event is then retried from the same state).
+     */
+    private Map<String, StubBeforeBatch> stubsChangedForBatch = new HashMap<>();
+
+    /**
+     * RIDs of the assets that have already been processed as part of a bulk (IMAM share) event, so that assets
+     * processed recursively (via relationships) are not processed again against a stub that is by then out-of-date.
+     * (Only non-null while a bulk event is being processed.)
+     */
+    private Set<String> assetsProcessedInBatch = null;
+
+    private static final int DEFAULT_MAX_FAILED_EVENTS = 1000;
+    private static final int DEFAULT_MAX_ATTEMPTS = 8;
+    private static final long INITIAL_RETRY_BACKOFF = 1000L;
+    private static final long MAX_RETRY_BACKOFF = 10L * 60 * 1000;
+
+    private static final String INITIAL_LOAD_CHECKPOINT_FILE = "igc-initial-load.checkpoint";
+    private static final int DEFAULT_INITIAL_LOAD_PAGE_SIZE = 1000;
+    private static final int DEFAULT_INITIAL_LOAD_THREADS = 4;
+
+    private boolean initialLoad = false;
+    private String initialLoadCheckpointPath;
+    private int initialLoadPageSize = DEFAULT_INITIAL_LOAD_PAGE_SIZE;
+    private int initialLoadThreads = DEFAULT_INITIAL_LOAD_THREADS;
+
+    /**
+     * Set while the initial load is running: every asset is then sent as a refresh event (whatever its stub says),
+     * once for the whole load, including those reached recursively via relationships so that each relationship still
+     * follows the entities at both of its ends.
+     */
+    private boolean initialLoadInProgress = false;
+
+    /**
+     * IGC asset types whose assets have all been sent by the initial load. (Only non-null while the initial load is
+     * running.)
+     */
+    private Set<String> assetTypesSentInInitialLoad = null;
+
+    /**
+     * RIDs of the assets already sent by the initial load, by IGC asset type, for only those types whose assets have
+     * not yet all been sent: once a type has been loaded its RIDs are dropped. (Only non-null while the initial load is
+     * running.)
+     */
+    private Map<String, Set<String>> assetsSentInInitialLoad = null;
 
     /**
      * Default constructor
@@ -94,8 +157,8 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
         this.igcVersion = igcomrsRepositoryConnector.getIGCVersion();
         this.igcRestClient = igcomrsRepositoryConnector.getIGCRestClient();
 
-        // TODO: Pick the best topic available based on the version of IGC (for now always default to InfosphereEvents)
-        this.igcKafkaTopic = "InfosphereEvents";
+        // Pick the best topic available based on the version of IGC
+        this.igcKafkaTopic = getTopicForVersion(igcVersion);
 
         // Retrieve connection details to configure Kafka connectivity
         this.igcKafkaBootstrap = this.connectionBean.getEndpoint().getAddress();
@@ -108,9 +171,61 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
         // Setup ObjectMapper for (de-)serialisation of events
         this.mapper = new ObjectMapper();
         this.mapper.enableDefaultTyping();
+        this.jsonFactory = new JsonFactory();
+
+        // Setup the store for retrying (and dead-lettering) any events that fail to be processed
+        Map<String, Object> proxyProperties = igcomrsRepositoryConnector.getConnection().getConfigurationProperties();
+        String failedEventsPath = null;
+        int maxFailedEvents = DEFAULT_MAX_FAILED_EVENTS;
+        int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        boolean redrive = false;
+        if (proxyProperties != null) {
+            failedEventsPath = (String) proxyProperties.get("ibm.igc.events.failed.path");
+            maxFailedEvents = IGCOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "ibm.igc.events.failed.max", DEFAULT_MAX_FAILED_EVENTS);
+            maxAttempts = IGCOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "ibm.igc.events.retry.attempts", DEFAULT_MAX_ATTEMPTS);
+            redrive = Boolean.parseBoolean((String) proxyProperties.get("ibm.igc.events.failed.redrive"));
+            String topicOverride = (String) proxyProperties.get("ibm.igc.events.topic");
+            if (topicOverride != null) {
+                this.igcKafkaTopic = topicOverride;
+            }
+            initialLoad = Boolean.parseBoolean((String) proxyProperties.get("ibm.igc.initialload"));
+            initialLoadCheckpointPath = (String) proxyProperties.get("ibm.igc.initialload.checkpoint");
+            if (initialLoadCheckpointPath == null) {
+                String stubStorePath = (String) proxyProperties.get("ibm.igc.stubs.path");
+                initialLoadCheckpointPath = stubStorePath == null ? INITIAL_LOAD_CHECKPOINT_FILE : new File(stubStorePath, INITIAL_LOAD_CHECKPOINT_FILE).getPath();
+            }
+            initialLoadPageSize = IGCOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "ibm.igc.initialload.pagesize", DEFAULT_INITIAL_LOAD_PAGE_SIZE);
+            initialLoadThreads = Math.max(1, IGCOMRSRepositoryConnector.getIntegerProperty(proxyProperties, "ibm.igc.initialload.threads", DEFAULT_INITIAL_LOAD_THREADS));
+        }
+        try {
+            this.failedEventStore = new FailedEventStore(failedEventsPath, maxFailedEvents, maxAttempts, INITIAL_RETRY_BACKOFF, MAX_RETRY_BACKOFF);
+        } catch (IOException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to open failed event store at {} -- keeping failed events only in memory.", failedEventsPath, e); }
+            try {
+                this.failedEventStore = new FailedEventStore(null, maxFailedEvents, maxAttempts, INITIAL_RETRY_BACKOFF, MAX_RETRY_BACKOFF);
+            } catch (IOException ignored) {
+                // Cannot happen without a directory
+            }
+        }
+        if (redrive) {
+            redriveFailedEvents();
+        }
 
     }
 
+    /**
+     * Pick the best topic from which to consume events for the provided version of IGC. Every version up to and
+     * including v11.7 publishes its asset-level events on the InfosphereEvents topic, so this is (for now) the topic
+     * for all versions; it can be overridden through the 'ibm.igc.events.topic' configuration property.
+     *
+     * @param version the version of IGC
+     * @return String
+     */
+    private static String getTopicForVersion(IGCVersionEnum version) {
+        if (log.isDebugEnabled()) { log.debug("Selecting event topic for IGC version: {}", version.getVersionString()); }
+        return "InfosphereEvents";
+    }
+
 
     /**
      * Indicates that the connector is completely configured and can begin processing.
@@ -194,6 +309,23 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
             final Consumer<Long, String> consumer = new KafkaConsumer<>(igcKafkaProperties);
             consumer.subscribe(Collections.singletonList(igcKafkaTopic));
 
+            if (initialLoad) {
+                // Join the group and fix our position on the topic before loading, so that any events raised while
+                // the load runs are consumed once it finishes (rather than being skipped)
+                for (ConsumerRecord<Long, String> event : consumer.poll(0)) {
+                    processEvent(event.value());
+                }
+                for (TopicPartition partition : consumer.assignment()) {
+                    consumer.position(partition);
+                }
+                runInitialLoad(() -> {
+                    // Keep our membership of the group alive while the load runs, without consuming any events
+                    consumer.pause(consumer.assignment());
+                    consumer.poll(0);
+                });
+                consumer.resume(consumer.assignment());
+            }
+
             // TODO: Likely need to tweak these settings to give further processing time for large events
             //  like IMAM shares -- or even switch to manual offset management rather than auto-commits
             //  (see: https://kafka.apache.org/0110/javadoc/org/apache/kafka/clients/consumer/KafkaConsumer.html)
@@ -203,6 +335,7 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
                     for (ConsumerRecord<Long, String> event : events) {
                         processEvent(event.value());
                     }
+                    retryFailedEvents();
                 } catch (Exception e) {
                     log.error("Failed trying to consume IGC events from Kafka.", e);
                 }
@@ -212,6 +345,195 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
     }
 
 
+    /**
+     * A single page of assets retrieved for the initial load.
+     */
+    private static final class InitialLoadPage {
+
+        private int numTotal = 0;
+        private List<String> rids = new ArrayList<>();
+        private Map<String, Reference> assetsByRid = new HashMap<>();
+        private Map<String, OMRSStub> stubsByRid = new HashMap<>();
+
+    }
+
+    /**
+     * Load every asset of every mapped IGC asset type, sending a refresh event for every one of them (and for each of
+     * their relationships) and seeding the stub store along the way, resuming from any checkpoint left by an earlier
+     * (interrupted) load. Does nothing if a previous load has already completed.
+     * <br><br>
+     * Refresh events are used (rather than new entity and relationship events) as the cohort may already hold some
+     * of these instances: eg. from an earlier load that was interrupted, or from events sent before the load was
+     * enabled. Each refresh event carries the complete current state of the instance (an entity's classifications
+     * included), and is saved as such by any member of the cohort whether or not it already knew of the instance.
+     * <br><br>
+     * Pages of assets are retrieved in parallel (along with their stubs and mapped properties), while the assets
+     * themselves are processed one page at a time, in order, on the calling thread.
+     *
+     * @param betweenPages anything to run between processing each page
+     */
+    private void runInitialLoad(Runnable betweenPages) {
+
+        InitialLoadCheckpoint checkpoint = InitialLoadCheckpoint.load(initialLoadCheckpointPath);
+        if (checkpoint.isComplete()) {
+            if (log.isInfoEnabled()) { log.info("Initial load already completed ({} assets) -- skipping. Remove {} to run it again.", checkpoint.getAssetsLoaded(), initialLoadCheckpointPath); }
+            return;
+        }
+
+        String resumeFromType = checkpoint.getAssetType();
+        if (log.isInfoEnabled()) { log.info("Starting initial load from: {} (offset {})", resumeFromType == null ? "beginning" : resumeFromType, checkpoint.getOffset()); }
+
+        ExecutorService pageFetcher = Executors.newFixedThreadPool(initialLoadThreads);
+        initialLoadInProgress = true;
+        assetTypesSentInInitialLoad = new HashSet<>();
+        assetsSentInInitialLoad = new HashMap<>();
+        try {
+            for (String assetType : igcomrsMetadataCollection.getMappedIgcAssetTypes()) {
+                // Asset types are always loaded in the same (sorted) order, so skip any already loaded
+                if (resumeFromType == null || assetType.compareTo(resumeFromType) >= 0) {
+                    int beginAt = assetType.equals(resumeFromType) ? checkpoint.getOffset() : 0;
+                    loadAssetsOfType(assetType, beginAt, checkpoint, pageFetcher, betweenPages);
+                }
+                // Every asset of this type has now been sent, so there is no need to remember which ones
+                assetTypesSentInInitialLoad.add(assetType);
+                assetsSentInInitialLoad.remove(assetType);
+            }
+            checkpoint.markComplete();
+            if (log.isInfoEnabled()) { log.info("Initial load completed: {} assets.", checkpoint.getAssetsLoaded()); }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (log.isWarnEnabled()) { log.warn("Initial load interrupted -- will resume from checkpoint on next start."); }
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) { log.error("Initial load failed -- will resume from checkpoint on next start.", e); }
+        } finally {
+            initialLoadInProgress = false;
+            assetTypesSentInInitialLoad = null;
+            assetsSentInInitialLoad = null;
+            pageFetcher.shutdownNow();
+        }
+
+    }
+
+    /**
+     * Load every asset of the provided IGC asset type, starting from the provided offset, saving the checkpoint after
+     * each page has been processed.
+     *
+     * @param assetType the IGC asset type to load
+     * @param beginAt the offset from which to start loading
+     * @param checkpoint the checkpoint of the initial load
+     * @param pageFetcher the executor through which to retrieve pages in parallel
+     * @param betweenPages anything to run between processing each page
+     * @throws InterruptedException if interrupted while waiting for a page to be retrieved
+     * @throws ExecutionException if a page could not be retrieved
+     */
+    private void loadAssetsOfType(String assetType,
+                                  int beginAt,
+                                  InitialLoadCheckpoint checkpoint,
+                                  ExecutorService pageFetcher,
+                                  Runnable betweenPages) throws InterruptedException, ExecutionException {
+
+        InitialLoadPage page = fetchInitialLoadPage(assetType, beginAt);
+        if (log.isInfoEnabled()) { log.info("Loading {} assets of type {} from offset {}.", page.numTotal, assetType, beginAt); }
+
+        Deque<Future<InitialLoadPage>> pagesAhead = new ArrayDeque<>();
+        int offset = beginAt;
+        int nextToFetch = beginAt + initialLoadPageSize;
+        while (page != null && !page.rids.isEmpty()) {
+            // Keep the next few pages being retrieved while this one is processed
+            while (pagesAhead.size() < initialLoadThreads && nextToFetch < page.numTotal) {
+                final int pageStart = nextToFetch;
+                pagesAhead.add(pageFetcher.submit(() -> fetchInitialLoadPage(assetType, pageStart)));
+                nextToFetch += initialLoadPageSize;
+            }
+            processInitialLoadPage(assetType, page);
+            offset += initialLoadPageSize;
+            checkpoint.pageLoaded(assetType, offset, page.rids.size());
+            betweenPages.run();
+            page = pagesAhead.isEmpty() ? null : pagesAhead.poll().get();
+        }
+
+    }
+
+    /**
+     * Retrieve a single page of assets of the provided type for the initial load, along with their stubs and the
+     * mapped properties of each asset. (May be run in parallel for different pages.)
+     * <br><br>
+     * Results are always sorted by RID, so that every page (and any offset recorded in the checkpoint) refers to the
+     * same assets no matter which order the pages are retrieved in.
+     *
+     * @param assetType the IGC asset type to retrieve
+     * @param beginAt the offset of the page
+     * @return InitialLoadPage
+     */
+    private InitialLoadPage fetchInitialLoadPage(String assetType, int beginAt) {
+        InitialLoadPage page = new InitialLoadPage();
+        IGCSearch igcSearch = new IGCSearch(assetType, new IGCSearchConditionSet());
+        igcSearch.setPageSize(initialLoadPageSize);
+        igcSearch.setBeginAt(beginAt);
+        igcSearch.addSortingCriteria(new IGCSearchSorting("_id", true));
+        ReferenceList results = igcRestClient.search(igcSearch);
+        if (results != null) {
+            page.numTotal = results.getPaging().getNumTotal();
+            for (Reference result : results.getItems()) {
+                page.rids.add(result.getId());
+            }
+            if (!page.rids.isEmpty()) {
+                retrieveAssetsInBulk(page.rids, assetType, page.assetsByRid, page.stubsByRid);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Process each of the assets in a page retrieved for the initial load, and send the resulting events.
+     *
+     * @param assetType the IGC asset type of the assets in the page
+     * @param page the page of assets
+     */
+    private void processInitialLoadPage(String assetType, InitialLoadPage page) {
+        assetsProcessedInBatch = new HashSet<>();
+        try {
+            for (String rid : page.rids) {
+                if (!assetsProcessedInBatch.contains(rid) && !isSentInInitialLoad(rid, assetType)) {
+                    if (page.assetsByRid.containsKey(rid)) {
+                        processAsset(page.assetsByRid.get(rid), page.stubsByRid.get(rid), null);
+                    } else {
+                        processAsset(rid, assetType, null);
+                    }
+                }
+            }
+            flushEvents();
+        } catch (RuntimeException e) {
+            discardEvents();
+            throw e;
+        } finally {
+            assetsProcessedInBatch = null;
+        }
+    }
+
+    /**
+     * Indicates whether the provided asset has already been sent by the (running) initial load.
+     *
+     * @param rid the Repository ID (RID) of the asset
+     * @param assetType the IGC asset type of the asset (or null if not known)
+     * @return boolean
+     */
+    private boolean isSentInInitialLoad(String rid, String assetType) {
+        if (assetType != null) {
+            if (assetTypesSentInInitialLoad.contains(assetType)) {
+                return true;
+            }
+            Set<String> sent = assetsSentInInitialLoad.get(assetType);
+            return sent != null && sent.contains(rid);
+        }
+        for (Set<String> sent : assetsSentInInitialLoad.values()) {
+            if (sent.contains(rid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Registers itself as a listener of any OpenMetadataTopicConnectors that are passed as
      * embedded connectors.
@@ -232,6 +554,27 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
     @Override
     public void processEvent(String event) {
         if (log.isDebugEnabled()) { log.debug("Processing event: {}", event); }
+        try {
+            processEventForVersion(event);
+            flushEvents();
+        } catch (IOException e) {
+            // An event that cannot be parsed will never succeed, so dead-letter it immediately
+            discardEvents();
+            failedEventStore.recordFailure(event, e, false);
+        } catch (Exception e) {
+            // Send nothing for a failed event: it will be processed again in its entirety when retried
+            discardEvents();
+            failedEventStore.recordFailure(event, e, true);
+        }
+    }
+
+    /**
+     * Route the provided event to the processing appropriate to the version of Information Server.
+     *
+     * @param event inbound event
+     * @throws IOException if the event cannot be parsed
+     */
+    private void processEventForVersion(String event) throws IOException {
         if (igcVersion.isEqualTo(IGCVersionEnum.V11702) || igcVersion.isHigherThan(IGCVersionEnum.V11702)) {
             processEventV117(event);
         } else {
@@ -239,47 +582,148 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
         }
     }
 
+    /**
+     * Retry any previously failed events whose backoff has elapsed. (Run on the same thread as the consumption of
+     * new events, so that events are never processed concurrently.)
+     */
+    private void retryFailedEvents() {
+        for (FailedEvent failed : failedEventStore.getDueEvents(System.currentTimeMillis())) {
+            if (log.isInfoEnabled()) { log.info("Retrying failed event: {}", failed); }
+            try {
+                processEventForVersion(failed.getEvent());
+                flushEvents();
+                failedEventStore.recordSuccess(failed);
+            } catch (IOException e) {
+                discardEvents();
+                failedEventStore.recordFailure(failed, e, false);
+            } catch (Exception e) {
+                discardEvents();
+                failedEventStore.recordFailure(failed, e, true);
+            }
+        }
+    }
+
+    /**
+     * Send all of the (de-duplicated) outbound events produced by the last inbound event.
+     */
+    private void flushEvents() {
+        if (!eventBatch.isEmpty()) {
+            eventBatch.flush(repositoryEventProcessor, sourceName, metadataCollectionId, originatorServerName, originatorServerType);
+        }
+        stubsChangedForBatch.clear();
+    }
+
+    /**
+     * Discard all of the outbound events produced by an inbound event that failed, putting back every stub written or
+     * deleted for them (and removing any stub they created) so that a retry of the inbound event finds those assets
+     * exactly as it would have the first time.
+     */
+    private void discardEvents() {
+        eventBatch.clear();
+        for (StubBeforeBatch before : stubsChangedForBatch.values()) {
+            try {
+                if (before.stub == null) {
+                    igcomrsMetadataCollection.deleteOMRSStubForAsset(before.rid, before.assetType);
+                } else {
+                    igcomrsMetadataCollection.restoreOMRSStubForAsset(before.rid, before.assetType, before.stub);
+                }
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) { log.warn("Unable to restore stub for RID {} of discarded event.", before.rid, e); }
+            }
+        }
+        stubsChangedForBatch.clear();
+    }
+
+    /**
+     * The stub of a single asset as it was before the events in the current batch.
+     */
+    private static final class StubBeforeBatch {
+
+        private final String rid;
+        private final String assetType;
+        private final OMRSStub stub;
+
+        StubBeforeBatch(String rid, String assetType, OMRSStub stub) {
+            this.rid = rid;
+            this.assetType = assetType;
+            this.stub = stub;
+        }
+
+    }
+
+    /**
+     * Remember the stub of an asset as it was before the events in the current batch, if it has not already been
+     * remembered, ahead of writing or deleting that stub.
+     *
+     * @param rid the Repository ID (RID) of the asset
+     * @param assetType the IGC asset type of the asset
+     * @param stub the stub of the asset before the current batch (or null if it had none)
+     */
+    private void rememberStubBeforeBatch(String rid, String assetType, OMRSStub stub) {
+        stubsChangedForBatch.putIfAbsent(
+                IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType),
+                new StubBeforeBatch(rid, assetType, stub)
+        );
+    }
+
+    /**
+     * Re-drive all dead-lettered events, so that they are retried (with a fresh set of attempts) from the next poll
+     * of the event bus.
+     *
+     * @return int the number of events re-driven
+     */
+    public int redriveFailedEvents() {
+        return failedEventStore.redrive();
+    }
+
+    /**
+     * Retrieve counters for the events that have failed processing: how many are pending retry or dead-lettered,
+     * and how many failures, recoveries and dropped events there have been since the event mapper was started.
+     *
+     * @return {@code Map<String, Long>}
+     */
+    public Map<String, Long> getFailedEventCounts() {
+        return failedEventStore.getCounts();
+    }
+
     /**
      * Method to process events from v11.5 of Information Server.
      * Basically this method will simply route between processing IMAM events and normal asset events.
      *
      * @param event inbound event
+     * @throws IOException if the event cannot be parsed
      */
-    private void processEventV115(String event) {
+    private void processEventV115(String event) throws IOException {
 
-        try {
-            InfosphereEvents eventObj = this.mapper.readValue(event, InfosphereEvents.class);
-            switch(eventObj.getEventType()) {
-                case "IMAM_SHARE_EVENT":
-                    processIMAMShareEventV115((InfosphereEventsIMAMEvent)eventObj);
-                    break;
-                case "DC_CREATE_EVENT":
-                case "DC_MERGED_EVENT":
-                    processDataConnectionEventV115((InfosphereEventsDCEvent)eventObj);
-                    break;
-                case "IA_COLUMN_CLASSIFIED_EVENT":
-                case "IA_COLUMN_ANALYZED_EVENT":
-                case "IA_TABLE_RESULTS_PUBLISHED":
-                    processIAEventV115((InfosphereEventsIAEvent)eventObj);
-                    break;
-                case "IA_PROJECT_CREATED_EVENT":
-                case "IA_TABLE_ADDED_TO_PROJECT":
-                case "IA_TABLE_REMOVED_FROM_PROJECT":
-                case "IA_DATARULE_CREATED_EVENT":
-                case "IA_COLUMN_ANALYSIS_SUBMITTED_EVENT":
-                case "IA_DATAQUALITY_ANALYSIS_SUBMITTED":
-                case "IA_COLUMN_ANALYSIS_STARTED_EVENT":
-                case "IA_PROFILE_BATCH_COMPLETED_EVENT":
-                case "IA_DATAQUALITY_ANALYSIS_STARTED_EVENT":
-                case "IA_DATAQUALITY_ANALYSIS_FINISHED_EVENT":
-                    log.info("Found Information Analyzer event that cannot be processed via APIs, skipping.");
-                    break;
-                default:
-                    processAssetEventV115((InfosphereEventsAssetEvent)eventObj);
-                    break;
-            }
-        } catch (IOException e) {
-            if (log.isErrorEnabled()) { log.error("Unable to translate event {} into object.", event, e); }
+        InfosphereEvents eventObj = this.mapper.readValue(event, InfosphereEvents.class);
+        switch(eventObj.getEventType()) {
+            case "IMAM_SHARE_EVENT":
+                processIMAMShareEventV115((InfosphereEventsIMAMEvent)eventObj);
+                break;
+            case "DC_CREATE_EVENT":
+            case "DC_MERGED_EVENT":
+                processDataConnectionEventV115((InfosphereEventsDCEvent)eventObj);
+                break;
+            case "IA_COLUMN_CLASSIFIED_EVENT":
+            case "IA_COLUMN_ANALYZED_EVENT":
+            case "IA_TABLE_RESULTS_PUBLISHED":
+                processIAEventV115((InfosphereEventsIAEvent)eventObj);
+                break;
+            case "IA_PROJECT_CREATED_EVENT":
+            case "IA_TABLE_ADDED_TO_PROJECT":
+            case "IA_TABLE_REMOVED_FROM_PROJECT":
+            case "IA_DATARULE_CREATED_EVENT":
+            case "IA_COLUMN_ANALYSIS_SUBMITTED_EVENT":
+            case "IA_DATAQUALITY_ANALYSIS_SUBMITTED":
+            case "IA_COLUMN_ANALYSIS_STARTED_EVENT":
+            case "IA_PROFILE_BATCH_COMPLETED_EVENT":
+            case "IA_DATAQUALITY_ANALYSIS_STARTED_EVENT":
+            case "IA_DATAQUALITY_ANALYSIS_FINISHED_EVENT":
+                log.info("Found Information Analyzer event that cannot be processed via APIs, skipping.");
+                break;
+            default:
+                processAssetEventV115((InfosphereEventsAssetEvent)eventObj);
+                break;
         }
 
     }
@@ -295,15 +739,11 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
         List<String> updatedRIDs = getRIDsFromEventString(event.getMergedRIDs());
         List<String> deletedRIDs = getRIDsFromEventString(event.getDeletedRIDs());
 
-        // Start by creating any entities needed by the new RIDs
-        for (String rid : createdRIDs) {
-            processAsset(rid, null, null);
-        }
-
-        // Then iterate through any updated entities
-        for (String rid : updatedRIDs) {
-            processAsset(rid, null, null);
-        }
+        // Start by creating any entities needed by the new RIDs, then iterate through any updated entities
+        // (all in bulk, as an IMAM share may contain many thousands of assets)
+        LinkedHashSet<String> rids = new LinkedHashSet<>(createdRIDs);
+        rids.addAll(updatedRIDs);
+        processAssetsInBulk(new ArrayList<>(rids));
 
         if (!deletedRIDs.isEmpty()) {
             if (log.isWarnEnabled()) { log.warn("Unable to propagate IMAM deleted RIDs, cannot determine type: {}", deletedRIDs); }
@@ -348,6 +788,8 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
             case InfosphereEventsAssetEvent.ACTION_CREATE:
             case InfosphereEventsAssetEvent.ACTION_MODIFY:
             case InfosphereEventsAssetEvent.ACTION_DELETE:
+                // Any identity that includes the asset may no longer be accurate
+                igcRestClient.getIdentityCache().invalidate(assetRid);
                 String igcAssetDisplayName = event.getAssetType();
                 if (igcAssetDisplayName != null && !igcAssetDisplayName.equals("OMRS Stub")) {
                     String igcAssetType = igcomrsMetadataCollection.getIgcAssetTypeForAssetName(igcAssetDisplayName);
@@ -472,6 +914,9 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
      * Attempt to retrieve the EntityDetail object for the provided OMRS stub, using the provided Repository ID (RID).
      * Useful for when the RID indicates there is some generated entity that does not actually exist on its own in
      * IGC. Will handle any errors if unable to retrieve the asset, and the EntityDetail will simply be null.
+     * <br><br>
+     * If the EntityDetail was kept with the stub when it was written, it is returned directly; otherwise it is
+     * mapped again from the asset in the stub's payload.
      *
      * @param stub the OMRS stub for which to retrieve an EntityDetail object
      * @param rid the Repository ID (RID) to use for the asset
@@ -479,7 +924,14 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
      */
     private EntityDetail getEntityDetailForStubWithRID(OMRSStub stub, String rid) {
 
-        EntityDetail detail = null;
+        if (stub == null) {
+            return null;
+        }
+        EntityDetail detail = OMRSStubPayload.decode(stub.getPayload()).getEntityDetail(rid == null ? stub.getSourceRID() : rid);
+        if (detail != null) {
+            if (log.isDebugEnabled()) { log.debug("Using EntityDetail kept with stub: {}", stub.getName()); }
+            return detail;
+        }
         if (log.isDebugEnabled()) { log.debug("Retrieving EntityDetail for stub: {}", stub); }
         Reference asset = getIgcAssetFromStubPayload(stub);
         if (asset != null) {
@@ -510,7 +962,7 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
         Reference asset = null;
         if (stub != null) {
             if (log.isDebugEnabled()) { log.debug("Retrieving IGC Reference for stub payload: {}", stub.getPayload()); }
-            asset = igcomrsRepositoryConnector.getIGCRestClient().readJSONIntoPOJO(stub.getPayload());
+            asset = igcomrsRepositoryConnector.getIGCRestClient().readJSONIntoPOJO(OMRSStubPayload.decode(stub.getPayload()).getJson());
             asset.setFullyRetrieved();
         }
         return asset;
@@ -544,6 +996,105 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
 
     }
 
+    /**
+     * Processes all of the provided assets, retrieving their details and OMRS stubs in bulk (by type) rather than
+     * one-by-one, before processing each asset to determine its status (ie. new or updated).
+     *
+     * @param rids the Repository IDs (RIDs) of the assets to process, in the order in which they should be processed
+     */
+    private void processAssetsInBulk(List<String> rids) {
+
+        if (log.isDebugEnabled()) { log.debug("processAssetsInBulk called with {} RIDs", rids.size()); }
+
+        // Any identity that includes one of the assets may no longer be accurate
+        for (String rid : rids) {
+            igcRestClient.getIdentityCache().invalidate(rid);
+        }
+
+        // Start by determining the type of each asset, so that we can retrieve the details of each type in bulk
+        Map<String, String> typeByRid = new HashMap<>();
+        Map<String, List<String>> ridsByType = new LinkedHashMap<>();
+        for (Reference assetRef : igcRestClient.getAssetRefsByIds(rids)) {
+            String assetType = assetRef.getType();
+            typeByRid.put(assetRef.getId(), assetType);
+            ridsByType.computeIfAbsent(assetType, k -> new ArrayList<>()).add(assetRef.getId());
+        }
+
+        // Then retrieve the stubs and mapped details for all of the assets of each type
+        Map<String, Reference> assetsByRid = new HashMap<>();
+        Map<String, OMRSStub> stubsByRid = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : ridsByType.entrySet()) {
+            retrieveAssetsInBulk(entry.getValue(), entry.getKey(), assetsByRid, stubsByRid);
+        }
+
+        // Finally process each asset in the order originally provided
+        assetsProcessedInBatch = new HashSet<>();
+        try {
+            for (String rid : rids) {
+                if (assetsProcessedInBatch.contains(rid)) {
+                    if (log.isDebugEnabled()) { log.debug(" ... skipping asset already processed via a relationship: {}", rid); }
+                } else if (assetsByRid.containsKey(rid)) {
+                    processAsset(assetsByRid.get(rid), stubsByRid.get(rid), null);
+                } else {
+                    // If the asset could not be retrieved in bulk, fall back to processing it individually
+                    processAsset(rid, typeByRid.get(rid), null);
+                }
+            }
+        } finally {
+            assetsProcessedInBatch = null;
+        }
+
+    }
+
+    /**
+     * Retrieve the stubs and the mapped details of all of the provided assets of a single type, in bulk.
+     *
+     * @param rids the Repository IDs (RIDs) of the assets to retrieve
+     * @param assetType the IGC asset type of all of the assets
+     * @param assetsByRid into which to put the mapped details of each asset, keyed by RID
+     * @param stubsByRid into which to put the stub of each asset that has one, keyed by RID
+     */
+    private void retrieveAssetsInBulk(List<String> rids,
+                                      String assetType,
+                                      Map<String, Reference> assetsByRid,
+                                      Map<String, OMRSStub> stubsByRid) {
+        if (log.isDebugEnabled()) { log.debug(" ... retrieving {} assets of type: {}", rids.size(), assetType); }
+        Map<String, OMRSStub> stubsForType = igcomrsMetadataCollection.getOMRSStubsForAssets(rids, assetType);
+        Map<String, Reference> previousVersions = new HashMap<>();
+        for (Map.Entry<String, OMRSStub> stubEntry : stubsForType.entrySet()) {
+            previousVersions.put(stubEntry.getKey(), getIgcAssetFromStubPayload(stubEntry.getValue()));
+        }
+        stubsByRid.putAll(stubsForType);
+        assetsByRid.putAll(igcomrsMetadataCollection.getMappedAssetDetails(rids, assetType, previousVersions, localServerUserId));
+    }
+
+    /**
+     * Sends purge events for the provided asset, which no longer exists in IGC, and any prefixed (generated)
+     * entities related to it.
+     *
+     * @param rid the Repository ID (RID) of the asset that was deleted
+     * @param assetType the IGC asset type of the asset that was deleted
+     */
+    private void processPurgedAsset(String rid, String assetType) {
+        igcRestClient.getIdentityCache().invalidate(rid);
+        sendPurgedEntity(assetType, rid);
+        // Find any mapper(s) for this type that use a prefix and send a purge for the prefixed entity as well
+        List<EntityMapping> referenceableMappers = igcomrsMetadataCollection.getMappers(assetType, localServerUserId);
+        for (EntityMapping referenceableMapper : referenceableMappers) {
+            List<RelationshipMapping> relationshipMappings = referenceableMapper.getRelationshipMappers();
+            for (RelationshipMapping relationshipMapping : relationshipMappings) {
+                String prefixOne = relationshipMapping.getProxyOneMapping().getIgcRidPrefix();
+                String prefixTwo = relationshipMapping.getProxyTwoMapping().getIgcRidPrefix();
+                if (prefixTwo != null) {
+                    sendPurgedEntity(assetType, prefixTwo + rid);
+                }
+                if (prefixOne != null) {
+                    sendPurgedEntity(assetType, prefixOne + rid);
+                }
+            }
+        }
+    }
+
     /**
      * Processes the provided asset according to what we determine about its status (eg. deleted, new, or updated).
      * Will also call into processRelationship as-needed if a relationship is detected as changed.
@@ -557,88 +1108,117 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
 
         if (log.isDebugEnabled()) { log.debug("processAsset called with rid {} and type {}", rid, assetType); }
 
-        Reference latestVersion = igcomrsMetadataCollection.getFullAssetDetails(rid);
+        if (initialLoadInProgress && isSentInInitialLoad(rid, assetType)) {
+            if (log.isDebugEnabled()) { log.debug("Skipping asset - already sent by the initial load: {}", rid); }
+            return;
+        }
+
+        // Retrieve any stub first, so that only the mapped properties (and changed relationships) of the latest
+        // version of the asset need to be retrieved
+        Reference assetRef = igcRestClient.getAssetRefById(rid);
+        Reference latestVersion = null;
+        OMRSStub stub = null;
+        if (assetRef != null) {
+            stub = igcomrsMetadataCollection.getOMRSStubForAsset(assetRef);
+            latestVersion = igcomrsMetadataCollection.getMappedAssetDetails(
+                    assetRef,
+                    getIgcAssetFromStubPayload(stub),
+                    localServerUserId
+            );
+        }
 
         if (latestVersion == null) {
             // If we can't retrieve the asset by RID, it no longer exists -- so send a delete event
             // TODO: currently only possible if we also know the assetType
             if (assetType != null) {
-                sendPurgedEntity(assetType, rid);
-                // Find any mapper(s) for this type that use a prefix and send a purge for the prefixed entity as well
-                List<EntityMapping> referenceableMappers = igcomrsMetadataCollection.getMappers(assetType, localServerUserId);
-                for (EntityMapping referenceableMapper : referenceableMappers) {
-                    List<RelationshipMapping> relationshipMappings = referenceableMapper.getRelationshipMappers();
-                    for (RelationshipMapping relationshipMapping : relationshipMappings) {
-                        String prefixOne = relationshipMapping.getProxyOneMapping().getIgcRidPrefix();
-                        String prefixTwo = relationshipMapping.getProxyTwoMapping().getIgcRidPrefix();
-                        if (prefixTwo != null) {
-                            sendPurgedEntity(assetType, prefixTwo + rid);
-                        }
-                        if (prefixOne != null) {
-                            sendPurgedEntity(assetType, prefixOne + rid);
-                        }
-                    }
-                }
+                processPurgedAsset(rid, assetType);
             } else {
                 if (log.isWarnEnabled()) { log.warn("No asset type was provided for purged RID {} -- cannot generate purgeEntity event.", rid); }
             }
         } else {
+            // Otherwise process the asset against its stub (if any)
+            processAsset(latestVersion, stub, relationshipGUID);
+        }
 
-            // Otherwise see if there's a stub...
-            OMRSStub stub = igcomrsMetadataCollection.getOMRSStubForAsset(latestVersion);
+    }
 
-            // Calculate the delta between the latest version and the previous saved stub
-            ChangeSet changeSet = new ChangeSet(igcRestClient, latestVersion, stub);
-            Set<String> changedProperties = changeSet.getChangedProperties();
+    /**
+     * Processes the provided (already fully-retrieved) asset against the provided OMRS stub (the last version of the
+     * asset that was processed, or null if it has never been processed) to determine its status (ie. new or updated).
+     * Will also call into processRelationship as-needed if a relationship is detected as changed.
+     *
+     * @param latestVersion the fully-retrieved latest version of the asset in question
+     * @param stub the OMRS stub for the asset in question (or null if there is none)
+     * @param relationshipGUID the relationship GUID that triggered this asset to be processed (or null if not triggered
+     *                         by relationship being processed)
+     */
+    private void processAsset(Reference latestVersion, OMRSStub stub, String relationshipGUID) {
 
-            // Output any entities first
-            if (stub == null) {
-                // If there is no stub, we need to treat this as a new entity
-                sendNewEntity(latestVersion);
-            } else if (!changedProperties.isEmpty()) {
-                // Otherwise, it should be treated as an updated entity, but only if there was some change
-                sendUpdatedEntity(latestVersion, stub);
-            } else {
-                if (log.isInfoEnabled()) { log.info("Skipping asset - no changes detected: {}", latestVersion.getId()); }
+        OMRSStub previousStub = null;
+        if (assetsProcessedInBatch != null) {
+            assetsProcessedInBatch.add(latestVersion.getId());
+        }
+        if (initialLoadInProgress) {
+            if (isSentInInitialLoad(latestVersion.getId(), latestVersion.getType())) {
+                return;
             }
+            assetsSentInInitialLoad.computeIfAbsent(latestVersion.getType(), type -> new HashSet<>()).add(latestVersion.getId());
+            // The initial load must seed the cohort with every asset, so ignore any existing stub: the asset (and
+            // each of its relationships) is then always sent, and its stub re-written
+            previousStub = stub;
+            stub = null;
+        }
 
-            // Retrieve the mapping from IGC property name to OMRS relationship type
-            Map<String, List<RelationshipMapping>> relationshipMap = igcomrsMetadataCollection.getIgcPropertiesToRelationshipMappings(
-                    latestVersion.getType(),
-                    localServerUserId
-            );
-            if (log.isDebugEnabled()) { log.debug(" ... found mappings: {}", relationshipMap); }
-
-            // And then recursively process relationships (which will in turn recursively process further
-            // assets), to ensure top-level entities are ultimately output before lower-level entities
-            if (!changedProperties.isEmpty()) {
-                // Iterate through the properties that differ, looking for any that represent a mapped relationship
-                for (String igcProperty : changeSet.getChangedProperties()) {
-                    if (log.isDebugEnabled()) { log.debug(" ... checking for any relationship on: {}", igcProperty); }
-                    if (relationshipMap.containsKey(igcProperty)) {
-                        List<ChangeSet.Change> changesForProperty = changeSet.getChangesForProperty(igcProperty);
-                        if (log.isDebugEnabled()) { log.debug(" ...... found differences for property: {}", changesForProperty); }
-                        for (RelationshipMapping relationshipMapping : relationshipMap.get(igcProperty)) {
-                            processRelationships(
-                                    relationshipMapping,
-                                    latestVersion,
-                                    changesForProperty,
-                                    relationshipGUID
-                            );
-                        }
+        // Calculate the delta between the latest version and the previous saved stub
+        ChangeSet changeSet = new ChangeSet(igcRestClient, latestVersion, stub);
+        Set<String> changedProperties = changeSet.getChangedProperties();
+
+        // Output any entities first
+        if (stub == null) {
+            // If there is no stub, we need to treat this as a new entity
+            sendNewEntity(latestVersion, previousStub);
+        } else if (!changedProperties.isEmpty()) {
+            // Otherwise, it should be treated as an updated entity, but only if there was some change
+            sendUpdatedEntity(latestVersion, stub);
+        } else {
+            if (log.isInfoEnabled()) { log.info("Skipping asset - no changes detected: {}", latestVersion.getId()); }
+        }
+
+        // Retrieve the mapping from IGC property name to OMRS relationship type
+        Map<String, List<RelationshipMapping>> relationshipMap = igcomrsMetadataCollection.getIgcPropertiesToRelationshipMappings(
+                latestVersion.getType(),
+                localServerUserId
+        );
+        if (log.isDebugEnabled()) { log.debug(" ... found mappings: {}", relationshipMap); }
+
+        // And then recursively process relationships (which will in turn recursively process further
+        // assets), to ensure top-level entities are ultimately output before lower-level entities
+        if (!changedProperties.isEmpty()) {
+            // Iterate through the properties that differ, looking for any that represent a mapped relationship
+            for (String igcProperty : changeSet.getChangedProperties()) {
+                if (log.isDebugEnabled()) { log.debug(" ... checking for any relationship on: {}", igcProperty); }
+                if (relationshipMap.containsKey(igcProperty)) {
+                    List<ChangeSet.Change> changesForProperty = changeSet.getChangesForProperty(igcProperty);
+                    if (log.isDebugEnabled()) { log.debug(" ...... found differences for property: {}", changesForProperty); }
+                    for (RelationshipMapping relationshipMapping : relationshipMap.get(igcProperty)) {
+                        processRelationships(
+                                relationshipMapping,
+                                latestVersion,
+                                changesForProperty,
+                                relationshipGUID
+                        );
                     }
                 }
             }
+        }
 
-            // Regardless of whether changedProperties is empty or not, we need to potentially process the
-            // relationships for generated types (ie. where the igcProperty = self-reference sentinel), and this
-            // self-reference sentinel will never be in the change set since it isn't a real property on the asset!
-            if (relationshipMap.containsKey(RelationshipMapping.SELF_REFERENCE_SENTINEL)) {
-                for (RelationshipMapping relationshipMapping : relationshipMap.get(RelationshipMapping.SELF_REFERENCE_SENTINEL)) {
-                    processSelfReferencingRelationship(relationshipMapping, latestVersion, stub, relationshipGUID);
-                }
+        // Regardless of whether changedProperties is empty or not, we need to potentially process the
+        // relationships for generated types (ie. where the igcProperty = self-reference sentinel), and this
+        // self-reference sentinel will never be in the change set since it isn't a real property on the asset!
+        if (relationshipMap.containsKey(RelationshipMapping.SELF_REFERENCE_SENTINEL)) {
+            for (RelationshipMapping relationshipMapping : relationshipMap.get(RelationshipMapping.SELF_REFERENCE_SENTINEL)) {
+                processSelfReferencingRelationship(relationshipMapping, latestVersion, stub, relationshipGUID);
             }
-
         }
 
     }
@@ -976,39 +1556,32 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
     }
 
     /**
-     * Send an event out on OMRS topic for a new relationship.
+     * Send an event out on OMRS topic for a new relationship (or a refresh event, during the initial load).
      *
      * @param relationship the new relationship to publish
      */
     private void sendNewRelationship(Relationship relationship) {
         if (relationship != null) {
-            repositoryEventProcessor.processNewRelationshipEvent(
-                    sourceName,
-                    metadataCollectionId,
-                    originatorServerName,
-                    originatorServerType,
-                    null,
-                    relationship
-            );
+            if (initialLoadInProgress) {
+                eventBatch.addRefreshedRelationship(relationship);
+            } else {
+                eventBatch.addNewRelationship(relationship);
+            }
         }
     }
 
     /**
-     * Send an event out on OMRS topic for an updated relationship.
+     * Send an event out on OMRS topic for an updated relationship (or a refresh event, during the initial load).
      *
      * @param relationship the updated relationship to publish
      */
     private void sendUpdatedRelationship(Relationship relationship) {
         if (relationship != null) {
-            repositoryEventProcessor.processUpdatedRelationshipEvent(
-                    sourceName,
-                    metadataCollectionId,
-                    originatorServerName,
-                    originatorServerType,
-                    null,
-                    null,
-                    relationship
-            );
+            if (initialLoadInProgress) {
+                eventBatch.addRefreshedRelationship(relationship);
+            } else {
+                eventBatch.addUpdatedRelationship(relationship);
+            }
         }
     }
 
@@ -1128,14 +1701,9 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
                         relationshipLevelRid,
                         true
                 );
-                repositoryEventProcessor.processDeletePurgedRelationshipEvent(
-                        sourceName,
-                        metadataCollectionId,
-                        originatorServerName,
-                        originatorServerType,
-                        null,
-                        relationship
-                );
+                if (relationship != null) {
+                    eventBatch.addPurgedRelationship(relationship);
+                }
             } catch (RepositoryErrorException e) {
                 if (log.isErrorEnabled()) { log.error("Unable to retrieve relationship details for: {}", relationshipGUID); }
             }
@@ -1146,34 +1714,22 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
     }
 
     /**
-     * Send an event out on OMRS topic for a new entity.
+     * Send an event out on OMRS topic for a new entity (or a refresh event, during the initial load).
      *
      * @param asset the IGC asset for which we should send a new entity event
+     * @param previousStub any existing OMRS stub for the asset (only during an initial load), or null if there is none
      */
-    private void sendNewEntity(Reference asset) {
+    private void sendNewEntity(Reference asset, OMRSStub previousStub) {
 
         EntityDetail detail = getEntityDetailForAsset(asset);
 
         if (detail != null) {
 
-            // Send an event for the entity itself
-            repositoryEventProcessor.processNewEntityEvent(
-                    sourceName,
-                    metadataCollectionId,
-                    originatorServerName,
-                    originatorServerType,
-                    null,
-                    detail
-            );
+            Map<String, EntityDetail> mappedDetails = new HashMap<>();
+            mappedDetails.put(asset.getId(), detail);
 
-            // TODO: for now this sends the same set of classifications every time, known design issue with how
-            //  classifications are currently handled (to be changed once classifications are reworked)
-            List<Classification> classifications = detail.getClassifications();
-            if (classifications != null) {
-                for (Classification classification : classifications) {
-                    sendNewClassification(detail);
-                }
-            }
+            // Send an event for the entity itself
+            addNewOrRefreshedEntity(detail);
 
             // See if there are any generated entities to send an event for (ie. *Type)
             List<EntityMapping> referenceableMappers = igcomrsMetadataCollection.getMappers(asset.getType(), localServerUserId);
@@ -1183,22 +1739,8 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
                 if (ridPrefix != null) {
                     EntityDetail genDetail = getEntityDetailForAssetWithRID(asset, ridPrefix + asset.getId());
                     if (genDetail != null) {
-                        repositoryEventProcessor.processNewEntityEvent(
-                                sourceName,
-                                metadataCollectionId,
-                                originatorServerName,
-                                originatorServerType,
-                                null,
-                                genDetail
-                        );
-                        // TODO: for now this sends the same set of classifications every time, known design issue with how
-                        //  classifications are currently handled (to be changed once classifications are reworked)
-                        classifications = genDetail.getClassifications();
-                        if (classifications != null) {
-                            for (Classification classification : classifications) {
-                                sendNewClassification(genDetail);
-                            }
-                        }
+                        mappedDetails.put(ridPrefix + asset.getId(), genDetail);
+                        addNewOrRefreshedEntity(genDetail);
                     } else {
                         if (log.isWarnEnabled()) { log.warn("Unable to generate new entity for asset type {} with prefix {} and RID: {}", asset.getType(), ridPrefix, asset.getId()); }
                     }
@@ -1209,13 +1751,36 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
 
             // Finally, update the stub with the latest version of the asset
             // (if any of the above fail, this will also be missed, so we will simply have more updates on the next event)
-            igcomrsMetadataCollection.upsertOMRSStubForAsset(asset);
+            rememberStubBeforeBatch(asset.getId(), asset.getType(), previousStub);
+            igcomrsMetadataCollection.upsertOMRSStubForAsset(asset, mappedDetails);
 
         } else {
             if (log.isErrorEnabled()) { log.error("EntityDetail could not be retrieved for RID: {}", asset.getId()); }
         }
     }
 
+    /**
+     * Add the events for a new entity to the batch: a new entity event, followed by a classified entity event if it
+     * has any classifications. During the initial load only a refresh event is added instead (which already carries
+     * all of the entity's classifications).
+     *
+     * @param detail the new entity
+     */
+    private void addNewOrRefreshedEntity(EntityDetail detail) {
+        if (initialLoadInProgress) {
+            eventBatch.addRefreshedEntity(detail);
+        } else {
+            eventBatch.addNewEntity(detail);
+            // TODO: for now this sends the same set of classifications every time, known design issue with how
+            //  classifications are currently handled (to be changed once classifications are reworked)
+            // (A single classified event carries the entity with all of its classifications)
+            List<Classification> classifications = detail.getClassifications();
+            if (classifications != null && !classifications.isEmpty()) {
+                sendNewClassification(detail);
+            }
+        }
+    }
+
     /**
      * Send an event out on OMRS topic for an updated entity.
      *
@@ -1228,17 +1793,12 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
 
         if (latest != null) {
 
+            Map<String, EntityDetail> mappedDetails = new HashMap<>();
+            mappedDetails.put(latestVersion.getId(), latest);
+
             // Send an event for the entity itself
             EntityDetail last = getEntityDetailForStub(stub);
-            repositoryEventProcessor.processUpdatedEntityEvent(
-                    sourceName,
-                    metadataCollectionId,
-                    originatorServerName,
-                    originatorServerType,
-                    null,
-                    last,
-                    latest
-            );
+            eventBatch.addUpdatedEntity(last, latest);
 
             processClassifications(latest, latest.getClassifications(), last == null ? new ArrayList<>() : last.getClassifications());
 
@@ -1251,16 +1811,9 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
                     String prefixedRID = ridPrefix + latestVersion.getId();
                     EntityDetail genDetail = getEntityDetailForAssetWithRID(latestVersion, prefixedRID);
                     if (genDetail != null) {
+                        mappedDetails.put(prefixedRID, genDetail);
                         EntityDetail genLast = getEntityDetailForStubWithRID(stub, prefixedRID);
-                        repositoryEventProcessor.processUpdatedEntityEvent(
-                                sourceName,
-                                metadataCollectionId,
-                                originatorServerName,
-                                originatorServerType,
-                                null,
-                                genLast,
-                                genDetail
-                        );
+                        eventBatch.addUpdatedEntity(genLast, genDetail);
                         processClassifications(genDetail, genDetail.getClassifications(), genLast == null ? new ArrayList<>() : genLast.getClassifications());
                     } else {
                         if (log.isWarnEnabled()) { log.warn("Unable to generate updated entity for asset type {} with prefix {} and RID: {}", latestVersion.getType(), ridPrefix, latestVersion.getId()); }
@@ -1272,7 +1825,8 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
 
             // Finally, update the stub with the latest version of the asset
             // (if any of the above fail, this will also be missed, so we will simply have more updates on the next event)
-            igcomrsMetadataCollection.upsertOMRSStubForAsset(latestVersion);
+            rememberStubBeforeBatch(latestVersion.getId(), latestVersion.getType(), stub);
+            igcomrsMetadataCollection.upsertOMRSStubForAsset(latestVersion, mappedDetails);
 
         } else {
             if (log.isErrorEnabled()) { log.error("Latest EntityDetail could not be retrieved for RID: {}", latestVersion.getId()); }
@@ -1348,14 +1902,7 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
      * @param detail
      */
     private void sendNewClassification(EntityDetail detail) {
-        repositoryEventProcessor.processClassifiedEntityEvent(
-                sourceName,
-                metadataCollectionId,
-                originatorServerName,
-                originatorServerType,
-                null,
-                detail
-        );
+        eventBatch.addClassifiedEntity(detail);
     }
 
     /**
@@ -1364,14 +1911,7 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
      * @param detail
      */
     private void sendChangedClassification(EntityDetail detail) {
-        repositoryEventProcessor.processReclassifiedEntityEvent(
-                sourceName,
-                metadataCollectionId,
-                originatorServerName,
-                originatorServerType,
-                null,
-                detail
-        );
+        eventBatch.addReclassifiedEntity(detail);
     }
 
     /**
@@ -1380,14 +1920,7 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
      * @param detail
      */
     private void sendRemovedClassification(EntityDetail detail) {
-        repositoryEventProcessor.processDeclassifiedEntityEvent(
-                sourceName,
-                metadataCollectionId,
-                originatorServerName,
-                originatorServerType,
-                null,
-                detail
-        );
+        eventBatch.addDeclassifiedEntity(detail);
     }
 
     /**
@@ -1411,14 +1944,7 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
             }
             EntityDetail detail = getEntityDetailForStubWithRID(stub, ridToPurge);
             if (detail != null) {
-                repositoryEventProcessor.processDeletePurgedEntityEvent(
-                        sourceName,
-                        metadataCollectionId,
-                        originatorServerName,
-                        originatorServerType,
-                        null,
-                        detail
-                );
+                eventBatch.addPurgedEntity(detail);
             } else {
                 if (log.isWarnEnabled()) { log.warn("No stub information exists for purged RID {} -- cannot generated purgeEntity event.", rid); }
             }
@@ -1426,19 +1952,74 @@ public class IGCOMRSRepositoryEventMapper extends OMRSRepositoryEventMapperBase
 
         // Finally, remove the stub (so that if such an asset is created in the future it is recognised as new
         // rather than an update)
+        // (keeping what it was, so that it can be put back if this event is discarded and the purge retried)
+        rememberStubBeforeBatch(rid, igcAssetType, stub);
         igcomrsMetadataCollection.deleteOMRSStubForAsset(rid, igcAssetType);
 
     }
 
     /**
      * Method to process events from v11.7 of Information Server.
+     * <br><br>
+     * Only the fields needed to route the event are read (through a streaming parser), and asset-level events (by far
+     * the most frequent) are then handled directly from those fields. Any other event (IMAM share, data connection,
+     * Information Analyzer) is handed to the v11.5 processing, as it needs the complete event payload.
      *
      * @param event inbound event
+     * @throws IOException if the event cannot be parsed
      */
-    private void processEventV117(String event) {
-        // TODO: implement processEventV117
-        if (log.isDebugEnabled()) { log.debug("Not yet implemented as v11.7-specific -- backing to v11.5 processing: {}", event); }
-        processEventV115(event);
+    private void processEventV117(String event) throws IOException {
+        InfosphereEventsHeader header = InfosphereEventsHeader.parse(jsonFactory, event);
+        if (header.getAction() != null) {
+            processAssetEventV117(header);
+        } else {
+            processEventV115(event);
+        }
+    }
+
+    /**
+     * Processes all asset-specific events from v11.7 of Information Server, based only on their routing fields.
+     * <br><br>
+     * Deletions are purged directly from the stub of the asset, without any REST retrieval: the asset no longer
+     * exists in IGC, and everything needed for the purge events was kept with the stub.
+     *
+     * @param header the routing fields of the inbound event
+     */
+    private void processAssetEventV117(InfosphereEventsHeader header) {
+
+        String assetRid = header.getAssetRid();
+        String action = header.getAction();
+        String igcAssetDisplayName = header.getAssetType();
+
+        switch (action) {
+            case InfosphereEventsAssetEvent.ACTION_CREATE:
+            case InfosphereEventsAssetEvent.ACTION_MODIFY:
+                // Any identity that includes the asset may no longer be accurate
+                igcRestClient.getIdentityCache().invalidate(assetRid);
+                if (igcAssetDisplayName != null && !igcAssetDisplayName.equals("OMRS Stub")) {
+                    String igcAssetType = igcomrsMetadataCollection.getIgcAssetTypeForAssetName(igcAssetDisplayName);
+                    processAsset(assetRid, igcAssetType, null);
+                }
+                break;
+            case InfosphereEventsAssetEvent.ACTION_DELETE:
+                igcRestClient.getIdentityCache().invalidate(assetRid);
+                if (igcAssetDisplayName != null && !igcAssetDisplayName.equals("OMRS Stub")) {
+                    String igcAssetType = igcomrsMetadataCollection.getIgcAssetTypeForAssetName(igcAssetDisplayName);
+                    if (igcAssetType != null) {
+                        processPurgedAsset(assetRid, igcAssetType);
+                    } else {
+                        if (log.isDebugEnabled()) { log.debug("Ignoring deletion of unmapped asset type '{}': {}", igcAssetDisplayName, header); }
+                    }
+                }
+                break;
+            case InfosphereEventsAssetEvent.ACTION_ASSIGNED_RELATIONSHIP:
+                if (log.isDebugEnabled()) { log.debug("Ignoring ASSIGNED_RELATIONSHIP event -- should be handled already by an earlier CREATE or MODIFY event: {}", header); }
+                break;
+            default:
+                if (log.isWarnEnabled()) { log.warn("Action '{}' is not yet implemented: {}", action, header); }
+                break;
+        }
+
     }
 
     /**
@@ -0,0 +1,144 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.eventmapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Records how far an initial load has progressed (the IGC asset type being loaded, and the offset of the next page of
+ * assets of that type), so that an interrupted load can resume where it left off rather than starting over.
+ * <br><br>
+ * The checkpoint is kept as a small properties file, replaced atomically each time it is saved.
+ */
+public class InitialLoadCheckpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(InitialLoadCheckpoint.class);
+
+    private static final String PROP_ASSET_TYPE = "assetType";
+    private static final String PROP_OFFSET = "offset";
+    private static final String PROP_COMPLETE = "complete";
+    private static final String PROP_ASSETS_LOADED = "assetsLoaded";
+
+    private File file;
+    private String assetType;
+    private int offset;
+    private boolean complete;
+    private long assetsLoaded;
+
+    private InitialLoadCheckpoint(File file) {
+        this.file = file;
+        this.assetType = null;
+        this.offset = 0;
+        this.complete = false;
+        this.assetsLoaded = 0;
+    }
+
+    /**
+     * Load the checkpoint from the provided file, or start a new checkpoint if there is no such file (or it cannot
+     * be read).
+     *
+     * @param path the location of the checkpoint file
+     * @return InitialLoadCheckpoint
+     */
+    public static InitialLoadCheckpoint load(String path) {
+        InitialLoadCheckpoint checkpoint = new InitialLoadCheckpoint(new File(path));
+        if (checkpoint.file.exists()) {
+            Properties properties = new Properties();
+            try (Reader reader = new InputStreamReader(new FileInputStream(checkpoint.file), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+                checkpoint.assetType = properties.getProperty(PROP_ASSET_TYPE);
+                checkpoint.offset = Integer.parseInt(properties.getProperty(PROP_OFFSET, "0"));
+                checkpoint.complete = Boolean.parseBoolean(properties.getProperty(PROP_COMPLETE));
+                checkpoint.assetsLoaded = Long.parseLong(properties.getProperty(PROP_ASSETS_LOADED, "0"));
+            } catch (IOException | NumberFormatException e) {
+                if (log.isWarnEnabled()) { log.warn("Unable to read initial load checkpoint from {} -- starting from the beginning.", path, e); }
+                checkpoint = new InitialLoadCheckpoint(new File(path));
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * The IGC asset type that was being loaded when the checkpoint was last saved (or null if none yet).
+     *
+     * @return String
+     */
+    public String getAssetType() { return assetType; }
+
+    /**
+     * The offset of the next page of assets (of the asset type) to be loaded.
+     *
+     * @return int
+     */
+    public int getOffset() { return offset; }
+
+    /**
+     * Indicates whether the initial load has completed.
+     *
+     * @return boolean
+     */
+    public boolean isComplete() { return complete; }
+
+    /**
+     * The total number of assets loaded so far.
+     *
+     * @return long
+     */
+    public long getAssetsLoaded() { return assetsLoaded; }
+
+    /**
+     * Record that a page of assets has been loaded, and save the checkpoint.
+     *
+     * @param assetType the IGC asset type of the page
+     * @param nextOffset the offset of the next page of assets of that type
+     * @param numLoaded the number of assets that were in the page
+     */
+    public void pageLoaded(String assetType, int nextOffset, int numLoaded) {
+        this.assetType = assetType;
+        this.offset = nextOffset;
+        this.assetsLoaded += numLoaded;
+        save();
+    }
+
+    /**
+     * Record that the initial load has completed, and save the checkpoint.
+     */
+    public void markComplete() {
+        this.complete = true;
+        save();
+    }
+
+    /**
+     * Save the checkpoint, atomically replacing any previously saved version.
+     */
+    private void save() {
+        Properties properties = new Properties();
+        if (assetType != null) {
+            properties.setProperty(PROP_ASSET_TYPE, assetType);
+        }
+        properties.setProperty(PROP_OFFSET, String.valueOf(offset));
+        properties.setProperty(PROP_COMPLETE, String.valueOf(complete));
+        properties.setProperty(PROP_ASSETS_LOADED, String.valueOf(assetsLoaded));
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Unable to create directory for initial load checkpoint: " + parent);
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                properties.store(writer, "IGC initial load checkpoint");
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to save initial load checkpoint to: {}", file, e); }
+        }
+    }
+
+}
@@ -0,0 +1,356 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.eventmapper;
+
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.Relationship;
+import org.odpi.openmetadata.repositoryservices.eventmanagement.OMRSRepositoryEventProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Collects the outbound OMRS events produced while processing a single inbound IGC event, so that duplicates can be
+ * removed before they are sent, and then flushes them (in order) to the repository event processor.
+ * <br><br>
+ * Only the latest state of each instance within the batch is sent:
+ * <ul>
+ *     <li>A new or updated entity that is sent multiple times results in a single event: a new entity event if any of
+ *          them was new (otherwise an update, from the earliest previous version to the latest version).</li>
+ *     <li>Each kind of classification event is sent at most once per entity, with the latest detail of the entity
+ *          (each such event carries the complete entity, and therefore all of its classifications).</li>
+ *     <li>A relationship is sent at most once as new and once as updated (as a single new event, if both).</li>
+ *     <li>A purge replaces any earlier event for the same instance (including any classification events for a
+ *          purged entity); any event following a purge of the same instance replaces the purge.</li>
+ *     <li>A refreshed entity or relationship is sent as a single refresh event with its latest version, unless there
+ *          is already a new or updated event for the same instance (which is then sent with the latest version).</li>
+ * </ul>
+ */
+public class OMRSEventBatch {
+
+    private static final Logger log = LoggerFactory.getLogger(OMRSEventBatch.class);
+
+    private enum Kind {
+        NEW_ENTITY,
+        UPDATED_ENTITY,
+        PURGED_ENTITY,
+        CLASSIFIED_ENTITY,
+        RECLASSIFIED_ENTITY,
+        DECLASSIFIED_ENTITY,
+        REFRESHED_ENTITY,
+        NEW_RELATIONSHIP,
+        UPDATED_RELATIONSHIP,
+        PURGED_RELATIONSHIP,
+        REFRESHED_RELATIONSHIP
+    }
+
+    private static final Kind[] CLASSIFICATION_KINDS = {
+            Kind.CLASSIFIED_ENTITY,
+            Kind.RECLASSIFIED_ENTITY,
+            Kind.DECLASSIFIED_ENTITY
+    };
+
+    /**
+     * A single outbound event waiting in the batch.
+     */
+    private static final class PendingEvent {
+
+        private Kind kind;
+        private EntityDetail oldEntity;
+        private EntityDetail entity;
+        private Relationship relationship;
+
+        PendingEvent(Kind kind, EntityDetail oldEntity, EntityDetail entity) {
+            this.kind = kind;
+            this.oldEntity = oldEntity;
+            this.entity = entity;
+        }
+
+        PendingEvent(Kind kind, Relationship relationship) {
+            this.kind = kind;
+            this.relationship = relationship;
+        }
+
+    }
+
+    private LinkedHashMap<String, PendingEvent> pending;
+    private int received;
+
+    public OMRSEventBatch() {
+        this.pending = new LinkedHashMap<>();
+        this.received = 0;
+    }
+
+    /**
+     * Add an event for a new entity.
+     *
+     * @param entity the new entity
+     */
+    public void addNewEntity(EntityDetail entity) {
+        received++;
+        String key = getEntityKey(entity);
+        PendingEvent existing = pending.get(key);
+        if (existing != null && existing.kind != Kind.PURGED_ENTITY) {
+            existing.kind = Kind.NEW_ENTITY;
+            existing.entity = entity;
+        } else {
+            append(key, new PendingEvent(Kind.NEW_ENTITY, null, entity));
+        }
+    }
+
+    /**
+     * Add an event for an updated entity.
+     *
+     * @param oldEntity the previous version of the entity
+     * @param entity the latest version of the entity
+     */
+    public void addUpdatedEntity(EntityDetail oldEntity, EntityDetail entity) {
+        received++;
+        String key = getEntityKey(entity);
+        PendingEvent existing = pending.get(key);
+        if (existing != null && existing.kind != Kind.PURGED_ENTITY) {
+            existing.entity = entity;
+        } else {
+            append(key, new PendingEvent(Kind.UPDATED_ENTITY, oldEntity, entity));
+        }
+    }
+
+    /**
+     * Add an event for a purged entity.
+     *
+     * @param entity the last known version of the purged entity
+     */
+    public void addPurgedEntity(EntityDetail entity) {
+        received++;
+        for (Kind kind : CLASSIFICATION_KINDS) {
+            pending.remove(getClassificationKey(kind, entity));
+        }
+        append(getEntityKey(entity), new PendingEvent(Kind.PURGED_ENTITY, null, entity));
+    }
+
+    /**
+     * Add an event for the current state of an entity (that may or may not already be known to the cohort).
+     *
+     * @param entity the latest version of the entity
+     */
+    public void addRefreshedEntity(EntityDetail entity) {
+        received++;
+        String key = getEntityKey(entity);
+        PendingEvent existing = pending.get(key);
+        if (existing != null && existing.kind != Kind.PURGED_ENTITY) {
+            existing.entity = entity;
+        } else {
+            append(key, new PendingEvent(Kind.REFRESHED_ENTITY, null, entity));
+        }
+    }
+
+    /**
+     * Add an event for a classification added to an entity.
+     *
+     * @param entity the latest version of the classified entity
+     */
+    public void addClassifiedEntity(EntityDetail entity) {
+        addClassificationEvent(Kind.CLASSIFIED_ENTITY, entity);
+    }
+
+    /**
+     * Add an event for a classification changed on an entity.
+     *
+     * @param entity the latest version of the reclassified entity
+     */
+    public void addReclassifiedEntity(EntityDetail entity) {
+        addClassificationEvent(Kind.RECLASSIFIED_ENTITY, entity);
+    }
+
+    /**
+     * Add an event for a classification removed from an entity.
+     *
+     * @param entity the latest version of the declassified entity
+     */
+    public void addDeclassifiedEntity(EntityDetail entity) {
+        addClassificationEvent(Kind.DECLASSIFIED_ENTITY, entity);
+    }
+
+    /**
+     * Add an event for a new relationship.
+     *
+     * @param relationship the new relationship
+     */
+    public void addNewRelationship(Relationship relationship) {
+        received++;
+        String key = getRelationshipKey(relationship);
+        PendingEvent existing = pending.get(key);
+        if (existing != null && existing.kind != Kind.PURGED_RELATIONSHIP) {
+            existing.kind = Kind.NEW_RELATIONSHIP;
+            existing.relationship = relationship;
+        } else {
+            append(key, new PendingEvent(Kind.NEW_RELATIONSHIP, relationship));
+        }
+    }
+
+    /**
+     * Add an event for an updated relationship.
+     *
+     * @param relationship the latest version of the relationship
+     */
+    public void addUpdatedRelationship(Relationship relationship) {
+        received++;
+        String key = getRelationshipKey(relationship);
+        PendingEvent existing = pending.get(key);
+        if (existing != null && existing.kind != Kind.PURGED_RELATIONSHIP) {
+            existing.relationship = relationship;
+        } else {
+            append(key, new PendingEvent(Kind.UPDATED_RELATIONSHIP, relationship));
+        }
+    }
+
+    /**
+     * Add an event for a purged relationship.
+     *
+     * @param relationship the last known version of the purged relationship
+     */
+    public void addPurgedRelationship(Relationship relationship) {
+        received++;
+        append(getRelationshipKey(relationship), new PendingEvent(Kind.PURGED_RELATIONSHIP, relationship));
+    }
+
+    /**
+     * Add an event for the current state of a relationship (that may or may not already be known to the cohort).
+     *
+     * @param relationship the latest version of the relationship
+     */
+    public void addRefreshedRelationship(Relationship relationship) {
+        received++;
+        String key = getRelationshipKey(relationship);
+        PendingEvent existing = pending.get(key);
+        if (existing != null && existing.kind != Kind.PURGED_RELATIONSHIP) {
+            existing.relationship = relationship;
+        } else {
+            append(key, new PendingEvent(Kind.REFRESHED_RELATIONSHIP, relationship));
+        }
+    }
+
+    /**
+     * Indicates whether there are any events waiting to be sent.
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Empty the batch without sending any of its events.
+     */
+    public void clear() {
+        if (log.isDebugEnabled()) { log.debug("Discarding {} outbound event(s).", pending.size()); }
+        pending.clear();
+        received = 0;
+    }
+
+    /**
+     * Send all of the events in the batch, in order, and empty the batch.
+     *
+     * @param processor the repository event processor to which to send the events
+     * @param sourceName the name of the source of the events
+     * @param metadataCollectionId the metadata collection ID of the originating repository
+     * @param originatorServerName the name of the originating server
+     * @param originatorServerType the type of the originating server
+     */
+    public void flush(OMRSRepositoryEventProcessor processor,
+                      String sourceName,
+                      String metadataCollectionId,
+                      String originatorServerName,
+                      String originatorServerType) {
+
+        if (log.isDebugEnabled()) { log.debug("Flushing {} outbound event(s), {} duplicate(s) removed.", pending.size(), received - pending.size()); }
+        Iterator<PendingEvent> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            PendingEvent event = iterator.next();
+            iterator.remove();
+            switch (event.kind) {
+                case NEW_ENTITY:
+                    processor.processNewEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.entity);
+                    break;
+                case UPDATED_ENTITY:
+                    processor.processUpdatedEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.oldEntity, event.entity);
+                    break;
+                case PURGED_ENTITY:
+                    processor.processDeletePurgedEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.entity);
+                    break;
+                case CLASSIFIED_ENTITY:
+                    processor.processClassifiedEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.entity);
+                    break;
+                case RECLASSIFIED_ENTITY:
+                    processor.processReclassifiedEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.entity);
+                    break;
+                case DECLASSIFIED_ENTITY:
+                    processor.processDeclassifiedEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.entity);
+                    break;
+                case REFRESHED_ENTITY:
+                    processor.processRefreshEntityEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.entity);
+                    break;
+                case NEW_RELATIONSHIP:
+                    processor.processNewRelationshipEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.relationship);
+                    break;
+                case UPDATED_RELATIONSHIP:
+                    processor.processUpdatedRelationshipEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, null, event.relationship);
+                    break;
+                case PURGED_RELATIONSHIP:
+                    processor.processDeletePurgedRelationshipEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.relationship);
+                    break;
+                case REFRESHED_RELATIONSHIP:
+                    processor.processRefreshRelationshipEvent(sourceName, metadataCollectionId, originatorServerName, originatorServerType, null, event.relationship);
+                    break;
+                default:
+                    if (log.isWarnEnabled()) { log.warn("Unknown kind of outbound event -- skipping: {}", event.kind); }
+                    break;
+            }
+        }
+        received = 0;
+
+    }
+
+    /**
+     * Add a classification event, keeping only the latest detail for each kind of classification event per entity.
+     *
+     * @param kind the kind of classification event
+     * @param entity the latest version of the entity
+     */
+    private void addClassificationEvent(Kind kind, EntityDetail entity) {
+        received++;
+        String key = getClassificationKey(kind, entity);
+        PendingEvent existing = pending.get(key);
+        if (existing != null) {
+            existing.entity = entity;
+        } else {
+            pending.put(key, new PendingEvent(kind, null, entity));
+        }
+    }
+
+    /**
+     * Add the provided event to the end of the batch, replacing any earlier event with the same key.
+     *
+     * @param key the key of the instance the event is for
+     * @param event the event
+     */
+    private void append(String key, PendingEvent event) {
+        pending.remove(key);
+        pending.put(key, event);
+    }
+
+    private String getEntityKey(EntityDetail entity) {
+        return "entity:" + entity.getGUID();
+    }
+
+    private String getClassificationKey(Kind kind, EntityDetail entity) {
+        return kind.name() + ":" + entity.getGUID();
+    }
+
+    private String getRelationshipKey(Relationship relationship) {
+        return "relationship:" + relationship.getGUID();
+    }
+
+}
@@ -12,6 +12,7 @@ import com.flipkart.zjsonpatch.JsonDiff;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStubPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,21 +47,49 @@ public class ChangeSet {
         this.changesByProperty = new HashMap<>();
         this.igcRestClient = igcRestClient;
 
-        // If we receive a null stub (eg. a new entity without any stub)
-        if (stub == null) {
-            // ... initialise an empty stub payload that we can (hopefully) use for the comparison
-            stub = new OMRSStub();
-            stub.setPayload("{}");
-        }
-
         // Calculate the delta between the latest version and the previous saved stub
         try {
             EnumSet<DiffFlags> flags = DiffFlags.dontNormalizeOpIntoMoveAndCopy().clone();
-            JsonNode stubPayload = objectMapper.readTree(stub.getPayload());
             JsonNode currentAsset = objectMapper.readTree(this.igcRestClient.getValueAsJSON(asset));
+            JsonNode stubPayload;
+            Set<String> propertiesToCompare = new LinkedHashSet<>();
+            if (stub == null) {
+                // If we receive a null stub (eg. a new entity without any stub), compare against an empty payload
+                stubPayload = objectMapper.createObjectNode();
+                currentAsset.fieldNames().forEachRemaining(propertiesToCompare::add);
+            } else {
+                // Otherwise compare the hashes of each property first, and only diff those properties that differ
+                OMRSStubPayload previous = OMRSStubPayload.decode(stub.getPayload());
+                propertiesToCompare.addAll(previous.getChangedProperties(OMRSStubPayload.hashProperties(currentAsset)));
+                if (propertiesToCompare.isEmpty()) {
+                    stubPayload = objectMapper.createObjectNode();
+                    if (log.isDebugEnabled()) { log.debug("No property hashes differ -- skipping diff for: {}", asset.getId()); }
+                } else {
+                    stubPayload = objectMapper.readTree(previous.getJson());
+                    if (log.isDebugEnabled()) { log.debug("Property hashes differ for: {}", propertiesToCompare); }
+                }
+            }
+
+            // Relationship lists are compared as sets keyed by RID, everything else via JSON Patch
+            ObjectNode stubToDiff = objectMapper.createObjectNode();
+            ObjectNode currentToDiff = objectMapper.createObjectNode();
+            for (String property : propertiesToCompare) {
+                JsonNode previousValue = stubPayload.get(property);
+                JsonNode currentValue = currentAsset.get(property);
+                if (isReferenceList(previousValue) || isReferenceList(currentValue)) {
+                    addReferenceListChanges(property, previousValue, currentValue, stubPayload);
+                } else {
+                    if (previousValue != null) {
+                        stubToDiff.set(property, previousValue);
+                    }
+                    if (currentValue != null) {
+                        currentToDiff.set(property, currentValue);
+                    }
+                }
+            }
             this.patch = JsonDiff.asJson(
-                    stubPayload,
-                    currentAsset,
+                    stubToDiff,
+                    currentToDiff,
                     flags
             );
             if (log.isDebugEnabled()) { log.debug("Found the following changes: {}", this.patch.toString()); }
@@ -93,11 +122,7 @@ public class ChangeSet {
                     theChange = new Change(change, stubPayload);
                 }
                 if (theChange != null) {
-                    String igcProperty = theChange.getIgcPropertyName();
-                    if (!this.changesByProperty.containsKey(igcProperty)) {
-                        this.changesByProperty.put(igcProperty, new ArrayList<>());
-                    }
-                    this.changesByProperty.get(igcProperty).add(theChange);
+                    addChange(theChange);
                 }
             }
 
@@ -122,6 +147,88 @@ public class ChangeSet {
      */
     public List<Change> getChangesForProperty(String property) { return this.changesByProperty.get(property); }
 
+    /**
+     * Indicates whether the provided JSON node represents a list of relationships (ie. a ReferenceList).
+     *
+     * @param node the JSON node to check
+     * @return boolean
+     */
+    private boolean isReferenceList(JsonNode node) {
+        return (node != null && node.isObject() && node.path("items").isArray());
+    }
+
+    /**
+     * Add the changes between the provided previous and current versions of a relationship list, comparing the lists
+     * as sets keyed by the RID ('_id') of each related asset rather than by position. This yields exactly one 'add'
+     * change for each related asset that is only in the current list, and exactly one 'remove' change for each related
+     * asset that is only in the previous list, regardless of any re-ordering or shifting of the remaining items.
+     * Both kinds of change carry the complete related asset reference as their value.
+     *
+     * @param property the name of the IGC relationship property
+     * @param previousValue the previous version of the relationship list (or null if there was none)
+     * @param currentValue the current version of the relationship list (or null if there is none)
+     * @param stubPayload the JSON representation of the previous version of the asset
+     */
+    private void addReferenceListChanges(String property,
+                                         JsonNode previousValue,
+                                         JsonNode currentValue,
+                                         JsonNode stubPayload) {
+
+        ArrayNode previousItems = isReferenceList(previousValue) ? (ArrayNode) previousValue.get("items") : objectMapper.createArrayNode();
+        ArrayNode currentItems = isReferenceList(currentValue) ? (ArrayNode) currentValue.get("items") : objectMapper.createArrayNode();
+
+        Set<String> previousIds = new HashSet<>(previousItems.size());
+        for (JsonNode item : previousItems) {
+            previousIds.add(item.path("_id").asText());
+        }
+        Set<String> currentIds = new HashSet<>(currentItems.size());
+        for (int i = 0; i < currentItems.size(); i++) {
+            JsonNode item = currentItems.get(i);
+            String rid = item.path("_id").asText();
+            currentIds.add(rid);
+            if (!previousIds.contains(rid)) {
+                addChange(new Change(getReferenceListPatch("add", property, i, item), stubPayload));
+            }
+        }
+        for (int i = 0; i < previousItems.size(); i++) {
+            JsonNode item = previousItems.get(i);
+            if (!currentIds.contains(item.path("_id").asText())) {
+                addChange(new Change(getReferenceListPatch("remove", property, i, item), stubPayload));
+            }
+        }
+
+    }
+
+    /**
+     * Construct a JSON Patch entry for a single item of a relationship list.
+     *
+     * @param op the operation ('add' or 'remove')
+     * @param property the name of the IGC relationship property
+     * @param index the index of the item within its (current or previous) list
+     * @param item the related asset reference
+     * @return JsonNode
+     */
+    private JsonNode getReferenceListPatch(String op, String property, int index, JsonNode item) {
+        ObjectNode patchEntry = objectMapper.createObjectNode();
+        patchEntry.put("op", op);
+        patchEntry.put("path", "/" + property + "/items/" + index);
+        patchEntry.set("value", item);
+        return patchEntry;
+    }
+
+    /**
+     * Add the provided change to those captured for its IGC property.
+     *
+     * @param change the change to add
+     */
+    private void addChange(Change change) {
+        String igcProperty = change.getIgcPropertyName();
+        if (!this.changesByProperty.containsKey(igcProperty)) {
+            this.changesByProperty.put(igcProperty, new ArrayList<>());
+        }
+        this.changesByProperty.get(igcProperty).add(change);
+    }
+
     /**
      * Retrieve an object from the specified path (including index), from the provided asset JSON.
      *
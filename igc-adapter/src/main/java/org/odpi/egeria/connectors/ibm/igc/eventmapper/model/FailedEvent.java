@@ -0,0 +1,68 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.eventmapper.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An inbound IGC event that could not be processed, along with the state needed to retry it.
+ */
+@JsonIgnoreProperties(ignoreUnknown=true)
+public class FailedEvent {
+
+    /**
+     * The 'sequence' property uniquely identifies the failed event, in the order the failures were first recorded.
+     */
+    protected long sequence;
+
+    /**
+     * The 'event' property holds the original (raw) payload of the inbound event.
+     */
+    protected String event;
+
+    /**
+     * The 'attempts' property counts the number of times processing of the event has failed.
+     */
+    protected int attempts;
+
+    /**
+     * The 'nextAttempt' property gives the time (in milliseconds since the epoch) after which the event should next
+     * be retried.
+     */
+    protected long nextAttempt;
+
+    /**
+     * The 'lastError' property describes the error from the most recent failed attempt.
+     */
+    protected String lastError;
+
+    /**
+     * The 'deadLettered' property indicates whether the event will no longer be retried automatically.
+     */
+    protected boolean deadLettered;
+
+    /** @see #sequence */ @JsonProperty("sequence") public long getSequence() { return this.sequence; }
+    /** @see #sequence */ @JsonProperty("sequence") public void setSequence(long sequence) { this.sequence = sequence; }
+
+    /** @see #event */ @JsonProperty("event") public String getEvent() { return this.event; }
+    /** @see #event */ @JsonProperty("event") public void setEvent(String event) { this.event = event; }
+
+    /** @see #attempts */ @JsonProperty("attempts") public int getAttempts() { return this.attempts; }
+    /** @see #attempts */ @JsonProperty("attempts") public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    /** @see #nextAttempt */ @JsonProperty("nextAttempt") public long getNextAttempt() { return this.nextAttempt; }
+    /** @see #nextAttempt */ @JsonProperty("nextAttempt") public void setNextAttempt(long nextAttempt) { this.nextAttempt = nextAttempt; }
+
+    /** @see #lastError */ @JsonProperty("lastError") public String getLastError() { return this.lastError; }
+    /** @see #lastError */ @JsonProperty("lastError") public void setLastError(String lastError) { this.lastError = lastError; }
+
+    /** @see #deadLettered */ @JsonProperty("deadLettered") public boolean isDeadLettered() { return this.deadLettered; }
+    /** @see #deadLettered */ @JsonProperty("deadLettered") public void setDeadLettered(boolean deadLettered) { this.deadLettered = deadLettered; }
+
+    @Override
+    public String toString() {
+        return "FailedEvent{sequence=" + sequence + ", attempts=" + attempts + ", deadLettered=" + deadLettered + ", lastError=" + lastError + "}";
+    }
+
+}
@@ -0,0 +1,105 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.eventmapper.model;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Only those fields of an InfosphereEvents topic message that are needed to route it, read with a streaming parser
+ * rather than by deserialising the complete (polymorphic) event object.
+ */
+public class InfosphereEventsHeader {
+
+    private String eventType;
+    private String action;
+    private String assetType;
+    private String assetRid;
+
+    private InfosphereEventsHeader() {
+        // Only created by parsing an event
+    }
+
+    /**
+     * Parse the routing fields from the provided event, skipping over the values of any other fields (including
+     * any nested objects or arrays) without building them.
+     *
+     * @param jsonFactory the factory through which to create the streaming parser
+     * @param event the raw payload of the event
+     * @return InfosphereEventsHeader
+     * @throws IOException if the event is not a JSON object
+     */
+    public static InfosphereEventsHeader parse(JsonFactory jsonFactory, String event) throws IOException {
+
+        InfosphereEventsHeader header = new InfosphereEventsHeader();
+        try (JsonParser parser = jsonFactory.createParser(event)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Event is not a JSON object: " + event);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else {
+                    switch (fieldName) {
+                        case "eventType":
+                            header.eventType = parser.getValueAsString();
+                            break;
+                        case "ACTION":
+                            header.action = parser.getValueAsString();
+                            break;
+                        case "ASSET_TYPE":
+                            header.assetType = parser.getValueAsString();
+                            break;
+                        case "ASSET_RID":
+                            header.assetRid = parser.getValueAsString();
+                            break;
+                        default:
+                            // Not needed for routing
+                            break;
+                    }
+                }
+            }
+        }
+        return header;
+
+    }
+
+    /**
+     * The 'eventType' of the event, for example 'IGC_BUSINESSTERM_EVENT' or 'IMAM_SHARE_EVENT'.
+     *
+     * @return String
+     */
+    public String getEventType() { return this.eventType; }
+
+    /**
+     * The 'ACTION' of an asset event, for example 'CREATE' or 'DELETE' (null for other events).
+     *
+     * @return String
+     */
+    public String getAction() { return this.action; }
+
+    /**
+     * The 'ASSET_TYPE' (display name) of an asset event (null for other events).
+     *
+     * @return String
+     */
+    public String getAssetType() { return this.assetType; }
+
+    /**
+     * The 'ASSET_RID' of an asset event (null for other events).
+     *
+     * @return String
+     */
+    public String getAssetRid() { return this.assetRid; }
+
+    @Override
+    public String toString() {
+        return "InfosphereEventsHeader{eventType=" + eventType + ", ACTION=" + action + ", ASSET_TYPE=" + assetType + ", ASSET_RID=" + assetRid + "}";
+    }
+
+}
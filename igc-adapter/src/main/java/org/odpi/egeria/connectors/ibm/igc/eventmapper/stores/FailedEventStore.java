@@ -0,0 +1,290 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.eventmapper.stores;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.odpi.egeria.connectors.ibm.igc.eventmapper.model.FailedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Keeps track of inbound IGC events that could not be processed, so that they can be retried with an exponential
+ * backoff rather than being lost. Any event that still fails after the maximum number of attempts (or that can never
+ * succeed, eg. because it cannot be parsed) is dead-lettered: kept, but no longer retried automatically, until it is
+ * explicitly re-driven.
+ * <br><br>
+ * If a directory is provided, each failed event is also persisted there as its own JSON file (named by its sequence
+ * number), so that pending and dead-lettered events survive a restart; otherwise they are only kept in memory. The
+ * store is bounded: once it holds the maximum number of events, the oldest dead-lettered event (or, if there are none,
+ * the oldest pending event) is dropped to make room for each new one.
+ */
+public class FailedEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FailedEventStore.class);
+
+    private static final String FILE_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    public static final String COUNT_PENDING = "pending";
+    public static final String COUNT_DEAD_LETTERED = "deadLettered";
+    public static final String COUNT_FAILURES = "failures";
+    public static final String COUNT_RECOVERED = "recovered";
+    public static final String COUNT_DROPPED = "dropped";
+
+    private File directory;
+    private ObjectMapper objectMapper;
+
+    private int maxEvents;
+    private int maxAttempts;
+    private long initialBackoff;
+    private long maxBackoff;
+
+    private TreeMap<Long, FailedEvent> pending;
+    private TreeMap<Long, FailedEvent> deadLettered;
+    private long nextSequence;
+
+    private long failures;
+    private long recovered;
+    private long dropped;
+
+    /**
+     * Creates (or re-opens) a store of failed events.
+     *
+     * @param directory the directory in which to persist failed events (created if it does not already exist), or
+     *                  null to keep them only in memory
+     * @param maxEvents the maximum number of failed events (pending and dead-lettered) to keep
+     * @param maxAttempts the number of failed attempts after which an event is dead-lettered
+     * @param initialBackoff the delay (in milliseconds) before the first retry, doubled for each subsequent retry
+     * @param maxBackoff the maximum delay (in milliseconds) between retries
+     * @throws IOException if the directory could not be created or its existing events read
+     */
+    public FailedEventStore(String directory,
+                            int maxEvents,
+                            int maxAttempts,
+                            long initialBackoff,
+                            long maxBackoff) throws IOException {
+
+        this.objectMapper = new ObjectMapper();
+        this.maxEvents = maxEvents;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.pending = new TreeMap<>();
+        this.deadLettered = new TreeMap<>();
+        this.nextSequence = 0;
+
+        if (directory != null) {
+            this.directory = new File(directory);
+            if (!this.directory.exists() && !this.directory.mkdirs()) {
+                throw new IOException("Unable to create directory for failed events: " + directory);
+            }
+            loadEvents();
+        }
+
+    }
+
+    /**
+     * Record the failure of an event on its first processing attempt.
+     *
+     * @param event the original (raw) payload of the inbound event
+     * @param cause the error that caused processing to fail
+     * @param retryable true if the event should be retried, false if it can never succeed (and should be dead-lettered
+     *                  immediately)
+     */
+    public synchronized void recordFailure(String event, Exception cause, boolean retryable) {
+        FailedEvent failed = new FailedEvent();
+        failed.setSequence(nextSequence++);
+        failed.setEvent(event);
+        makeRoom();
+        recordAttempt(failed, cause, retryable);
+    }
+
+    /**
+     * Record the failure of a retry of a previously failed event.
+     *
+     * @param failed the failed event that was retried
+     * @param cause the error that caused processing to fail again
+     * @param retryable true if the event should be retried again, false if it can never succeed
+     */
+    public synchronized void recordFailure(FailedEvent failed, Exception cause, boolean retryable) {
+        pending.remove(failed.getSequence());
+        recordAttempt(failed, cause, retryable);
+    }
+
+    /**
+     * Record the successful processing of a retry of a previously failed event, which is then removed from the store.
+     *
+     * @param failed the failed event that was retried successfully
+     */
+    public synchronized void recordSuccess(FailedEvent failed) {
+        pending.remove(failed.getSequence());
+        deleteEvent(failed);
+        recovered++;
+        if (log.isInfoEnabled()) { log.info("Successfully processed event after {} failed attempt(s): {}", failed.getAttempts(), failed.getSequence()); }
+    }
+
+    /**
+     * Retrieve (in the order they first failed) all pending events that are due to be retried by the provided time.
+     *
+     * @param now the current time, in milliseconds since the epoch
+     * @return {@code List<FailedEvent>}
+     */
+    public synchronized List<FailedEvent> getDueEvents(long now) {
+        List<FailedEvent> due = new ArrayList<>();
+        for (FailedEvent failed : pending.values()) {
+            if (failed.getNextAttempt() <= now) {
+                due.add(failed);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Re-drive all dead-lettered events: reset their attempts and make them due for immediate retry.
+     *
+     * @return int the number of events that were re-driven
+     */
+    public synchronized int redrive() {
+        int count = 0;
+        long now = System.currentTimeMillis();
+        for (FailedEvent failed : deadLettered.values()) {
+            failed.setDeadLettered(false);
+            failed.setAttempts(0);
+            failed.setNextAttempt(now);
+            pending.put(failed.getSequence(), failed);
+            writeEvent(failed);
+            count++;
+        }
+        deadLettered.clear();
+        if (log.isInfoEnabled()) { log.info("Re-driving {} dead-lettered event(s).", count); }
+        return count;
+    }
+
+    /**
+     * Retrieve counters describing the state of the store: the number of events currently pending retry or
+     * dead-lettered, and the total number of failures, recoveries and dropped events since the store was opened.
+     *
+     * @return {@code Map<String, Long>}
+     */
+    public synchronized Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put(COUNT_PENDING, (long) pending.size());
+        counts.put(COUNT_DEAD_LETTERED, (long) deadLettered.size());
+        counts.put(COUNT_FAILURES, failures);
+        counts.put(COUNT_RECOVERED, recovered);
+        counts.put(COUNT_DROPPED, dropped);
+        return counts;
+    }
+
+    /**
+     * Update the provided failed event for one more failed attempt, and either schedule its next retry or
+     * dead-letter it.
+     *
+     * @param failed the event that failed
+     * @param cause the error that caused the failure
+     * @param retryable true if the event should be retried
+     */
+    private void recordAttempt(FailedEvent failed, Exception cause, boolean retryable) {
+        failures++;
+        int attempts = failed.getAttempts() + 1;
+        failed.setAttempts(attempts);
+        failed.setLastError(cause == null ? null : cause.toString());
+        if (retryable && attempts < maxAttempts) {
+            long delay = Math.min(maxBackoff, initialBackoff << Math.min(attempts - 1, 30));
+            failed.setNextAttempt(System.currentTimeMillis() + delay);
+            pending.put(failed.getSequence(), failed);
+            if (log.isWarnEnabled()) { log.warn("Unable to process event {} (attempt {}) -- retrying in {}ms.", failed.getSequence(), attempts, delay, cause); }
+        } else {
+            failed.setDeadLettered(true);
+            deadLettered.put(failed.getSequence(), failed);
+            if (log.isErrorEnabled()) { log.error("Unable to process event {} (attempt {}) -- dead-lettered: {}", failed.getSequence(), attempts, failed.getEvent(), cause); }
+        }
+        writeEvent(failed);
+    }
+
+    /**
+     * Ensure there is space in the store for one more event, dropping the oldest dead-lettered (or pending) event
+     * if needed.
+     */
+    private void makeRoom() {
+        while (pending.size() + deadLettered.size() >= maxEvents && (!deadLettered.isEmpty() || !pending.isEmpty())) {
+            Map.Entry<Long, FailedEvent> oldest = deadLettered.isEmpty() ? pending.pollFirstEntry() : deadLettered.pollFirstEntry();
+            deleteEvent(oldest.getValue());
+            dropped++;
+            if (log.isErrorEnabled()) { log.error("Failed event store is full -- dropping event {}: {}", oldest.getKey(), oldest.getValue().getEvent()); }
+        }
+    }
+
+    /**
+     * Load any events persisted by a previous run into memory.
+     *
+     * @throws IOException if the directory could not be listed
+     */
+    private void loadEvents() throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list failed events in: " + directory);
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(FILE_SUFFIX)) {
+                try {
+                    FailedEvent failed = objectMapper.readValue(file, FailedEvent.class);
+                    if (failed.isDeadLettered()) {
+                        deadLettered.put(failed.getSequence(), failed);
+                    } else {
+                        pending.put(failed.getSequence(), failed);
+                    }
+                    nextSequence = Math.max(nextSequence, failed.getSequence() + 1);
+                } catch (IOException e) {
+                    if (log.isErrorEnabled()) { log.error("Unable to read failed event from {} -- skipping.", file, e); }
+                }
+            } else if (name.endsWith(TEMP_SUFFIX)) {
+                // Left over from an incomplete write: the previous version (if any) is still intact
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        if (log.isInfoEnabled()) { log.info("Loaded {} pending and {} dead-lettered event(s) from: {}", pending.size(), deadLettered.size(), directory); }
+    }
+
+    /**
+     * Persist the current state of the provided failed event (if the store is backed by a directory), replacing
+     * any previous state atomically.
+     *
+     * @param failed the failed event to persist
+     */
+    private void writeEvent(FailedEvent failed) {
+        if (directory != null) {
+            File file = new File(directory, failed.getSequence() + FILE_SUFFIX);
+            File temp = new File(directory, failed.getSequence() + TEMP_SUFFIX);
+            try {
+                objectMapper.writeValue(temp, failed);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to persist failed event {} -- it will only be kept in memory.", failed.getSequence(), e); }
+            }
+        }
+    }
+
+    /**
+     * Remove the persisted state of the provided failed event (if the store is backed by a directory).
+     *
+     * @param failed the failed event to remove
+     */
+    private void deleteEvent(FailedEvent failed) {
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(new File(directory, failed.getSequence() + FILE_SUFFIX).toPath());
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to remove persisted failed event {}.", failed.getSequence(), e); }
+            }
+        }
+    }
+
+}
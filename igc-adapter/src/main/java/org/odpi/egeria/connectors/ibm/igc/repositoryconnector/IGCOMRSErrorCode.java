@@ -14,6 +14,14 @@ public enum IGCOMRSErrorCode {
             "Unable to {0} the required OMRS OpenIGC bundle",
             "The system was unable to either generate or upload the OMRS OpenIGC bundle needed to handle open metadata.",
             "Check the system logs and diagnose or report the problem."),
+    STUB_STORE_FAILURE(500, "OMRS-IGC-REPOSITORY-500-003 ",
+            "Unable to open the local OMRS stub store at \"{0}\"",
+            "The system was unable to create or open the local store used to track changes for the event mapper.",
+            "Check that the configured path is writable by the server, and that there is sufficient disk space available."),
+    MAPPING_FAILURE(500, "OMRS-IGC-REPOSITORY-500-004 ",
+            "Unable to map the IGC search results for type \"{0}\" into entities",
+            "The system was interrupted, or failed unexpectedly, while mapping the results of a search in parallel.",
+            "Check the system logs and diagnose or report the problem."),
     REGEX_NOT_IMPLEMENTED(501, "OMRS-IGC-REPOSITORY-501-001 ",
             "Repository {0} is not able to support the regular expression \"{1}\"",
             "This repository has a fixed subset of regular expressions it can support.",
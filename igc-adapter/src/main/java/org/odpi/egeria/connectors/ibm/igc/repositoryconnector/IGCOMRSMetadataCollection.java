@@ -3,10 +3,12 @@
 package org.odpi.egeria.connectors.ibm.igc.repositoryconnector;
 
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestConstants;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Identity;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceList;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCRegexSearchPlan;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
@@ -14,6 +16,7 @@ import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchSorting;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.EntityMappingInstance;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.entities.EntityMapping;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStubPayload;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores.*;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.classifications.ClassificationMapping;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.relationships.RelationshipMapping;
@@ -29,11 +32,12 @@ import org.odpi.openmetadata.repositoryservices.ffdc.exception.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.stream.XMLOutputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamWriter;
-import java.io.StringWriter;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Provides the OMRSMetadataCollection implementation for IBM InfoSphere Information Governance Catalog ("IGC").
@@ -58,7 +62,7 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
     private ClassificationMappingStore classificationMappingStore;
     private AttributeMappingStore attributeMappingStore;
 
-    private XMLOutputFactory xmlOutputFactory;
+    private OMRSStubStore stubStore;
 
     /**
      * @param parentConnector      connector that this metadata collection supports.
@@ -79,7 +83,7 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
         parentConnector.setRepositoryName(repositoryName);
         this.igcRestClient = parentConnector.getIGCRestClient();
         this.igcomrsRepositoryConnector = parentConnector;
-        this.xmlOutputFactory = XMLOutputFactory.newInstance();
+        this.stubStore = parentConnector.getOMRSStubStore();
         this.typeDefStore = new TypeDefStore();
         this.entityMappingStore = new EntityMappingStore(parentConnector);
         this.relationshipMappingStore = new RelationshipMappingStore(parentConnector);
@@ -626,6 +630,9 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
             }
         }
 
+        // Flatten the attributes of all types now that they are known, rather than on the first request for them
+        typeDefStore.buildAttributeIndex();
+
     }
 
     /**
@@ -1833,6 +1840,7 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
 
                             IGCSearchConditionSet innerConditions = new IGCSearchConditionSet();
                             innerConditions.setMatchAnyCondition(true);
+                            IGCRegexSearchPlan regexPlan = null;
                             for (String property : properties) {
                                 String unqualifiedValue = repositoryHelper.getUnqualifiedLiteralString(searchCriteria);
                                 if (repositoryHelper.isContainsRegex(searchCriteria)) {
@@ -1860,16 +1868,11 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
                                             unqualifiedValue
                                     ));
                                 } else {
-                                    IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REGEX_NOT_IMPLEMENTED;
-                                    String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(
-                                            repositoryName,
-                                            searchCriteria);
-                                    throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
-                                            this.getClass().getName(),
-                                            methodName,
-                                            errorMessage,
-                                            errorCode.getSystemAction(),
-                                            errorCode.getUserAction());
+                                    // Push down whatever the regular expression requires, and match it against the results
+                                    if (regexPlan == null) {
+                                        regexPlan = getRegexSearchPlan(repositoryName, searchCriteria, this.getClass().getName(), methodName);
+                                    }
+                                    innerConditions.addRegexCondition(property, regexPlan);
                                 }
                             }
                             outerConditions.addNestedConditionSet(innerConditions);
@@ -1888,7 +1891,8 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
 
                         igcSearch.addConditions(outerConditions);
 
-                        setPagingForSearch(igcSearch, fromEntityElement, pageSize);
+                        RegexResultFilter regexFilter = getRegexResultFilter(outerConditions, igcSearch, fromEntityElement);
+                        setPagingForSearch(igcSearch, fromEntityElement, pageSize, regexFilter);
 
                         if (igcSearchSorting != null) {
                             igcSearch.addSortingCriteria(igcSearchSorting);
@@ -1899,7 +1903,8 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
                                 this.igcRestClient.search(igcSearch),
                                 entityDetails,
                                 pageSize,
-                                userId
+                                userId,
+                                regexFilter
                         );
 
                     }
@@ -2575,7 +2580,8 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
             igcSearch.addProperties(properties);
             igcSearch.addConditions(igcSearchConditionSet);
 
-            setPagingForSearch(igcSearch, fromEntityElement, pageSize);
+            RegexResultFilter regexFilter = getRegexResultFilter(igcSearchConditionSet, igcSearch, fromEntityElement);
+            setPagingForSearch(igcSearch, fromEntityElement, pageSize, regexFilter);
 
             if (igcSearchSorting != null) {
                 igcSearch.addSortingCriteria(igcSearchSorting);
@@ -2600,7 +2606,8 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
                         this.igcRestClient.search(igcSearch),
                         entityDetails,
                         pageSize,
-                        userId
+                        userId,
+                        regexFilter
                 );
             }
         }
@@ -2645,6 +2652,108 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
         igcSearch.setBeginAt(beginAt);
     }
 
+    /**
+     * Setup paging properties of the IGC search, when its results may need to be filtered locally: as the filtering
+     * can only be done once the results have been retrieved, the results are then retrieved from the start and in
+     * pages as large as possible (the filter itself skipping the filtered results before the starting index).
+     *
+     * @param igcSearch the IGC search object to which to add the criteria
+     * @param beginAt the starting index for results
+     * @param pageSize the number of results to include in each page
+     * @param regexFilter the filter to apply to the results, or null if they are not filtered
+     */
+    private void setPagingForSearch(IGCSearch igcSearch, int beginAt, int pageSize, RegexResultFilter regexFilter) {
+        if (regexFilter == null) {
+            setPagingForSearch(igcSearch, beginAt, pageSize);
+        } else {
+            setPagingForSearch(igcSearch, 0, 0);
+        }
+    }
+
+    /**
+     * Retrieve the filter for the results of a search with the provided conditions, to apply any regular expressions
+     * in the conditions that IGC could only partially evaluate. Also adds the properties the filter needs to the
+     * search.
+     *
+     * @param conditions the conditions of the search
+     * @param igcSearch the IGC search object to which to add any properties the filter needs
+     * @param fromElement the starting index for results
+     * @return RegexResultFilter, or null if the results do not need to be filtered
+     * @throws FunctionNotSupportedException if the regular expressions cannot be applied to the results alone
+     */
+    private RegexResultFilter getRegexResultFilter(IGCSearchConditionSet conditions,
+                                                   IGCSearch igcSearch,
+                                                   int fromElement) throws FunctionNotSupportedException {
+        final String methodName = "getRegexResultFilter";
+        if (!conditions.hasRegexConditions()) {
+            return null;
+        } else if (!conditions.canMatchRegexConditionsLocally()) {
+            IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REGEX_NOT_IMPLEMENTED;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(
+                    repositoryName,
+                    String.join(", ", conditions.getRegexes()));
+            throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
+                    this.getClass().getName(),
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction());
+        }
+        if (log.isDebugEnabled()) { log.debug("Filtering search results locally by regular expression(s): {}", conditions.getRegexes()); }
+        igcSearch.addProperties(conditions.getRegexProperties());
+        return new RegexResultFilter(conditions, fromElement);
+    }
+
+    /**
+     * Filters the results of a search by the regular expressions in its conditions (which IGC itself could only
+     * partially evaluate), and keeps track of how many of the (mapped) matching results are still to be skipped to
+     * reach the starting index.
+     */
+    private final class RegexResultFilter {
+
+        private final IGCSearchConditionSet conditions;
+        private int toSkip;
+
+        RegexResultFilter(IGCSearchConditionSet conditions, int fromElement) {
+            this.conditions = conditions;
+            this.toSkip = fromElement;
+        }
+
+        /**
+         * Indicates whether the provided result matches the regular expressions.
+         *
+         * @param reference the search result
+         * @return boolean
+         */
+        boolean matches(Reference reference) {
+            return conditions.matchesRegexConditions(property -> igcRestClient.getPropertyByName(reference, property));
+        }
+
+        /**
+         * Retrieve the number of matching results still to be skipped before the starting index is reached.
+         *
+         * @return int
+         */
+        int getToSkip() {
+            return toSkip;
+        }
+
+        /**
+         * Indicates whether the next matching result should be skipped (as it comes before the starting index),
+         * counting it as skipped if so.
+         *
+         * @return boolean
+         */
+        boolean skip() {
+            if (toSkip > 0) {
+                toSkip--;
+                return true;
+            }
+            return false;
+        }
+
+    }
+
     /**
      * Process the search results into the provided list of EntityDetail objects.
      *
@@ -2659,47 +2768,173 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
                                 List<EntityDetail> entityDetails,
                                 int pageSize,
                                 String userId) throws RepositoryErrorException {
+        processResults(mapper, results, entityDetails, pageSize, userId, null);
+    }
+
+    /**
+     * Process the search results into the provided list of EntityDetail objects, including only those results
+     * accepted by the provided filter.
+     *
+     * @param mapper the EntityMapping that should be used to translate the results
+     * @param results the IGC search results
+     * @param entityDetails the list of EntityDetails to append
+     * @param pageSize the number of results per page (0 for all results)
+     * @param userId the user making the request
+     * @param regexFilter the filter to apply to the results (or null to include all results)
+     */
+    private void processResults(EntityMapping mapper,
+                                ReferenceList results,
+                                List<EntityDetail> entityDetails,
+                                int pageSize,
+                                String userId,
+                                RegexResultFilter regexFilter) throws RepositoryErrorException {
 
         if (pageSize == 0) {
             // If the provided pageSize was 0, we need to retrieve ALL pages of results...
             results.getAllPages(this.igcRestClient);
         }
 
+        /* Only proceed with retrieving the EntityDetail if the type from IGC is not explicitly
+         * a 'main_object' (as these are non-API-accessible asset types in IGC like column analysis master,
+         * etc and will simply result in 400-code Bad Request messages from the API) */
+        List<Reference> toMap = new ArrayList<>();
         for (Reference reference : results.getItems()) {
-            /* Only proceed with retrieving the EntityDetail if the type from IGC is not explicitly
-             * a 'main_object' (as these are non-API-accessible asset types in IGC like column analysis master,
-             * etc and will simply result in 400-code Bad Request messages from the API) */
-            if (!reference.getType().equals(DEFAULT_IGC_TYPE)) {
-                EntityDetail ed = null;
-
-                if (log.isDebugEnabled()) { log.debug("processResults with mapper: {}", mapper.getClass().getCanonicalName()); }
-                String idToLookup;
-                if (mapper.igcRidNeedsPrefix()) {
-                    if (log.isDebugEnabled()) { log.debug(" ... prefix required, getEntityDetail with: {}", mapper.getIgcRidPrefix() + reference.getId()); }
-                    idToLookup = mapper.getIgcRidPrefix() + reference.getId();
-                } else {
-                    if (log.isDebugEnabled()) { log.debug(" ... no prefix required, getEntityDetail with: {}", reference.getId()); }
-                    idToLookup = reference.getId();
-                }
-                try {
-                    ed = getEntityDetail(userId, idToLookup, reference);
-                } catch (EntityNotKnownException e) {
-                    if (log.isErrorEnabled()) { log.error("Unable to find entity: {}", idToLookup); }
-                }
-                if (ed != null) {
-                    entityDetails.add(ed);
+            if (!reference.getType().equals(DEFAULT_IGC_TYPE) && (regexFilter == null || regexFilter.matches(reference))) {
+                toMap.add(reference);
+            }
+        }
+
+        if (log.isDebugEnabled()) { log.debug("processResults with mapper: {}", mapper.getClass().getCanonicalName()); }
+        if (regexFilter == null) {
+            entityDetails.addAll(mapResults(mapper, toMap, userId));
+        } else {
+            // Filtered results are retrieved in larger pages, so only map as many as are needed at a time (skipping
+            // those before the starting index), continuing through this page until it is used up or the results full
+            int position = 0;
+            while (position < toMap.size() && (pageSize == 0 || entityDetails.size() < pageSize)) {
+                int needed = pageSize == 0 ? toMap.size() : regexFilter.getToSkip() + pageSize - entityDetails.size();
+                int end = Math.min(toMap.size(), position + needed);
+                for (EntityDetail ed : mapResults(mapper, toMap.subList(position, end), userId)) {
+                    if (!regexFilter.skip()) {
+                        entityDetails.add(ed);
+                    }
                 }
+                position = end;
             }
         }
 
         // If we haven't filled a page of results (because we needed to skip some above), recurse...
         if (results.hasMorePages() && entityDetails.size() < pageSize) {
             results.getNextPage(this.igcRestClient);
-            processResults(mapper, results, entityDetails, pageSize, userId);
+            processResults(mapper, results, entityDetails, pageSize, userId, regexFilter);
         }
 
     }
 
+    /**
+     * Map the provided search results into EntityDetail objects (in parallel, if there are enough of them).
+     *
+     * @param mapper the EntityMapping that should be used to translate the results
+     * @param toMap the IGC search results to map
+     * @param userId the user making the request
+     * @return {@code List<EntityDetail>} the mapped results, in their original order (omitting any that could not be mapped)
+     * @throws RepositoryErrorException if any of the results could not be mapped
+     */
+    private List<EntityDetail> mapResults(EntityMapping mapper,
+                                          List<Reference> toMap,
+                                          String userId) throws RepositoryErrorException {
+        List<EntityDetail> mapped = new ArrayList<>(toMap.size());
+        ExecutorService mappingExecutor = igcomrsRepositoryConnector.getMappingExecutor();
+        if (mappingExecutor == null || toMap.size() < igcomrsRepositoryConnector.getParallelMappingThreshold()) {
+            for (Reference reference : toMap) {
+                EntityDetail ed = getEntityDetailForResult(mapper, reference, userId);
+                if (ed != null) {
+                    mapped.add(ed);
+                }
+            }
+        } else {
+            // Map the results in parallel, but collect them in their original order
+            List<Future<EntityDetail>> futures = new ArrayList<>(toMap.size());
+            try {
+                for (Reference reference : toMap) {
+                    futures.add(mappingExecutor.submit(() -> getEntityDetailForResult(mapper, reference, userId)));
+                }
+                for (Future<EntityDetail> future : futures) {
+                    EntityDetail ed = future.get();
+                    if (ed != null) {
+                        mapped.add(ed);
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RepositoryErrorException) {
+                    throw (RepositoryErrorException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                raiseMappingFailure(mapper, cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                raiseMappingFailure(mapper, e);
+            } finally {
+                for (Future<EntityDetail> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        return mapped;
+    }
+
+    /**
+     * Map a single search result into an EntityDetail.
+     *
+     * @param mapper the EntityMapping that should be used to translate the result
+     * @param reference the IGC search result
+     * @param userId the user making the request
+     * @return EntityDetail, or null if the entity could not be found
+     * @throws RepositoryErrorException if the result could not be mapped
+     */
+    private EntityDetail getEntityDetailForResult(EntityMapping mapper,
+                                                  Reference reference,
+                                                  String userId) throws RepositoryErrorException {
+        EntityDetail ed = null;
+        String idToLookup;
+        if (mapper.igcRidNeedsPrefix()) {
+            if (log.isDebugEnabled()) { log.debug(" ... prefix required, getEntityDetail with: {}", mapper.getIgcRidPrefix() + reference.getId()); }
+            idToLookup = mapper.getIgcRidPrefix() + reference.getId();
+        } else {
+            if (log.isDebugEnabled()) { log.debug(" ... no prefix required, getEntityDetail with: {}", reference.getId()); }
+            idToLookup = reference.getId();
+        }
+        try {
+            ed = getEntityDetail(userId, idToLookup, reference);
+        } catch (EntityNotKnownException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to find entity: {}", idToLookup); }
+        }
+        return ed;
+    }
+
+    /**
+     * Throw a RepositoryErrorException for a failure to map search results in parallel.
+     *
+     * @param mapper the EntityMapping that was being used to translate the results
+     * @param cause the underlying failure
+     * @throws RepositoryErrorException always
+     */
+    private void raiseMappingFailure(EntityMapping mapper, Throwable cause) throws RepositoryErrorException {
+        final String methodName = "processResults";
+        if (log.isErrorEnabled()) { log.error("Unable to map results for type: {}", mapper.getIgcAssetType(), cause); }
+        IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.MAPPING_FAILURE;
+        String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(mapper.getIgcAssetType());
+        throw new RepositoryErrorException(errorCode.getHTTPErrorCode(),
+                this.getClass().getName(),
+                methodName,
+                errorMessage,
+                errorCode.getSystemAction(),
+                errorCode.getUserAction());
+    }
+
     /**
      * Retrieve the IGC search conditions to limit results by the provided classification. Will return null if the
      * provided classification cannot be applied to the provided IGC asset type.
@@ -2943,6 +3178,23 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
 
     }
 
+    /**
+     * Retrieves the names of all IGC asset types that are explicitly mapped to some OMRS entity type (ie. excluding
+     * the default mapping that applies to any asset), in a consistent (sorted) order.
+     *
+     * @return {@code List<String>}
+     */
+    public List<String> getMappedIgcAssetTypes() {
+        Set<String> igcAssetTypes = new TreeSet<>();
+        for (EntityMapping mapping : entityMappingStore.getAllMappings()) {
+            String igcAssetType = mapping.getIgcAssetType();
+            if (igcAssetType != null && !igcAssetType.equals(DEFAULT_IGC_TYPE)) {
+                igcAssetTypes.add(igcAssetType);
+            }
+        }
+        return new ArrayList<>(igcAssetTypes);
+    }
+
     /**
      * Retrieves a mapping from attribute name to TypeDefAttribute for all OMRS attributes defined for the provided
      * OMRS TypeDef name.
@@ -3106,16 +3358,11 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
                                     unqualifiedValue
                             ));
                         } else {
-                            IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REGEX_NOT_IMPLEMENTED;
-                            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(
-                                    repositoryName,
-                                    candidateValue);
-                            throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
-                                    IGCOMRSMetadataCollection.class.getName(),
-                                    methodName,
-                                    errorMessage,
-                                    errorCode.getSystemAction(),
-                                    errorCode.getUserAction());
+                            // Push down whatever the regular expression requires, and match it against the results
+                            igcSearchConditionSet.addRegexCondition(
+                                    igcPropertyName,
+                                    getRegexSearchPlan(repositoryName, candidateValue, IGCOMRSMetadataCollection.class.getName(), methodName)
+                            );
                         }
                         break;
                 }
@@ -3175,6 +3422,36 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
 
     }
 
+    /**
+     * Plans a search by a regular expression that cannot be translated directly into IGC search criteria.
+     *
+     * @param repositoryName name of the repository
+     * @param regex the regular expression by which to search
+     * @param className name of the class searching by the regular expression
+     * @param methodName name of the method searching by the regular expression
+     * @return IGCRegexSearchPlan
+     * @throws FunctionNotSupportedException when the regular expression is not valid
+     */
+    public static IGCRegexSearchPlan getRegexSearchPlan(String repositoryName,
+                                                        String regex,
+                                                        String className,
+                                                        String methodName) throws FunctionNotSupportedException {
+        try {
+            return new IGCRegexSearchPlan(regex);
+        } catch (PatternSyntaxException e) {
+            IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REGEX_NOT_IMPLEMENTED;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(
+                    repositoryName,
+                    regex);
+            throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
+                    className,
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction());
+        }
+    }
+
     /**
      * Retrieves the RID from a generated GUID (or the GUID if it is not generated).
      *
@@ -3234,29 +3511,7 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
      * @return OMRSStub
      */
     public OMRSStub getOMRSStubForAsset(String rid, String type) {
-
-        // We need to translate the provided asset into a unique name for the stub
-        String stubName = getStubNameForAsset(rid, type);
-        IGCSearchCondition condition = new IGCSearchCondition(
-                "name",
-                "=",
-                stubName
-        );
-        String[] properties = new String[]{ "$sourceRID", "$sourceType", "$payload" };
-        IGCSearchConditionSet conditionSet = new IGCSearchConditionSet(condition);
-        IGCSearch igcSearch = new IGCSearch("$OMRS-Stub", properties, conditionSet);
-        ReferenceList results = igcRestClient.search(igcSearch);
-        OMRSStub stub = null;
-        if (results.getPaging().getNumTotal() > 0) {
-            if (results.getPaging().getNumTotal() > 1) {
-                if (log.isWarnEnabled()) { log.warn("Found multiple stubs for asset, taking only the first: {}", stubName); }
-            }
-            stub = (OMRSStub) results.getItems().get(0);
-        } else {
-            if (log.isInfoEnabled()) { log.info("No stub found for asset: {}", stubName); }
-        }
-        return stub;
-
+        return stubStore.getStub(rid, type);
     }
 
     /**
@@ -3267,86 +3522,65 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
      * @return OMRSStub
      */
     public OMRSStub getOMRSStubForAsset(Reference asset) {
-        // We need to translate the provided asset into a unique name for the stub
         return getOMRSStubForAsset(asset.getId(), asset.getType());
     }
 
+    /**
+     * Retrieve the OMRS asset stubs (shadow copies of the last version of each asset) for all of the provided assets
+     * of a single type, in as few requests as possible.
+     * <br><br>
+     * Any asset for which there is no existing stub will simply be missing from the results.
+     *
+     * @param rids the Repository IDs (RIDs) of the assets for which to retrieve the OMRS stubs
+     * @param type the IGC asset type of all of the assets for which to retrieve the OMRS stubs
+     * @return {@code Map<String, OMRSStub>} of the stubs that were found, keyed by the RID of the asset they represent
+     */
+    public Map<String, OMRSStub> getOMRSStubsForAssets(List<String> rids, String type) {
+        return stubStore.getStubs(rids, type);
+    }
+
     /**
      * Update (or create if it does not already exist) the OMRS asset stub for the provided asset.
      * (Note that this method assumes you have already retrieved the full asset being provided.)
      *
      * @param asset the asset for which to upsert the OMRS stub
-     * @return String the Repository ID (RID) of the OMRS stub
+     * @return String the unique identifier of the OMRS stub within the stub store
      */
     public String upsertOMRSStubForAsset(Reference asset) {
+        return upsertOMRSStubForAsset(asset, null);
+    }
 
-        String stubName = getStubNameFromAsset(asset);
-
-        // Get the full asset details as a singular JSON payload
+    /**
+     * Update (or create if it does not already exist) the OMRS asset stub for the provided asset, keeping alongside
+     * it the EntityDetails that were mapped from this version of the asset (so that they need not be mapped again
+     * when this version is next needed as the previous version of the entity).
+     * (Note that this method assumes you have already retrieved the full asset being provided.)
+     *
+     * @param asset the asset for which to upsert the OMRS stub
+     * @param entityDetails the EntityDetails mapped from the asset, keyed by RID (including any prefix)
+     * @return String the unique identifier of the OMRS stub within the stub store
+     */
+    public String upsertOMRSStubForAsset(Reference asset, Map<String, EntityDetail> entityDetails) {
+        // Get the full asset details as a singular JSON payload, and store it in its compact form
         String payload = igcRestClient.getValueAsJSON(asset);
-
-        // Construct the asset XML document, including the full asset payload
-        StringWriter stringWriter = new StringWriter();
         try {
-
-            XMLStreamWriter xmlStreamWriter = xmlOutputFactory.createXMLStreamWriter(stringWriter);
-            xmlStreamWriter.writeStartDocument("UTF-8", "1.0");
-
-            xmlStreamWriter.writeStartElement("doc");
-            xmlStreamWriter.writeNamespace("xmlns", "http://www.ibm.com/iis/flow-doc");
-
-            xmlStreamWriter.writeStartElement("assets");
-            xmlStreamWriter.writeStartElement("asset");
-
-            xmlStreamWriter.writeAttribute("class", "$OMRS-Stub");
-            xmlStreamWriter.writeAttribute("repr", stubName);
-            xmlStreamWriter.writeAttribute("ID", "stub1");
-
-            addAttributeToAssetXML(xmlStreamWriter, "name", stubName);
-            addAttributeToAssetXML(xmlStreamWriter, "$sourceType", asset.getType());
-            addAttributeToAssetXML(xmlStreamWriter, "$sourceRID", asset.getId());
-            addAttributeToAssetXML(xmlStreamWriter, "$payload", payload);
-
-            xmlStreamWriter.writeEndElement(); // </asset>
-            xmlStreamWriter.writeEndElement(); // </assets>
-
-            xmlStreamWriter.writeStartElement("importAction");
-            xmlStreamWriter.writeAttribute("completeAssetIDs", "stub1");
-            xmlStreamWriter.writeEndElement(); // </importAction>
-
-            xmlStreamWriter.writeEndElement(); // </doc>
-
-            xmlStreamWriter.writeEndDocument();
-            xmlStreamWriter.flush();
-            xmlStreamWriter.close();
-
-        } catch (XMLStreamException e) {
-            if (log.isErrorEnabled()) { log.error("Unable to write XML stream: {}", asset, e); }
+            payload = OMRSStubPayload.encode(payload, entityDetails);
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) { log.warn("Unable to encode compact stub payload, storing as-is: {}", asset.getId(), e); }
         }
-
-        String stubXML = stringWriter.getBuffer().toString();
-        if (log.isDebugEnabled()) { log.debug("Constructed XML for stub: {}", stubXML); }
-
-        // Upsert using the constructed asset XML
-        String results = igcRestClient.upsertOpenIgcAsset(stubXML);
-
-        return results.substring("stub1".length() + 5, results.length() - 2);
-
+        return stubStore.upsertStub(asset.getId(), asset.getType(), payload);
     }
 
     /**
-     * Adds the provided attribute to the asset XML being constructed.
+     * Put back an OMRS asset stub exactly as it was previously retrieved (eg. to undo a later update or deletion of it).
      *
-     * @param xmlStreamWriter the asset XML being constructed
-     * @param attrName the name of the attribute to add
-     * @param attrValue the value of the attribute
-     * @throws XMLStreamException
+     * @param rid the Repository ID (RID) of the asset for which to restore the OMRS stub
+     * @param assetType the IGC asset type of the asset for which to restore the OMRS stub
+     * @param stub the OMRS stub as it was previously retrieved
+     * @return String the unique identifier of the OMRS stub within the stub store
      */
-    private void addAttributeToAssetXML(XMLStreamWriter xmlStreamWriter, String attrName, String attrValue) throws XMLStreamException {
-        xmlStreamWriter.writeStartElement("attribute");
-        xmlStreamWriter.writeAttribute("name", attrName);
-        xmlStreamWriter.writeAttribute("value", attrValue);
-        xmlStreamWriter.writeEndElement(); // </attribute>
+    public String restoreOMRSStubForAsset(String rid, String assetType, OMRSStub stub) {
+        return stubStore.upsertStub(rid, assetType, stub.getPayload());
     }
 
     /**
@@ -3358,51 +3592,7 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
      * @return boolean - true on successful deletion, false otherwise
      */
     public boolean deleteOMRSStubForAsset(String rid, String assetType) {
-
-        String stubName = getStubNameForAsset(rid, assetType);
-
-        // Construct the asset XML document, including the full asset payload
-        StringWriter stringWriter = new StringWriter();
-        try {
-
-            XMLStreamWriter xmlStreamWriter = xmlOutputFactory.createXMLStreamWriter(stringWriter);
-            xmlStreamWriter.writeStartDocument("UTF-8", "1.0");
-
-            xmlStreamWriter.writeStartElement("doc");
-            xmlStreamWriter.writeNamespace("xmlns", "http://www.ibm.com/iis/flow-doc");
-
-            xmlStreamWriter.writeStartElement("assets");
-            xmlStreamWriter.writeStartElement("asset");
-
-            xmlStreamWriter.writeAttribute("class", "$OMRS-Stub");
-            xmlStreamWriter.writeAttribute("repr", stubName);
-            xmlStreamWriter.writeAttribute("ID", "stub1");
-
-            addAttributeToAssetXML(xmlStreamWriter, "name", stubName);
-
-            xmlStreamWriter.writeEndElement(); // </asset>
-            xmlStreamWriter.writeEndElement(); // </assets>
-
-            xmlStreamWriter.writeStartElement("assetsToDelete");
-            xmlStreamWriter.writeCharacters("stub1");
-            xmlStreamWriter.writeEndElement(); // </assetsToDelete>
-
-            xmlStreamWriter.writeEndElement(); // </doc>
-
-            xmlStreamWriter.writeEndDocument();
-            xmlStreamWriter.flush();
-            xmlStreamWriter.close();
-
-        } catch (XMLStreamException e) {
-            log.error("Unable to write XML stream.", e);
-        }
-
-        String stubXML = stringWriter.getBuffer().toString();
-        if (log.isDebugEnabled()) { log.debug("Constructed XML for stub deletion: {}", stubXML); }
-
-        // Delete using the constructed asset XML
-        return igcRestClient.deleteOpenIgcAsset(stubXML);
-
+        return stubStore.deleteStub(rid, assetType);
     }
 
     /**
@@ -3485,6 +3675,204 @@ public class IGCOMRSMetadataCollection extends OMRSMetadataCollectionBase {
 
     }
 
+    /**
+     * Retrieve all of the asset details, including all relationships, for all of the provided RIDs of a single
+     * asset type. Rather than retrieving each asset individually (as in getFullAssetDetails), the RIDs are split
+     * into chunks of (at most) the default page size and all properties of the assets in each chunk are retrieved
+     * by a single search; only those relationships that have more than a single page of results still require
+     * further requests.
+     * <br><br>
+     * Any RID that cannot be found (eg. because the asset has since been deleted) will simply be missing from the
+     * results.
+     *
+     * @param rids the Repository IDs (RIDs) of the assets for which to retrieve all details
+     * @param assetType the IGC asset type of all of the assets
+     * @return {@code Map<String, Reference>} of the fully-retrieved assets, keyed by RID
+     */
+    public Map<String, Reference> getFullAssetDetails(List<String> rids, String assetType) {
+        List<String> allProps = null;
+        if (igcRestClient.getPOJOForType(assetType) != null) {
+            allProps = igcRestClient.getAllPropertiesFromPOJO(assetType);
+        }
+        return getAssetDetailsInBulk(rids, assetType, allProps, null);
+    }
+
+    /**
+     * Retrieve only those asset details that are used by the registered mappings for the asset's type (see
+     * getMappedIgcPropertiesForType), for the provided asset reference. Any relationship that has more than a single
+     * page of results will only have its remaining pages retrieved if the checksum of its first page differs from the
+     * same relationship in the provided previous version of the asset: otherwise the previous version's (complete)
+     * list of relationships is re-used as-is.
+     * <br><br>
+     * The asset that is returned will be marked as fully-retrieved, as it contains everything needed to map it.
+     *
+     * @param assetRef the minimal reference to the asset for which to retrieve the mapped details
+     * @param previousVersion the last fully-retrieved version of the asset (eg. from its OMRS stub), or null if none
+     * @param userId the userId making the request
+     * @return Reference - the object including all of its mapped details, or null if the asset no longer exists
+     */
+    public Reference getMappedAssetDetails(Reference assetRef, Reference previousVersion, String userId) {
+        String rid = assetRef.getId();
+        Map<String, Reference> previousVersionsByRid = null;
+        if (previousVersion != null) {
+            previousVersionsByRid = Collections.singletonMap(rid, previousVersion);
+        }
+        return getMappedAssetDetails(
+                Collections.singletonList(rid),
+                assetRef.getType(),
+                previousVersionsByRid,
+                userId
+        ).get(rid);
+    }
+
+    /**
+     * Retrieve only those asset details that are used by the registered mappings for the asset type (see
+     * getMappedIgcPropertiesForType), for all of the provided RIDs of a single asset type, in bulk. Any relationship
+     * that has more than a single page of results will only have its remaining pages retrieved if the checksum of its
+     * first page differs from the same relationship in the previous version of the asset.
+     *
+     * @param rids the Repository IDs (RIDs) of the assets for which to retrieve the mapped details
+     * @param assetType the IGC asset type of all of the assets
+     * @param previousVersionsByRid the last fully-retrieved versions of the assets (eg. from their OMRS stubs),
+     *                              keyed by RID (or null if there are none)
+     * @param userId the userId making the request
+     * @return {@code Map<String, Reference>} of the retrieved assets, keyed by RID
+     */
+    public Map<String, Reference> getMappedAssetDetails(List<String> rids,
+                                                        String assetType,
+                                                        Map<String, Reference> previousVersionsByRid,
+                                                        String userId) {
+        return getAssetDetailsInBulk(rids, assetType, getMappedIgcPropertiesForType(assetType, userId), previousVersionsByRid);
+    }
+
+    /**
+     * Retrieve the union of all IGC properties that are used by the registered entity, relationship and
+     * classification mappings for the provided IGC asset type: that is, only those properties whose changes could
+     * result in an OMRS event. (This always includes the non-relationship properties of the asset type, which are
+     * cheap to retrieve and used by the generic mappings.) If there is no registered POJO for the asset type, will
+     * return null.
+     *
+     * @param assetType the IGC asset type for which to retrieve the mapped properties
+     * @param userId the userId making the request
+     * @return {@code List<String>}
+     */
+    public List<String> getMappedIgcPropertiesForType(String assetType, String userId) {
+
+        if (igcRestClient.getPOJOForType(assetType) == null) {
+            return null;
+        }
+
+        Set<String> mappedProperties = new LinkedHashSet<>(igcRestClient.getNonRelationshipPropertiesFromPOJO(assetType));
+        mappedProperties.addAll(IGCRestConstants.getModificationProperties());
+        for (EntityMapping mapper : getMappers(assetType, userId)) {
+            mappedProperties.addAll(mapper.getAllMappedIgcProperties());
+            for (ClassificationMapping classificationMapping : mapper.getClassificationMappers()) {
+                mappedProperties.addAll(classificationMapping.getMappedIgcPropertyNames());
+            }
+            for (RelationshipMapping relationshipMapping : mapper.getRelationshipMappers()) {
+                mappedProperties.addAll(relationshipMapping.getIgcRelationshipPropertiesForType(assetType));
+            }
+        }
+        mappedProperties.addAll(getIgcPropertiesToRelationshipMappings(assetType, userId).keySet());
+
+        // Only keep those that are actually properties of the asset type (ie. drop any sentinels)
+        mappedProperties.retainAll(igcRestClient.getAllPropertiesFromPOJO(assetType));
+        return new ArrayList<>(mappedProperties);
+
+    }
+
+    /**
+     * Retrieve the provided properties for all of the provided RIDs of a single asset type, in chunked searches.
+     * Relationships with more than a single page of results have their remaining pages retrieved, unless the
+     * checksum of their first page matches the previous version of the asset (if provided), in which case the
+     * previous version's list of relationships is re-used.
+     *
+     * @param rids the Repository IDs (RIDs) of the assets for which to retrieve details
+     * @param assetType the IGC asset type of all of the assets
+     * @param properties the properties to retrieve (or null to only retrieve basic references)
+     * @param previousVersionsByRid the last fully-retrieved versions of the assets keyed by RID (or null if none)
+     * @return {@code Map<String, Reference>} of the retrieved assets, keyed by RID
+     */
+    private Map<String, Reference> getAssetDetailsInBulk(List<String> rids,
+                                                         String assetType,
+                                                         List<String> properties,
+                                                         Map<String, Reference> previousVersionsByRid) {
+
+        Map<String, Reference> assetsByRid = new HashMap<>();
+
+        if (properties != null) {
+
+            String[] props = properties.toArray(new String[0]);
+            List<String> allPaged = new ArrayList<>(igcRestClient.getPagedRelationalPropertiesFromPOJO(assetType));
+            allPaged.retainAll(properties);
+            int chunkSize = igcRestClient.getDefaultPageSize();
+
+            for (int i = 0; i < rids.size(); i += chunkSize) {
+                List<String> chunk = rids.subList(i, Math.min(i + chunkSize, rids.size()));
+                IGCSearchConditionSet conditionSet = new IGCSearchConditionSet();
+                for (String rid : chunk) {
+                    conditionSet.addCondition(new IGCSearchCondition("_id", "=", rid));
+                }
+                conditionSet.setMatchAnyCondition(true);
+                IGCSearch igcSearch = new IGCSearch(Reference.getAssetTypeForSearch(assetType), props, conditionSet);
+                igcSearch.setPageSize(chunkSize);
+                ReferenceList results = igcRestClient.search(igcSearch);
+                if (results != null) {
+                    results.getAllPages(igcRestClient);
+                    for (Reference asset : results.getItems()) {
+                        Reference previousVersion = null;
+                        if (previousVersionsByRid != null) {
+                            previousVersion = previousVersionsByRid.get(asset.getId());
+                        }
+                        retrieveRemainingPages(asset, allPaged, previousVersion);
+                        // Set the asset as fully retrieved, so we do not attempt to retrieve parts of it again
+                        asset.setFullyRetrieved();
+                        assetsByRid.put(asset.getId(), asset);
+                    }
+                }
+            }
+
+        } else {
+            if (log.isDebugEnabled()) { log.debug("No registered POJO for asset type {} -- returning basic references.", assetType); }
+            for (Reference assetRef : igcRestClient.getAssetRefsByIds(rids)) {
+                assetsByRid.put(assetRef.getId(), assetRef);
+            }
+        }
+
+        return assetsByRid;
+
+    }
+
+    /**
+     * Retrieve the remaining pages of each of the provided paged properties of the asset. If a previous version of
+     * the asset is provided, and the checksum of the first page of a property matches the checksum of the same
+     * number of items from the previous version, the previous version's complete list is used rather than
+     * retrieving the remaining pages.
+     *
+     * @param asset the asset for which to retrieve remaining pages
+     * @param pagedProperties the paged (relationship) properties of the asset
+     * @param previousVersion the last fully-retrieved version of the asset (or null if none)
+     */
+    private void retrieveRemainingPages(Reference asset, List<String> pagedProperties, Reference previousVersion) {
+        for (String pagedProperty : pagedProperties) {
+            ReferenceList pagedValue = (ReferenceList) igcRestClient.getPropertyByName(asset, pagedProperty);
+            if (pagedValue != null && pagedValue.hasMorePages()) {
+                ReferenceList previousValue = null;
+                if (previousVersion != null) {
+                    previousValue = (ReferenceList) igcRestClient.getPropertyByName(previousVersion, pagedProperty);
+                }
+                int firstPageSize = pagedValue.getItems().size();
+                if (previousValue != null && previousValue.getChecksum(firstPageSize) == pagedValue.getChecksum(firstPageSize)) {
+                    if (log.isDebugEnabled()) { log.debug("First page of {} unchanged for {} -- re-using previous version.", pagedProperty, asset.getId()); }
+                    pagedValue.setItems(previousValue.getItems());
+                    pagedValue.setPaging(previousValue.getPaging());
+                } else {
+                    pagedValue.getAllPages(igcRestClient);
+                }
+            }
+        }
+    }
+
     /**
      * Returns an IGCSearchSorting equivalent to the provided SequencingOrder, so long as the provided
      * sequencingOrder is not one of [ PROPERTY_ASCENDING, PROPERTY_DESCENDING ] (because these must
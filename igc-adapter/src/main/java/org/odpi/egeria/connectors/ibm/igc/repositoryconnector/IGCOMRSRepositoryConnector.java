@@ -3,8 +3,13 @@
 package org.odpi.egeria.connectors.ibm.igc.repositoryconnector;
 
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClientRegistry;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IdentityCache;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores.IGCOMRSStubStore;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores.LocalOMRSStubStore;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores.OMRSStubStore;
 import org.odpi.openmetadata.frameworks.connectors.properties.ConnectionProperties;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.OMRSMetadataCollection;
 import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.repositoryconnector.OMRSRepositoryConnector;
@@ -14,15 +19,37 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
 
     private static final Logger log = LoggerFactory.getLogger(IGCOMRSRepositoryConnector.class);
 
+    private static final int DEFAULT_MAPPING_THREADS = 1;
+    private static final int DEFAULT_MAPPING_THRESHOLD = 8;
+
+    private static final String OMRS_BUNDLE_ID = "OMRS";
+
     private IGCRestClient igcRestClient;
     private IGCVersionEnum igcVersion;
+    private OMRSStubStore stubStore;
+
+    private ExecutorService mappingExecutor;
+    private int parallelMappingThreshold;
 
     private List<String> defaultZones;
 
@@ -60,20 +87,25 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
         if (zones != null) {
             this.defaultZones = (List<String>) zones;
         }
-
-        // Create new REST API client (opens a new session)
-        this.igcRestClient = new IGCRestClient(igcHost, igcPort, igcUser, igcPass);
+        String stubStorePath = (String) proxyProperties.get("ibm.igc.stubs.path");
+        boolean importStubs = Boolean.parseBoolean((String) proxyProperties.get("ibm.igc.stubs.import"));
+        int mappingThreads = getIntegerProperty(proxyProperties, "ibm.igc.mapping.threads", DEFAULT_MAPPING_THREADS);
+        this.parallelMappingThreshold = Math.max(2, getIntegerProperty(proxyProperties, "ibm.igc.mapping.parallel.threshold", DEFAULT_MAPPING_THRESHOLD));
+        String startupCachePath = (String) proxyProperties.get("ibm.igc.cache.path");
+        int identityCacheSize = getIntegerProperty(proxyProperties, "ibm.igc.identity.cache.size", IdentityCache.DEFAULT_MAXIMUM_SIZE);
+
+        // Retrieve the REST API client (opens a new session, unless another connector already has one open)
+        // (with its page size and identity cache size, as these are fixed for any client that is shared)
+        this.igcRestClient = IGCRestClientRegistry.acquire(igcHost, igcPort, igcUser, igcPass, startupCachePath, getMaxPageSize(), identityCacheSize);
         if (this.igcRestClient.isSuccessfullyInitialised()) {
-            if (getMaxPageSize() > 0) {
-                this.igcRestClient.setDefaultPageSize(getMaxPageSize());
-            }
-
             // Set the version based on the IGC client's auto-determination of the IGC environment's version
             this.igcVersion = this.igcRestClient.getIgcVersion();
 
             try {
-                boolean success = upsertOMRSBundleZip();
                 this.igcRestClient.registerPOJO(OMRSStub.class);
+                boolean success = upsertOMRSBundleZip();
+                this.stubStore = createOMRSStubStore(stubStorePath, importStubs);
+                this.mappingExecutor = createMappingExecutor(mappingThreads);
                 successfulInit = success;
             } catch (RepositoryErrorException e) {
                 log.error("Unable to create necessary OMRS objects -- failing.", e);
@@ -84,6 +116,11 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
         }
 
         if (!successfulInit) {
+            if (this.igcRestClient.isSuccessfullyInitialised()) {
+                IGCRestClientRegistry.release(this.igcRestClient);
+            }
+            // Already released, so that disconnect() must not release it again
+            this.igcRestClient = null;
             IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REST_CLIENT_FAILURE;
             String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(igcHost + ":" + igcPort);
             throw new OMRSRuntimeException(
@@ -135,8 +172,15 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
     @Override
     public void disconnect() {
 
-        // Close the session on the IGC REST client
-        this.igcRestClient.disconnect();
+        // Release the stub store, and the IGC REST client (closing its session if no other connector is using it)
+        if (this.stubStore != null) {
+            this.stubStore.close();
+        }
+        if (this.mappingExecutor != null) {
+            this.mappingExecutor.shutdownNow();
+        }
+        IGCRestClientRegistry.release(this.igcRestClient);
+        this.igcRestClient = null;
 
     }
 
@@ -165,6 +209,29 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
      */
     public IGCRestClient getIGCRestClient() { return this.igcRestClient; }
 
+    /**
+     * Access the store used to persist OMRS stubs (shadow copies of the last version of each asset processed).
+     *
+     * @return OMRSStubStore
+     */
+    public OMRSStubStore getOMRSStubStore() { return this.stubStore; }
+
+    /**
+     * Access the pool of threads through which to map the results of a search into entities in parallel, or null if
+     * results should only be mapped sequentially.
+     *
+     * @return ExecutorService
+     */
+    public ExecutorService getMappingExecutor() { return this.mappingExecutor; }
+
+    /**
+     * Retrieve the minimum number of results in a page for which mapping is done in parallel: smaller pages are
+     * mapped sequentially, as the coordination would cost more than it saves.
+     *
+     * @return int
+     */
+    public int getParallelMappingThreshold() { return this.parallelMappingThreshold; }
+
     /**
      * Retrieve the list of default zones to apply to assets.
      *
@@ -172,8 +239,89 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
      */
     public List<String> getDefaultZones() { return this.defaultZones; }
 
+    /**
+     * Creates the store to use for OMRS stubs: by default the stubs are kept as OpenIGC assets within IGC itself, but
+     * if a local path is provided they are instead kept in a local on-disk store at that path. When a local store is
+     * used, any stubs already in IGC can optionally be imported into it (only if the local store is still empty).
+     *
+     * @param stubStorePath the local directory in which to keep stubs, or null to keep them within IGC
+     * @param importStubs whether to import existing stubs from IGC into an empty local store
+     * @return OMRSStubStore
+     * @throws RepositoryErrorException if the local store cannot be created
+     */
+    private OMRSStubStore createOMRSStubStore(String stubStorePath, boolean importStubs) throws RepositoryErrorException {
+
+        final String methodName = "createOMRSStubStore";
+
+        IGCOMRSStubStore igcStubStore = new IGCOMRSStubStore(this.igcRestClient);
+        if (stubStorePath == null || stubStorePath.equals("")) {
+            return igcStubStore;
+        }
+
+        try {
+            LocalOMRSStubStore localStubStore = new LocalOMRSStubStore(stubStorePath);
+            if (importStubs && localStubStore.size() == 0) {
+                localStubStore.importStubs(igcStubStore);
+            }
+            return localStubStore;
+        } catch (IOException e) {
+            IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.STUB_STORE_FAILURE;
+            String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(stubStorePath);
+            throw new RepositoryErrorException(errorCode.getHTTPErrorCode(),
+                    this.getClass().getName(),
+                    methodName,
+                    errorMessage,
+                    errorCode.getSystemAction(),
+                    errorCode.getUserAction());
+        }
+
+    }
+
+    /**
+     * Creates the (bounded) pool of threads used to map search results in parallel.
+     *
+     * @param threads the maximum number of results to map at the same time (1 or less to only map sequentially)
+     * @return ExecutorService, or null if mapping should only be sequential
+     */
+    private ExecutorService createMappingExecutor(int threads) {
+        if (threads <= 1) {
+            if (log.isInfoEnabled()) { log.info("Parallel mapping of search results is disabled."); }
+            return null;
+        }
+        final AtomicInteger count = new AtomicInteger(0);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "IGC-mapping-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Retrieve an integer-valued configuration property, or the provided default if it is not set (or invalid).
+     * (Also used for the configuration properties of the event mapper.)
+     *
+     * @param properties the configuration properties
+     * @param name the name of the property
+     * @param defaultValue the value to use if the property is not set
+     * @return int
+     */
+    public static int getIntegerProperty(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                if (log.isWarnEnabled()) { log.warn("Invalid value for {} -- using default of {}: {}", name, defaultValue, value); }
+            }
+        }
+        return defaultValue;
+    }
+
     /**
      * Generates a zip file for the OMRS OpenIGC bundle, needed to enable change tracking for the event mapper.
+     * The bundle is only uploaded if it does not yet exist in IGC, or its contents have changed since it was last
+     * uploaded.
      *
      * @return boolean true on success, or if the bundle already exists and false otherwise
      */
@@ -182,7 +330,28 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
         final String methodName = "upsertOMRSBundleZip";
 
         ClassPathResource bundleResource = new ClassPathResource("OMRS.zip");
-        boolean success = this.igcRestClient.upsertOpenIgcBundle("OMRS", bundleResource);
+        String fingerprint = getBundleFingerprint(bundleResource);
+
+        // The fingerprint of the last bundle uploaded is kept in IGC itself (as an OMRS stub marking the bundle),
+        // so that the bundle is only re-uploaded (and re-deployed by IGC) when its contents have changed
+        IGCOMRSStubStore bundleMarkers = new IGCOMRSStubStore(this.igcRestClient);
+        boolean success;
+        if (fingerprint != null
+                && this.igcRestClient.getOpenIgcBundles().contains(OMRS_BUNDLE_ID)
+                && fingerprint.equals(getDeployedBundleFingerprint(bundleMarkers))) {
+            if (log.isInfoEnabled()) { log.info("OpenIGC bundle {} is unchanged -- skipping upload.", OMRS_BUNDLE_ID); }
+            success = true;
+        } else {
+            success = this.igcRestClient.upsertOpenIgcBundle(OMRS_BUNDLE_ID, bundleResource);
+            if (success && fingerprint != null) {
+                // Failing to record the fingerprint only means the bundle is uploaded again on the next start
+                try {
+                    bundleMarkers.upsertStub(OMRS_BUNDLE_ID, IGCOMRSStubStore.BUNDLE_MARKER_TYPE, fingerprint);
+                } catch (Exception e) {
+                    if (log.isWarnEnabled()) { log.warn("Unable to record fingerprint of OpenIGC bundle {} -- continuing.", OMRS_BUNDLE_ID, e); }
+                }
+            }
+        }
         if (!success) {
             IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.OMRS_BUNDLE_FAILURE;
             String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage("open");
@@ -198,4 +367,59 @@ public class IGCOMRSRepositoryConnector extends OMRSRepositoryConnector {
 
     }
 
+    /**
+     * Retrieve the fingerprint of the OMRS bundle that was last uploaded to IGC, if it was recorded.
+     *
+     * @param bundleMarkers the store in IGC of the OMRS stub marking the bundle
+     * @return String the fingerprint, or null if none was recorded
+     */
+    private String getDeployedBundleFingerprint(IGCOMRSStubStore bundleMarkers) {
+        OMRSStub marker = bundleMarkers.getStub(OMRS_BUNDLE_ID, IGCOMRSStubStore.BUNDLE_MARKER_TYPE);
+        return marker == null ? null : marker.getPayload();
+    }
+
+    /**
+     * Calculate a fingerprint of the contents of the provided bundle zip file: the names and contents of its entries,
+     * but not their timestamps (which change every time the zip file is built).
+     *
+     * @param bundleResource the bundle zip file
+     * @return String the fingerprint, or null if it could not be calculated
+     */
+    private String getBundleFingerprint(ClassPathResource bundleResource) {
+
+        String fingerprint = null;
+        try (InputStream bundleInput = bundleResource.getInputStream();
+             ZipInputStream zipInput = new ZipInputStream(bundleInput)) {
+
+            // Digest each entry separately, then combine them in order of name so the order of the entries is irrelevant
+            TreeMap<String, byte[]> digestsByName = new TreeMap<>();
+            byte[] buffer = new byte[4096];
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                MessageDigest entryDigest = MessageDigest.getInstance("SHA-256");
+                int length;
+                while ((length = zipInput.read(buffer)) >= 0) {
+                    entryDigest.update(buffer, 0, length);
+                }
+                digestsByName.put(entry.getName(), entryDigest.digest());
+            }
+
+            MessageDigest bundleDigest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, byte[]> digest : digestsByName.entrySet()) {
+                bundleDigest.update(digest.getKey().getBytes(UTF_8));
+                bundleDigest.update(digest.getValue());
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : bundleDigest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            fingerprint = sb.toString();
+
+        } catch (IOException | NoSuchAlgorithmException e) {
+            if (log.isWarnEnabled()) { log.warn("Unable to fingerprint OpenIGC bundle -- it will always be uploaded.", e); }
+        }
+        return fingerprint;
+
+    }
+
 }
@@ -26,6 +26,8 @@ public class EntityMappingInstance {
     private IGCOMRSMetadataCollection igcomrsMetadataCollection;
     private String userId;
 
+    private Set<String> mappedIgcProperties;
+
     private Reference igcEntity;
     private EntitySummary omrsSummary;
     private EntityDetail omrsDetail;
@@ -54,11 +56,11 @@ public class EntityMappingInstance {
         this.omrsRelationships = new ArrayList<>();
         this.omrsClassifications = new ArrayList<>();
 
-        // Add modification details by default, if available, to the mapping
+        // Add modification details by default, if available, to the properties for this instance (only: the mapping
+        // itself is shared by all instances)
+        this.mappedIgcProperties = new HashSet<>(mapping.getAllMappedIgcProperties());
         if (igcEntity != null && igcomrsRepositoryConnector.getIGCRestClient().hasModificationDetails(igcEntity.getType())) {
-            for (String property : IGCRestConstants.getModificationProperties()) {
-                mapping.addComplexIgcProperty(property);
-            }
+            this.mappedIgcProperties.addAll(IGCRestConstants.getModificationProperties());
         }
 
     }
@@ -70,6 +72,14 @@ public class EntityMappingInstance {
      */
     public final EntityMapping getMapping() { return mapping; }
 
+    /**
+     * Retrieve the set of all IGC properties mapped for this instance: those of the mapping definition, along with
+     * the modification details of the IGC object (if it has any).
+     *
+     * @return {@code Set<String>}
+     */
+    public final Set<String> getAllMappedIgcProperties() { return mappedIgcProperties; }
+
     /**
      * Retrieve the repository connection.
      *
@@ -5,6 +5,7 @@ package org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -38,7 +39,7 @@ public abstract class InstanceMapping {
      * @return {@code Set<String>}
      */
     public Set<String> getLiteralPropertyMappings() {
-        return literalOmrsPropertyMapping.keySet();
+        return Collections.unmodifiableSet(literalOmrsPropertyMapping.keySet());
     }
 
     /**
@@ -75,7 +75,7 @@ public abstract class ClassificationMapping extends InstanceMapping {
      *
      * @return {@code List<InstanceStatus>}
      */
-    public List<InstanceStatus> getSupportedStatuses() { return this.omrsSupportedStatuses; }
+    public List<InstanceStatus> getSupportedStatuses() { return Collections.unmodifiableList(this.omrsSupportedStatuses); }
 
     /**
      * Add the provided property name as one supported by this classification mapping.
@@ -120,7 +120,7 @@ public abstract class ClassificationMapping extends InstanceMapping {
      * @return {@code Set<String>}
      */
     public final Set<String> getSimpleMappedIgcProperties() {
-        return mappingByIgcProperty.keySet();
+        return Collections.unmodifiableSet(mappingByIgcProperty.keySet());
     }
 
     /**
@@ -144,7 +144,7 @@ public abstract class ClassificationMapping extends InstanceMapping {
      *
      * @return {@code Set<String>} - names of the IGC asset types that should not be included
      */
-    public Set<String> getExcludedIgcAssetTypes() { return this.excludeIgcAssetType; }
+    public Set<String> getExcludedIgcAssetTypes() { return Collections.unmodifiableSet(this.excludeIgcAssetType); }
 
     /**
      * Add the provided property as one of the IGC properties needed to setup this classification.
@@ -190,7 +190,7 @@ public abstract class ClassificationMapping extends InstanceMapping {
      *
      * @return {@code List<ClassificationMapping>}
      */
-    public List<ClassificationMapping> getSubTypes() { return this.subtypes; }
+    public List<ClassificationMapping> getSubTypes() { return Collections.unmodifiableList(this.subtypes); }
 
     /**
      * Implement this method to actually define the logic for the classification. (Since IGC has no actual concept
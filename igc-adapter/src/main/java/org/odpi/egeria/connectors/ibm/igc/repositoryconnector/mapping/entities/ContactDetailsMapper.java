@@ -7,7 +7,6 @@ import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
-import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSErrorCode;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.EntityMappingInstance;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.attributes.ContactMethodTypeMapper;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.relationships.ContactThroughMapper_Team;
@@ -159,16 +158,11 @@ public class ContactDetailsMapper extends ReferenceableMapper {
                 );
                 igcSearchConditionSet.addCondition(igcSearchCondition);
             } else {
-                IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REGEX_NOT_IMPLEMENTED;
-                String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(
-                        repositoryName,
-                        contactMethodValue);
-                throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
-                        ContactDetailsMapper.class.getName(),
-                        methodName,
-                        errorMessage,
-                        errorCode.getSystemAction(),
-                        errorCode.getUserAction());
+                // Push down whatever the regular expression requires, and match it against the results
+                igcSearchConditionSet.addRegexCondition(
+                        "email_address",
+                        IGCOMRSMetadataCollection.getRegexSearchPlan(repositoryName, contactMethodValue, ContactDetailsMapper.class.getName(), methodName)
+                );
             }
 
         }
@@ -9,7 +9,6 @@ import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceLi
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
-import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSErrorCode;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSMetadataCollection;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.EntityMappingInstance;
 import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.relationships.ConnectionEndpointMapper;
@@ -193,16 +192,11 @@ public class EndpointMapper extends ReferenceableMapper {
                 );
                 igcSearchConditionSet.addCondition(igcSearchCondition);
             } else {
-                IGCOMRSErrorCode errorCode = IGCOMRSErrorCode.REGEX_NOT_IMPLEMENTED;
-                String errorMessage = errorCode.getErrorMessageId() + errorCode.getFormattedErrorMessage(
-                        repositoryName,
-                        networkAddress);
-                throw new FunctionNotSupportedException(errorCode.getHTTPErrorCode(),
-                        EndpointMapper.class.getName(),
-                        methodName,
-                        errorMessage,
-                        errorCode.getSystemAction(),
-                        errorCode.getUserAction());
+                // Push down whatever the regular expression requires, and match it against the results
+                igcSearchConditionSet.addRegexCondition(
+                        "name",
+                        IGCOMRSMetadataCollection.getRegexSearchPlan(repositoryName, networkAddress, EndpointMapper.class.getName(), methodName)
+                );
             }
 
         }
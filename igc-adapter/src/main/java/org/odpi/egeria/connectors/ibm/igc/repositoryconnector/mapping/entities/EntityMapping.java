@@ -4,6 +4,7 @@ package org.odpi.egeria.connectors.ibm.igc.repositoryconnector.mapping.entities;
 
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestConstants;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.DynamicPropertyGetter;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchSorting;
@@ -25,9 +26,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides the base class for all entity mappings.
+ * <br><br>
+ * A mapping is defined entirely within the constructor of its subclass and is not changed thereafter: a single
+ * instance is shared by every request, so any state specific to mapping a particular asset belongs in the
+ * EntityMappingInstance.
  */
 public abstract class EntityMapping extends InstanceMapping {
 
@@ -53,6 +59,8 @@ public abstract class EntityMapping extends InstanceMapping {
 
     private ArrayList<InstanceStatus> omrsSupportedStatuses;
 
+    private ConcurrentHashMap<String, CompiledPropertyMapping[]> compiledMappingsByIgcType;
+
     public EntityMapping(String igcAssetType,
                          String igcAssetTypeDisplayName,
                          String omrsTypeDefName,
@@ -77,6 +85,8 @@ public abstract class EntityMapping extends InstanceMapping {
 
         this.otherIgcTypes = new ArrayList<>();
 
+        this.compiledMappingsByIgcType = new ConcurrentHashMap<>();
+
     }
 
     /**
@@ -97,6 +107,24 @@ public abstract class EntityMapping extends InstanceMapping {
 
     }
 
+    /**
+     * A simple or literal property mapping resolved against a specific IGC asset type and the OMRS TypeDef of the
+     * mapping: the reader for the IGC property (null for a literal mapping) and the OMRS attribute it maps to.
+     */
+    private static final class CompiledPropertyMapping {
+
+        private final DynamicPropertyGetter igcPropertyReader;
+        private final TypeDefAttribute omrsAttribute;
+        private final Object literalValue;
+
+        CompiledPropertyMapping(DynamicPropertyGetter igcPropertyReader, TypeDefAttribute omrsAttribute, Object literalValue) {
+            this.igcPropertyReader = igcPropertyReader;
+            this.omrsAttribute = omrsAttribute;
+            this.literalValue = literalValue;
+        }
+
+    }
+
     /**
      * Add the provided status as one supported by this entity mapping.
      *
@@ -109,7 +137,7 @@ public abstract class EntityMapping extends InstanceMapping {
      *
      * @return {@code List<InstanceStatus>}
      */
-    public final List<InstanceStatus> getSupportedStatuses() { return this.omrsSupportedStatuses; }
+    public final List<InstanceStatus> getSupportedStatuses() { return Collections.unmodifiableList(this.omrsSupportedStatuses); }
 
     /**
      * Retrieve the primary IGC asset type used by this mapping.
@@ -216,7 +244,7 @@ public abstract class EntityMapping extends InstanceMapping {
      *
      * @return {@code List<String>}
      */
-    public final List<String> getOtherIGCAssetTypes() { return this.otherIgcTypes; }
+    public final List<String> getOtherIGCAssetTypes() { return Collections.unmodifiableList(this.otherIgcTypes); }
 
     /**
      * Retrieve listing of any additional IGC POJOs needed by this mapping.
@@ -271,7 +299,7 @@ public abstract class EntityMapping extends InstanceMapping {
      * @return {@code Set<String>}
      */
     public final Set<String> getSimpleMappedIgcProperties() {
-        return mappingByIgcProperty.keySet();
+        return Collections.unmodifiableSet(mappingByIgcProperty.keySet());
     }
 
     /**
@@ -280,7 +308,7 @@ public abstract class EntityMapping extends InstanceMapping {
      * @return {@code Set<String>}
      */
     public final Set<String> getComplexMappedIgcProperties() {
-        return complexIgcProperties;
+        return Collections.unmodifiableSet(complexIgcProperties);
     }
 
     /**
@@ -300,7 +328,7 @@ public abstract class EntityMapping extends InstanceMapping {
      * @return {@code Set<String>}
      */
     public final Set<String> getSimpleMappedOmrsProperties() {
-        return mappingByOmrsProperty.keySet();
+        return Collections.unmodifiableSet(mappingByOmrsProperty.keySet());
     }
 
     /**
@@ -309,7 +337,7 @@ public abstract class EntityMapping extends InstanceMapping {
      * @return {@code Set<String>}
      */
     public final Set<String> getComplexMappedOmrsProperties() {
-        return complexOmrsProperties;
+        return Collections.unmodifiableSet(complexOmrsProperties);
     }
 
     /**
@@ -410,7 +438,7 @@ public abstract class EntityMapping extends InstanceMapping {
      *
      * @return {@code List<RelationshipMapping>}
      */
-    public final List<RelationshipMapping> getRelationshipMappers() { return this.relationshipMappers; }
+    public final List<RelationshipMapping> getRelationshipMappers() { return Collections.unmodifiableList(this.relationshipMappers); }
 
     /**
      * Add the provided classification mapping as one that describes classifications for this entity.
@@ -426,7 +454,7 @@ public abstract class EntityMapping extends InstanceMapping {
      *
      * @return {@code List<ClassificationMapping>}
      */
-    public final List<ClassificationMapping> getClassificationMappers() { return this.classificationMappers; }
+    public final List<ClassificationMapping> getClassificationMappers() { return Collections.unmodifiableList(this.classificationMappers); }
 
     /**
      * Retrieve the base IGC asset expected for the mapper from one of its alternative assets. By default, and in the
@@ -541,7 +569,7 @@ public abstract class EntityMapping extends InstanceMapping {
             allProperties.addAll(classificationMapping.getMappedIgcPropertyNames());
         }
 
-        allProperties.addAll(mapping.getAllMappedIgcProperties());
+        allProperties.addAll(entityMap.getAllMappedIgcProperties());
 
         // Retrieve the full details we'll require for summary BEFORE handing off to superclass,
         // but only if the asset we've been initialised with was not already fully-retrieved
@@ -573,7 +601,7 @@ public abstract class EntityMapping extends InstanceMapping {
 
         // Merge the detailed properties together (generic and more specific POJO mappings that were passed in)
         ArrayList<String> allProperties = new ArrayList<>();
-        allProperties.addAll(mapping.getAllMappedIgcProperties());
+        allProperties.addAll(entityMap.getAllMappedIgcProperties());
         for (ClassificationMapping classificationMapping : mapping.getClassificationMappers()) {
             allProperties.addAll(classificationMapping.getMappedIgcPropertyNames());
         }
@@ -614,50 +642,32 @@ public abstract class EntityMapping extends InstanceMapping {
         Reference igcEntity = entityMap.getIgcEntity();
         String repositoryName = igcomrsRepositoryConnector.getRepositoryName();
         EntityMapping mapping = entityMap.getMapping();
-        String omrsTypeDefName = mapping.getOmrsTypeDefName();
-
-        Map<String, TypeDefAttribute> omrsAttributeMap = igcomrsMetadataCollection.getTypeDefAttributesForType(omrsTypeDefName);
 
         InstanceProperties instanceProperties = new InstanceProperties();
 
-        // Then we'll iterate through the provided mappings to set an OMRS instance property for each one
-        for (String igcPropertyName : mapping.getSimpleMappedIgcProperties()) {
-            String omrsAttribute = mapping.getOmrsPropertyName(igcPropertyName);
-            if (omrsAttributeMap.containsKey(omrsAttribute)) {
-                TypeDefAttribute typeDefAttribute = omrsAttributeMap.get(omrsAttribute);
+        // Then we'll apply each of the (pre-resolved) simple and fixed (literal) property mappings in turn
+        for (CompiledPropertyMapping compiled : mapping.getCompiledPropertyMappings(igcEntity.getType(), igcomrsMetadataCollection, igcRestClient)) {
+            TypeDefAttribute typeDefAttribute = compiled.omrsAttribute;
+            if (compiled.igcPropertyReader != null) {
                 instanceProperties = AttributeMapping.addPrimitivePropertyToInstance(
                         omrsRepositoryHelper,
                         repositoryName,
                         instanceProperties,
                         typeDefAttribute,
-                        igcRestClient.getPropertyByName(igcEntity, igcPropertyName),
+                        compiled.igcPropertyReader.getProperty(igcEntity),
+                        methodName
+                );
+            } else if (typeDefAttribute.getAttributeType().getCategory() == AttributeTypeDefCategory.PRIMITIVE) {
+                instanceProperties = AttributeMapping.addPrimitivePropertyToInstance(
+                        omrsRepositoryHelper,
+                        repositoryName,
+                        instanceProperties,
+                        typeDefAttribute,
+                        compiled.literalValue,
                         methodName
                 );
             } else {
-                if (log.isWarnEnabled()) { log.warn("No OMRS attribute {} defined for asset type {} -- skipping mapping.", omrsAttribute, omrsTypeDefName); }
-            }
-        }
-
-        // Then any fixed (literal) property mappings
-        for (String omrsPropertyName : mapping.getLiteralPropertyMappings()) {
-            if (omrsAttributeMap.containsKey(omrsPropertyName)) {
-                Object value = mapping.getOmrsPropertyLiteralValue(omrsPropertyName);
-                if (value != null) {
-                    TypeDefAttribute typeDefAttribute = omrsAttributeMap.get(omrsPropertyName);
-                    AttributeTypeDefCategory attributeTypeDefCategory = typeDefAttribute.getAttributeType().getCategory();
-                    if (attributeTypeDefCategory == AttributeTypeDefCategory.PRIMITIVE) {
-                        instanceProperties = AttributeMapping.addPrimitivePropertyToInstance(
-                                omrsRepositoryHelper,
-                                repositoryName,
-                                instanceProperties,
-                                typeDefAttribute,
-                                value,
-                                methodName
-                        );
-                    } else {
-                        instanceProperties.setProperty(omrsPropertyName, (InstancePropertyValue)value);
-                    }
-                }
+                instanceProperties.setProperty(typeDefAttribute.getAttributeName(), (InstancePropertyValue)compiled.literalValue);
             }
         }
 
@@ -668,6 +678,53 @@ public abstract class EntityMapping extends InstanceMapping {
 
     }
 
+    /**
+     * Retrieves the simple and fixed (literal) property mappings of this mapping, resolved for the provided IGC asset
+     * type: each is compiled only once per IGC asset type, so that mapping many assets of the same type needs no
+     * further lookups of OMRS attributes or IGC property readers.
+     *
+     * @param igcAssetType the IGC asset type of the asset being mapped
+     * @param igcomrsMetadataCollection the metadata collection through which to retrieve OMRS attribute definitions
+     * @param igcRestClient the IGC REST client through which to retrieve IGC property readers
+     * @return CompiledPropertyMapping[]
+     */
+    private CompiledPropertyMapping[] getCompiledPropertyMappings(String igcAssetType,
+                                                                  IGCOMRSMetadataCollection igcomrsMetadataCollection,
+                                                                  IGCRestClient igcRestClient) {
+        CompiledPropertyMapping[] compiled = compiledMappingsByIgcType.get(igcAssetType);
+        if (compiled == null) {
+            Map<String, TypeDefAttribute> omrsAttributeMap = igcomrsMetadataCollection.getTypeDefAttributesForType(omrsTypeDefName);
+            if (omrsAttributeMap == null) {
+                // TypeDef not (yet) known: nothing can be mapped, but do not remember that for later
+                return new CompiledPropertyMapping[0];
+            }
+            List<CompiledPropertyMapping> mappings = new ArrayList<>();
+            for (PropertyMapping propertyMapping : mappingByIgcProperty.values()) {
+                String omrsAttribute = propertyMapping.getOmrsPropertyName();
+                TypeDefAttribute typeDefAttribute = omrsAttributeMap.get(omrsAttribute);
+                if (typeDefAttribute != null) {
+                    mappings.add(new CompiledPropertyMapping(
+                            igcRestClient.getPropertyReader(igcAssetType, propertyMapping.getIgcPropertyName()),
+                            typeDefAttribute,
+                            null
+                    ));
+                } else {
+                    if (log.isWarnEnabled()) { log.warn("No OMRS attribute {} defined for asset type {} -- skipping mapping.", omrsAttribute, omrsTypeDefName); }
+                }
+            }
+            for (String omrsPropertyName : getLiteralPropertyMappings()) {
+                TypeDefAttribute typeDefAttribute = omrsAttributeMap.get(omrsPropertyName);
+                Object value = getOmrsPropertyLiteralValue(omrsPropertyName);
+                if (typeDefAttribute != null && value != null) {
+                    mappings.add(new CompiledPropertyMapping(null, typeDefAttribute, value));
+                }
+            }
+            compiled = mappings.toArray(new CompiledPropertyMapping[0]);
+            compiledMappingsByIgcType.putIfAbsent(igcAssetType, compiled);
+        }
+        return compiled;
+    }
+
     /**
      * Retrieves the mapped relationships for the entity.
      *
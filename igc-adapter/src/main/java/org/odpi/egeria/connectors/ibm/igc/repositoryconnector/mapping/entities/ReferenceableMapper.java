@@ -258,7 +258,24 @@ public class ReferenceableMapper extends EntityMapping {
                     if (log.isDebugEnabled()) { log.debug(". . .found identity: {}", identity.toString()); }
                     String igcType = identity.getAssetType();
                     if (igcType.equals(getIgcAssetType()) || getOtherIGCAssetTypes().contains(igcType)) {
-                        IGCSearchConditionSet nested = identity.getSearchCriteria();
+                        // If the RID of the asset with this identity is already known, search only by that RID (rather
+                        // than by every level of the identity's context), once the asset with that RID has been
+                        // confirmed to still have this identity (eg. it has not been renamed or moved since)
+                        IGCSearchConditionSet nested = null;
+                        Reference known = igcRestClient.getIdentityCache().get(identity.toString());
+                        if (known != null && igcType.equals(known.getType())) {
+                            Reference current = igcRestClient.getAssetRefById(known.getId());
+                            if (current != null && identity.sameas(current.getIdentity(igcRestClient))) {
+                                if (log.isDebugEnabled()) { log.debug(". . .using cached RID for identity: {}", known.getId()); }
+                                nested = new IGCSearchConditionSet(new IGCSearchCondition("_id", "=", known.getId()));
+                            } else {
+                                if (log.isDebugEnabled()) { log.debug(". . .cached RID is out-of-date for identity: {}", known.getId()); }
+                                igcRestClient.getIdentityCache().invalidate(known.getId());
+                            }
+                        }
+                        if (nested == null) {
+                            nested = identity.getSearchCriteria();
+                        }
                         igcSearchConditionSet.addNestedConditionSet(nested);
                     } else {
                         if (log.isInfoEnabled()) { log.info("Search type did not match identity type -- skipping."); }
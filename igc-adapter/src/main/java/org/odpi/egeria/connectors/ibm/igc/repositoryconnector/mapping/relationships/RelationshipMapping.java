@@ -137,7 +137,7 @@ public abstract class RelationshipMapping extends InstanceMapping {
      *
      * @return {@code List<InstanceStatus>}
      */
-    public List<InstanceStatus> getSupportedStatuses() { return this.omrsSupportedStatuses; }
+    public List<InstanceStatus> getSupportedStatuses() { return Collections.unmodifiableList(this.omrsSupportedStatuses); }
 
     /**
      * Add the provided property name as one supported by this relationship mapping.
@@ -256,7 +256,7 @@ public abstract class RelationshipMapping extends InstanceMapping {
      *
      * @return {@code List<RelationshipMapping>}
      */
-    public List<RelationshipMapping> getSubTypes() { return this.subtypes; }
+    public List<RelationshipMapping> getSubTypes() { return Collections.unmodifiableList(this.subtypes); }
 
     /**
      * Must be implemented to define how to map the relationships defined by the mapper, if there are any complex
@@ -501,7 +501,7 @@ public abstract class RelationshipMapping extends InstanceMapping {
          *
          * @return {@code List<String>}
          */
-        public List<String> getIgcRelationshipProperties() { return this.igcRelationshipProperties; }
+        public List<String> getIgcRelationshipProperties() { return Collections.unmodifiableList(this.igcRelationshipProperties); }
 
         /**
          * Add an alternative IGC relationship property to this side of the relationship, that can be additionally
@@ -0,0 +1,282 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollectionstore.properties.instances.EntityDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Manages the compact form of the payload of an OMRS stub: a content hash for each top-level property of the asset,
+ * followed by the deflate-compressed JSON of the asset itself. The hashes allow the last version of an asset to be
+ * compared against its latest version, property-by-property, without decompressing or parsing the last version at
+ * all; only when some property's hash differs does the full JSON need to be retrieved.
+ * <br><br>
+ * The compact form is laid out as: {@code z1|property:hash,property:hash,...|base64(deflate(json))}, optionally
+ * followed by {@code |base64(deflate(details))}: the EntityDetails that were mapped from this version of the asset
+ * (keyed by RID, including the prefixed RIDs of any generated entities). These allow the previous version of an
+ * entity to be re-used as-is, rather than being mapped again from the asset JSON. Any payload not in this form is
+ * treated as the (uncompressed) JSON of the asset, as written by earlier versions of the connector, and its hashes
+ * calculated on first use.
+ */
+public class OMRSStubPayload {
+
+    private static final Logger log = LoggerFactory.getLogger(OMRSStubPayload.class);
+
+    private static final String COMPACT_FORMAT = "z1";
+    private static final char SECTION_SEPARATOR = '|';
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private Map<String, Long> propertyHashes;
+    private String encodedJson;
+    private String json;
+    private String encodedDetails;
+    private Map<String, EntityDetail> entityDetails;
+
+    private OMRSStubPayload() {
+        // Only created by decoding a payload
+    }
+
+    /**
+     * Encode the provided asset JSON into the compact form of a stub payload.
+     *
+     * @param assetJson the JSON representation of the asset
+     * @return String
+     * @throws IOException if the JSON cannot be parsed
+     */
+    public static String encode(String assetJson) throws IOException {
+        return encode(assetJson, null);
+    }
+
+    /**
+     * Encode the provided asset JSON, along with the EntityDetails that were mapped from it, into the compact form of
+     * a stub payload.
+     *
+     * @param assetJson the JSON representation of the asset
+     * @param entityDetails the EntityDetails mapped from the asset, keyed by RID (or null if there are none to keep)
+     * @return String
+     * @throws IOException if the JSON cannot be parsed, or the EntityDetails cannot be serialized
+     */
+    public static String encode(String assetJson, Map<String, EntityDetail> entityDetails) throws IOException {
+
+        Map<String, Long> hashes = hashProperties(mapper.readTree(assetJson));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(COMPACT_FORMAT);
+        sb.append(SECTION_SEPARATOR);
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : hashes.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey());
+            sb.append(':');
+            sb.append(Long.toHexString(entry.getValue()));
+            first = false;
+        }
+        sb.append(SECTION_SEPARATOR);
+        sb.append(Base64.getEncoder().encodeToString(compress(assetJson.getBytes(StandardCharsets.UTF_8))));
+        if (entityDetails != null && !entityDetails.isEmpty()) {
+            sb.append(SECTION_SEPARATOR);
+            sb.append(Base64.getEncoder().encodeToString(compress(mapper.writeValueAsBytes(entityDetails))));
+        }
+        return sb.toString();
+
+    }
+
+    /**
+     * Decode the provided stub payload, which may be either in the compact form or plain JSON.
+     *
+     * @param payload the payload of an OMRS stub
+     * @return OMRSStubPayload
+     */
+    public static OMRSStubPayload decode(String payload) {
+
+        OMRSStubPayload decoded = new OMRSStubPayload();
+        int hashStart = COMPACT_FORMAT.length() + 1;
+        int dataStart = payload.indexOf(SECTION_SEPARATOR, hashStart);
+        if (payload.startsWith(COMPACT_FORMAT + SECTION_SEPARATOR) && dataStart > 0) {
+            decoded.propertyHashes = new LinkedHashMap<>();
+            String hashSection = payload.substring(hashStart, dataStart);
+            if (!hashSection.isEmpty()) {
+                for (String token : hashSection.split(",")) {
+                    int separator = token.lastIndexOf(':');
+                    decoded.propertyHashes.put(token.substring(0, separator), Long.parseUnsignedLong(token.substring(separator + 1), 16));
+                }
+            }
+            int detailsStart = payload.indexOf(SECTION_SEPARATOR, dataStart + 1);
+            if (detailsStart > 0) {
+                decoded.encodedJson = payload.substring(dataStart + 1, detailsStart);
+                decoded.encodedDetails = payload.substring(detailsStart + 1);
+            } else {
+                decoded.encodedJson = payload.substring(dataStart + 1);
+            }
+        } else {
+            decoded.json = payload;
+        }
+        return decoded;
+
+    }
+
+    /**
+     * Retrieve the content hash of each top-level property of the asset, keyed by property name.
+     *
+     * @return {@code Map<String, Long>}
+     */
+    public Map<String, Long> getPropertyHashes() {
+        if (propertyHashes == null) {
+            try {
+                propertyHashes = hashProperties(mapper.readTree(getJson()));
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to parse stub payload to calculate hashes.", e); }
+                propertyHashes = Collections.emptyMap();
+            }
+        }
+        return propertyHashes;
+    }
+
+    /**
+     * Retrieve the (uncompressed) JSON representation of the asset.
+     *
+     * @return String
+     */
+    public String getJson() {
+        if (json == null) {
+            try {
+                json = new String(decompress(Base64.getDecoder().decode(encodedJson)), StandardCharsets.UTF_8);
+            } catch (DataFormatException | IllegalArgumentException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to decompress stub payload -- treating as empty.", e); }
+                json = "{}";
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Retrieve the EntityDetail that was mapped from this version of the asset for the provided RID (which may be
+     * prefixed, for a generated entity), or null if none was kept with the payload.
+     *
+     * @param rid the Repository ID (RID) of the entity, including any prefix
+     * @return EntityDetail
+     */
+    public EntityDetail getEntityDetail(String rid) {
+        if (entityDetails == null) {
+            entityDetails = Collections.emptyMap();
+            if (encodedDetails != null) {
+                try {
+                    entityDetails = mapper.readValue(
+                            decompress(Base64.getDecoder().decode(encodedDetails)),
+                            new TypeReference<Map<String, EntityDetail>>(){}
+                    );
+                } catch (DataFormatException | IllegalArgumentException | IOException e) {
+                    if (log.isWarnEnabled()) { log.warn("Unable to read EntityDetails kept with stub payload -- ignoring them.", e); }
+                }
+            }
+        }
+        return entityDetails.get(rid);
+    }
+
+    /**
+     * Retrieve the names of all top-level properties whose content differs between this (previous) version of the
+     * asset and the provided hashes of its latest version, including any property present in only one of them.
+     *
+     * @param latestHashes the property hashes of the latest version of the asset
+     * @return {@code Set<String>}
+     */
+    public Set<String> getChangedProperties(Map<String, Long> latestHashes) {
+        Map<String, Long> previousHashes = getPropertyHashes();
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, Long> entry : latestHashes.entrySet()) {
+            if (!entry.getValue().equals(previousHashes.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String property : previousHashes.keySet()) {
+            if (!latestHashes.containsKey(property)) {
+                changed.add(property);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Calculate a content hash for each top-level property of the provided asset JSON.
+     *
+     * @param asset the JSON representation of the asset
+     * @return {@code Map<String, Long>} of hashes, keyed by property name
+     */
+    public static Map<String, Long> hashProperties(JsonNode asset) {
+        Map<String, Long> hashes = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = asset.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            hashes.put(field.getKey(), hash(field.getValue().toString()));
+        }
+        return hashes;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes of the provided value.
+     *
+     * @param value the value to hash
+     * @return long
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static byte[] compress(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            // Release the native memory of the deflater however compression ends
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated stub payload.");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            // Release the native memory of the inflater even when the payload is corrupt or truncated
+            inflater.end();
+        }
+    }
+
+}
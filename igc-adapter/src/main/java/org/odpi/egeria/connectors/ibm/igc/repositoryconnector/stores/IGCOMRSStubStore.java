@@ -0,0 +1,280 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores;
+
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceList;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchTemplate;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSMetadataCollection;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Store of OMRS stubs that persists each stub as an '$OMRS-Stub' OpenIGC asset within IGC itself.
+ */
+public class IGCOMRSStubStore implements OMRSStubStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IGCOMRSStubStore.class);
+
+    private static final String STUB_TYPE = "$OMRS-Stub";
+
+    /**
+     * The source type of the stub that marks the OMRS bundle deployed to IGC (rather than representing any asset).
+     */
+    public static final String BUNDLE_MARKER_TYPE = "$OMRS-Bundle";
+    private static final String[] STUB_PROPERTIES = new String[]{ "$sourceRID", "$sourceType", "$payload" };
+
+    private static final IGCSearchTemplate STUB_BY_NAME = new IGCSearchTemplate(new IGCSearch(
+            STUB_TYPE,
+            STUB_PROPERTIES,
+            new IGCSearchConditionSet(new IGCSearchCondition("name", "=", IGCSearchTemplate.parameter(0)))
+    ));
+
+    private IGCRestClient igcRestClient;
+    private XMLOutputFactory xmlOutputFactory;
+
+    public IGCOMRSStubStore(IGCRestClient igcRestClient) {
+        this.igcRestClient = igcRestClient;
+        this.xmlOutputFactory = XMLOutputFactory.newInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OMRSStub getStub(String rid, String assetType) {
+
+        // We need to translate the provided asset into a unique name for the stub
+        String stubName = IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType);
+        ReferenceList results = igcRestClient.search(STUB_BY_NAME, stubName);
+        OMRSStub stub = null;
+        if (results.getPaging().getNumTotal() > 0) {
+            if (results.getPaging().getNumTotal() > 1) {
+                if (log.isWarnEnabled()) { log.warn("Found multiple stubs for asset, taking only the first: {}", stubName); }
+            }
+            stub = (OMRSStub) results.getItems().get(0);
+        } else {
+            if (log.isInfoEnabled()) { log.info("No stub found for asset: {}", stubName); }
+        }
+        return stub;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br><br>
+     * The RIDs are split into chunks of (at most) the default page size, and the stubs for each chunk are retrieved
+     * by a single search.
+     */
+    @Override
+    public Map<String, OMRSStub> getStubs(List<String> rids, String assetType) {
+
+        Map<String, OMRSStub> stubsByRid = new HashMap<>();
+        int chunkSize = igcRestClient.getDefaultPageSize();
+        for (int i = 0; i < rids.size(); i += chunkSize) {
+            List<String> chunk = rids.subList(i, Math.min(i + chunkSize, rids.size()));
+            IGCSearchConditionSet conditionSet = new IGCSearchConditionSet();
+            for (String rid : chunk) {
+                conditionSet.addCondition(new IGCSearchCondition("name", "=", IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType)));
+            }
+            conditionSet.setMatchAnyCondition(true);
+            IGCSearch igcSearch = new IGCSearch(STUB_TYPE, STUB_PROPERTIES, conditionSet);
+            igcSearch.setPageSize(chunkSize);
+            ReferenceList results = igcRestClient.search(igcSearch);
+            if (results != null) {
+                results.getAllPages(igcRestClient);
+                for (Reference result : results.getItems()) {
+                    OMRSStub stub = (OMRSStub) result;
+                    String rid = stub.getSourceRID();
+                    if (stubsByRid.containsKey(rid)) {
+                        if (log.isWarnEnabled()) { log.warn("Found multiple stubs for asset, taking only the first: {}", IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType)); }
+                    } else {
+                        stubsByRid.put(rid, stub);
+                    }
+                }
+            }
+        }
+        return stubsByRid;
+
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return String the Repository ID (RID) of the OMRS stub
+     */
+    @Override
+    public String upsertStub(String rid, String assetType, String payload) {
+
+        String stubName = IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType);
+
+        // Construct the asset XML document, including the full asset payload
+        StringWriter stringWriter = new StringWriter();
+        try {
+
+            XMLStreamWriter xmlStreamWriter = xmlOutputFactory.createXMLStreamWriter(stringWriter);
+            xmlStreamWriter.writeStartDocument("UTF-8", "1.0");
+
+            xmlStreamWriter.writeStartElement("doc");
+            xmlStreamWriter.writeNamespace("xmlns", "http://www.ibm.com/iis/flow-doc");
+
+            xmlStreamWriter.writeStartElement("assets");
+            xmlStreamWriter.writeStartElement("asset");
+
+            xmlStreamWriter.writeAttribute("class", STUB_TYPE);
+            xmlStreamWriter.writeAttribute("repr", stubName);
+            xmlStreamWriter.writeAttribute("ID", "stub1");
+
+            addAttributeToAssetXML(xmlStreamWriter, "name", stubName);
+            addAttributeToAssetXML(xmlStreamWriter, "$sourceType", assetType);
+            addAttributeToAssetXML(xmlStreamWriter, "$sourceRID", rid);
+            addAttributeToAssetXML(xmlStreamWriter, "$payload", payload);
+
+            xmlStreamWriter.writeEndElement(); // </asset>
+            xmlStreamWriter.writeEndElement(); // </assets>
+
+            xmlStreamWriter.writeStartElement("importAction");
+            xmlStreamWriter.writeAttribute("completeAssetIDs", "stub1");
+            xmlStreamWriter.writeEndElement(); // </importAction>
+
+            xmlStreamWriter.writeEndElement(); // </doc>
+
+            xmlStreamWriter.writeEndDocument();
+            xmlStreamWriter.flush();
+            xmlStreamWriter.close();
+
+        } catch (XMLStreamException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to write XML stream: {}", stubName, e); }
+        }
+
+        String stubXML = stringWriter.getBuffer().toString();
+        if (log.isDebugEnabled()) { log.debug("Constructed XML for stub: {}", stubXML); }
+
+        // Upsert using the constructed asset XML
+        String results = igcRestClient.upsertOpenIgcAsset(stubXML);
+
+        return results.substring("stub1".length() + 5, results.length() - 2);
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean deleteStub(String rid, String assetType) {
+
+        String stubName = IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType);
+
+        // Construct the asset XML document, including the full asset payload
+        StringWriter stringWriter = new StringWriter();
+        try {
+
+            XMLStreamWriter xmlStreamWriter = xmlOutputFactory.createXMLStreamWriter(stringWriter);
+            xmlStreamWriter.writeStartDocument("UTF-8", "1.0");
+
+            xmlStreamWriter.writeStartElement("doc");
+            xmlStreamWriter.writeNamespace("xmlns", "http://www.ibm.com/iis/flow-doc");
+
+            xmlStreamWriter.writeStartElement("assets");
+            xmlStreamWriter.writeStartElement("asset");
+
+            xmlStreamWriter.writeAttribute("class", STUB_TYPE);
+            xmlStreamWriter.writeAttribute("repr", stubName);
+            xmlStreamWriter.writeAttribute("ID", "stub1");
+
+            addAttributeToAssetXML(xmlStreamWriter, "name", stubName);
+
+            xmlStreamWriter.writeEndElement(); // </asset>
+            xmlStreamWriter.writeEndElement(); // </assets>
+
+            xmlStreamWriter.writeStartElement("assetsToDelete");
+            xmlStreamWriter.writeCharacters("stub1");
+            xmlStreamWriter.writeEndElement(); // </assetsToDelete>
+
+            xmlStreamWriter.writeEndElement(); // </doc>
+
+            xmlStreamWriter.writeEndDocument();
+            xmlStreamWriter.flush();
+            xmlStreamWriter.close();
+
+        } catch (XMLStreamException e) {
+            log.error("Unable to write XML stream.", e);
+        }
+
+        String stubXML = stringWriter.getBuffer().toString();
+        if (log.isDebugEnabled()) { log.debug("Constructed XML for stub deletion: {}", stubXML); }
+
+        // Delete using the constructed asset XML
+        return igcRestClient.deleteOpenIgcAsset(stubXML);
+
+    }
+
+    /**
+     * Nothing to free up: the IGC REST API client is owned by the repository connector.
+     */
+    @Override
+    public void close() {
+        // Nothing to do...
+    }
+
+    /**
+     * Iterate through every OMRS stub that exists in IGC, passing each one to the provided consumer. Used to import
+     * all existing stubs into another store. (The stub marking the OMRS bundle is skipped, as it represents no asset.)
+     *
+     * @param consumer the consumer to which to pass each stub
+     * @return int the number of stubs passed to the consumer
+     */
+    public int forEachStub(Consumer<OMRSStub> consumer) {
+
+        int count = 0;
+        IGCSearch igcSearch = new IGCSearch(STUB_TYPE, STUB_PROPERTIES, new IGCSearchConditionSet());
+        igcSearch.setPageSize(igcRestClient.getDefaultPageSize());
+        ReferenceList results = igcRestClient.search(igcSearch);
+        while (results != null && !results.getItems().isEmpty()) {
+            for (Reference result : results.getItems()) {
+                OMRSStub stub = (OMRSStub) result;
+                if (!BUNDLE_MARKER_TYPE.equals(stub.getSourceType())) {
+                    consumer.accept(stub);
+                    count++;
+                }
+            }
+            if (results.hasMorePages()) {
+                results.getNextPage(igcRestClient);
+            } else {
+                results = null;
+            }
+        }
+        return count;
+
+    }
+
+    /**
+     * Adds the provided attribute to the asset XML being constructed.
+     *
+     * @param xmlStreamWriter the asset XML being constructed
+     * @param attrName the name of the attribute to add
+     * @param attrValue the value of the attribute
+     * @throws XMLStreamException
+     */
+    private void addAttributeToAssetXML(XMLStreamWriter xmlStreamWriter, String attrName, String attrValue) throws XMLStreamException {
+        xmlStreamWriter.writeStartElement("attribute");
+        xmlStreamWriter.writeAttribute("name", attrName);
+        xmlStreamWriter.writeAttribute("value", attrValue);
+        xmlStreamWriter.writeEndElement(); // </attribute>
+    }
+
+}
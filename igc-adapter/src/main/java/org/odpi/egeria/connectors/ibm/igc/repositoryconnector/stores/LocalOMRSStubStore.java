@@ -0,0 +1,420 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores;
+
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.IGCOMRSMetadataCollection;
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Store of OMRS stubs that persists each stub locally, in an append-only log file on disk, rather than in IGC.
+ * <br><br>
+ * Every upsert or delete of a stub appends a single record to the end of the log, and an in-memory index keeps track
+ * of the location of the latest record for each stub (keyed by asset type and RID). Records that have been superseded
+ * are reclaimed by periodically compacting the log: re-writing only the latest record for each stub into a new log,
+ * which then atomically replaces the old one.
+ * <br><br>
+ * Each record is laid out as: [int length][byte operation][type][RID][payload][long CRC32], where the CRC32 covers
+ * everything between the length and the checksum itself. Any incomplete or corrupt record at the end of the log (for
+ * example, from a crash part-way through a write) is discarded when the log is next opened.
+ * <br><br>
+ * Individual writes are not synced to disk (only the log as a whole, when compacted or closed): a crash of the process
+ * loses nothing, but a crash of the operating system may lose the most recent writes. A lost stub only means that
+ * the asset it represents is sent again (as new, or updated from an older version) the next time it is processed.
+ */
+public class LocalOMRSStubStore implements OMRSStubStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalOMRSStubStore.class);
+
+    private static final String LOG_FILE_NAME = "omrs-stubs.log";
+    private static final String COMPACTED_FILE_NAME = "omrs-stubs.log.compacted";
+
+    private static final byte OP_UPSERT = 1;
+    private static final byte OP_DELETE = 2;
+
+    /** Never compact a log smaller than this, regardless of how much of it has been superseded. */
+    private static final long MIN_COMPACTION_SIZE = 16L * 1024 * 1024;
+
+    private File logFile;
+    private File compactedFile;
+    private RandomAccessFile stubLog;
+
+    private Map<String, RecordLocation> index;
+    private long liveBytes;
+
+    /**
+     * Creates (or re-opens) a local stub store within the provided directory.
+     *
+     * @param directory the directory in which to keep the stub store's files (created if it does not already exist)
+     * @throws IOException if the store could not be created or opened
+     */
+    public LocalOMRSStubStore(String directory) throws IOException {
+        File storeDirectory = new File(directory);
+        if (!storeDirectory.exists() && !storeDirectory.mkdirs()) {
+            throw new IOException("Unable to create directory for local OMRS stub store: " + directory);
+        }
+        this.logFile = new File(storeDirectory, LOG_FILE_NAME);
+        this.compactedFile = new File(storeDirectory, COMPACTED_FILE_NAME);
+        this.index = new HashMap<>();
+        this.liveBytes = 0;
+        this.stubLog = new RandomAccessFile(logFile, "rw");
+        loadIndex();
+        compactIfNeeded();
+    }
+
+    /**
+     * Location of a single record within the log.
+     */
+    private static final class RecordLocation {
+
+        private long offset;
+        private int length;
+
+        RecordLocation(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized OMRSStub getStub(String rid, String assetType) {
+        OMRSStub stub = null;
+        RecordLocation location = index.get(IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType));
+        if (location != null) {
+            try {
+                stub = readStub(location);
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to read stub for asset {} of type {}.", rid, assetType, e); }
+            }
+        }
+        if (stub == null && log.isInfoEnabled()) {
+            log.info("No stub found for asset: {}", IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType));
+        }
+        return stub;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Map<String, OMRSStub> getStubs(List<String> rids, String assetType) {
+        Map<String, OMRSStub> stubsByRid = new HashMap<>();
+        for (String rid : rids) {
+            RecordLocation location = index.get(IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType));
+            if (location != null) {
+                try {
+                    stubsByRid.put(rid, readStub(location));
+                } catch (IOException e) {
+                    if (log.isErrorEnabled()) { log.error("Unable to read stub for asset {} of type {}.", rid, assetType, e); }
+                }
+            }
+        }
+        return stubsByRid;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return String the unique name of the OMRS stub, or null if it could not be written
+     */
+    @Override
+    public synchronized String upsertStub(String rid, String assetType, String payload) {
+        String stubName = IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType);
+        try {
+            append(stubName, OP_UPSERT, assetType, rid, payload);
+            compactIfNeeded();
+        } catch (IOException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to write stub: {}", stubName, e); }
+            stubName = null;
+        }
+        return stubName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean deleteStub(String rid, String assetType) {
+        String stubName = IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType);
+        boolean success = false;
+        if (index.containsKey(stubName)) {
+            try {
+                append(stubName, OP_DELETE, assetType, rid, "");
+                compactIfNeeded();
+                success = true;
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to delete stub: {}", stubName, e); }
+            }
+        }
+        return success;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            stubLog.getChannel().force(true);
+            stubLog.close();
+        } catch (IOException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to close local OMRS stub store: {}", logFile, e); }
+        }
+    }
+
+    /**
+     * Retrieve the number of stubs currently held in the store.
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Import every OMRS stub from the provided IGC-based stub store into this local store, for example to switch
+     * an existing environment over to the local store without re-processing every asset as new.
+     *
+     * @param source the IGC-based stub store from which to import stubs
+     * @return int the number of stubs imported
+     */
+    public int importStubs(IGCOMRSStubStore source) {
+        int count = source.forEachStub(stub -> upsertStub(stub.getSourceRID(), stub.getSourceType(), stub.getPayload()));
+        if (log.isInfoEnabled()) { log.info("Imported {} stubs from IGC into local OMRS stub store: {}", count, logFile); }
+        return count;
+    }
+
+    /**
+     * Build the in-memory index by reading through the log from the start, truncating any incomplete or corrupt
+     * record found at the end of the log.
+     *
+     * @throws IOException if the log cannot be read
+     */
+    private void loadIndex() throws IOException {
+
+        long position = 0;
+        long fileLength = stubLog.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (position < fileLength) {
+                int length = in.readInt();
+                if (length <= 0 || position + 4 + length + 8 > fileLength) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                long checksum = in.readLong();
+                if (checksum != checksumOf(body)) {
+                    break;
+                }
+                DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+                byte operation = bodyIn.readByte();
+                String assetType = readString(bodyIn);
+                String rid = readString(bodyIn);
+                indexRecord(IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType), operation, position, 4 + length + 8);
+                position += 4 + length + 8;
+            }
+        } catch (EOFException e) {
+            // Reached the end part-way through a record: handled by truncation below
+        }
+
+        if (position < fileLength) {
+            if (log.isWarnEnabled()) { log.warn("Discarding {} bytes of incomplete or corrupt records from the end of: {}", fileLength - position, logFile); }
+            stubLog.setLength(position);
+        }
+        if (log.isInfoEnabled()) { log.info("Opened local OMRS stub store with {} stubs: {}", index.size(), logFile); }
+
+    }
+
+    /**
+     * Append a record to the end of the log, and update the index to point to it.
+     *
+     * @param stubName the unique name of the stub
+     * @param operation the operation the record represents (upsert or delete)
+     * @param assetType the IGC asset type of the asset the stub represents
+     * @param rid the Repository ID (RID) of the asset the stub represents
+     * @param payload the JSON payload of the asset
+     * @throws IOException if the record cannot be written
+     */
+    private void append(String stubName, byte operation, String assetType, String rid, String payload) throws IOException {
+        byte[] record = encodeRecord(operation, assetType, rid, payload);
+        long position = stubLog.length();
+        stubLog.seek(position);
+        stubLog.write(record);
+        indexRecord(stubName, operation, position, record.length);
+    }
+
+    /**
+     * Update the in-memory index for a record at the provided position in the log.
+     *
+     * @param stubName the unique name of the stub
+     * @param operation the operation the record represents (upsert or delete)
+     * @param position the offset of the record within the log
+     * @param length the total length of the record within the log
+     */
+    private void indexRecord(String stubName, byte operation, long position, int length) {
+        RecordLocation previous;
+        if (operation == OP_DELETE) {
+            previous = index.remove(stubName);
+        } else {
+            previous = index.put(stubName, new RecordLocation(position, length));
+            liveBytes += length;
+        }
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+    }
+
+    /**
+     * Read the stub from the record at the provided location in the log.
+     *
+     * @param location the location of the record
+     * @return OMRSStub
+     * @throws IOException if the record cannot be read
+     */
+    private OMRSStub readStub(RecordLocation location) throws IOException {
+        byte[] record = new byte[location.length];
+        stubLog.seek(location.offset);
+        stubLog.readFully(record);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 4, location.length - 4 - 8));
+        in.readByte();
+        String assetType = readString(in);
+        String rid = readString(in);
+        String payload = readString(in);
+        String stubName = IGCOMRSMetadataCollection.getStubNameForAsset(rid, assetType);
+        OMRSStub stub = new OMRSStub();
+        stub.setType("$OMRS-Stub");
+        stub.setId(stubName);
+        stub.setName(stubName);
+        stub.setTheName(stubName);
+        stub.setSourceType(assetType);
+        stub.setSourceRID(rid);
+        stub.setPayload(payload);
+        return stub;
+    }
+
+    /**
+     * Compact the log if it is large enough, and at least half of it consists of superseded records: re-writing only
+     * the latest record for each stub into a new log, which then replaces the existing log. If the log cannot be
+     * compacted the existing log continues to be used, and compaction is tried again on a later write.
+     *
+     * @throws IOException if the log cannot be re-opened after compaction
+     */
+    private void compactIfNeeded() throws IOException {
+
+        long fileLength = stubLog.length();
+        if (fileLength < MIN_COMPACTION_SIZE || liveBytes * 2 > fileLength) {
+            return;
+        }
+
+        if (log.isInfoEnabled()) { log.info("Compacting local OMRS stub store ({} of {} bytes live): {}", liveBytes, fileLength, logFile); }
+        try {
+            compact();
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) { log.warn("Unable to compact local OMRS stub store -- continuing with the existing log: {}", logFile, e); }
+        } finally {
+            // Re-open the log whether or not it was replaced, so the store remains usable either way
+            if (!stubLog.getChannel().isOpen()) {
+                stubLog = new RandomAccessFile(logFile, "rw");
+            }
+        }
+
+    }
+
+    /**
+     * Re-write only the latest record for each stub into a new log, which then replaces the existing log (leaving the
+     * existing log closed).
+     *
+     * @throws IOException if the log cannot be compacted
+     */
+    private void compact() throws IOException {
+
+        Map<String, RecordLocation> compactedIndex = new HashMap<>();
+        long position = 0;
+        try (RandomAccessFile compacted = new RandomAccessFile(compactedFile, "rw")) {
+            compacted.setLength(0);
+            for (Map.Entry<String, RecordLocation> entry : index.entrySet()) {
+                RecordLocation location = entry.getValue();
+                byte[] record = new byte[location.length];
+                stubLog.seek(location.offset);
+                stubLog.readFully(record);
+                compacted.write(record);
+                compactedIndex.put(entry.getKey(), new RecordLocation(position, location.length));
+                position += location.length;
+            }
+            compacted.getChannel().force(true);
+        }
+
+        stubLog.close();
+        try {
+            Files.move(compactedFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(compactedFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        index = compactedIndex;
+        liveBytes = position;
+
+    }
+
+    /**
+     * Encode a single record, including its length prefix and checksum.
+     *
+     * @param operation the operation the record represents (upsert or delete)
+     * @param assetType the IGC asset type of the asset the stub represents
+     * @param rid the Repository ID (RID) of the asset the stub represents
+     * @param payload the JSON payload of the asset
+     * @return byte[]
+     * @throws IOException if the record cannot be encoded
+     */
+    private static byte[] encodeRecord(byte operation, String assetType, String rid, String payload) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        body.writeByte(operation);
+        writeString(body, assetType);
+        writeString(body, rid);
+        writeString(body, payload);
+        body.flush();
+        byte[] bodyArray = bodyBytes.toByteArray();
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(bodyArray.length + 12);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        record.writeInt(bodyArray.length);
+        record.write(bodyArray);
+        record.writeLong(checksumOf(bodyArray));
+        record.flush();
+        return recordBytes.toByteArray();
+    }
+
+    private static long checksumOf(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,60 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.repositoryconnector.stores;
+
+import org.odpi.egeria.connectors.ibm.igc.repositoryconnector.model.OMRSStub;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Defines the operations needed to persist OMRS stubs: shadow copies of the last version of each asset that was
+ * processed, used by the event mapper to detect changes. Stubs are always keyed by the IGC asset type and the
+ * Repository ID (RID) of the asset they represent.
+ */
+public interface OMRSStubStore {
+
+    /**
+     * Retrieve the OMRS stub for the provided asset details, or null if there is no existing stub.
+     *
+     * @param rid the Repository ID (RID) of the asset for which to retrieve the OMRS stub
+     * @param assetType the IGC asset type of the asset for which to retrieve the OMRS stub
+     * @return OMRSStub
+     */
+    OMRSStub getStub(String rid, String assetType);
+
+    /**
+     * Retrieve the OMRS stubs for all of the provided assets of a single type. Any asset for which there is no
+     * existing stub will simply be missing from the results.
+     *
+     * @param rids the Repository IDs (RIDs) of the assets for which to retrieve the OMRS stubs
+     * @param assetType the IGC asset type of all of the assets
+     * @return {@code Map<String, OMRSStub>} of the stubs that were found, keyed by the RID of the asset they represent
+     */
+    Map<String, OMRSStub> getStubs(List<String> rids, String assetType);
+
+    /**
+     * Update (or create if it does not already exist) the OMRS stub for the provided asset details.
+     *
+     * @param rid the Repository ID (RID) of the asset for which to upsert the OMRS stub
+     * @param assetType the IGC asset type of the asset for which to upsert the OMRS stub
+     * @param payload the JSON payload of the latest version of the asset
+     * @return String the unique identifier of the OMRS stub within the store
+     */
+    String upsertStub(String rid, String assetType, String payload);
+
+    /**
+     * Delete the OMRS stub for the provided asset details.
+     *
+     * @param rid the Repository ID (RID) of the asset for which to delete the OMRS stub
+     * @param assetType the IGC asset type of the asset for which to delete the OMRS stub
+     * @return boolean - true on successful deletion, false otherwise
+     */
+    boolean deleteStub(String rid, String assetType);
+
+    /**
+     * Free up any resources held by the store, as it is no longer needed.
+     */
+    void close();
+
+}
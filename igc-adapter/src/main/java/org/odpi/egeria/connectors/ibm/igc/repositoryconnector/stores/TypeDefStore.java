@@ -8,13 +8,14 @@ import org.odpi.openmetadata.repositoryservices.connectors.stores.metadatacollec
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Store of implemented TypeDefs for the repository.
+ * <br><br>
+ * The attributes of each type definition, including those inherited from all of its supertypes, are flattened into an
+ * immutable index that is built once all of the type definitions have been added (and rebuilt only if any are added
+ * afterwards), so that retrieving them requires no further work.
  */
 public class TypeDefStore {
 
@@ -26,11 +27,14 @@ public class TypeDefStore {
 
     private Map<String, TypeDef> unimplementedTypeDefs;
 
+    private volatile Map<String, Map<String, TypeDefAttribute>> omrsGuidToAllAttributes;
+
     public TypeDefStore() {
         omrsGuidToTypeDef = new HashMap<>();
         omrsNameToGuid = new HashMap<>();
         omrsGuidToAttributeMap = new HashMap<>();
         unimplementedTypeDefs = new HashMap<>();
+        omrsGuidToAllAttributes = null;
     }
 
     /**
@@ -38,7 +42,7 @@ public class TypeDefStore {
      *
      * @param typeDef an implemented type definition
      */
-    public void addTypeDef(TypeDef typeDef) {
+    public synchronized void addTypeDef(TypeDef typeDef) {
         String guid = typeDef.getGUID();
         omrsGuidToTypeDef.put(guid, typeDef);
         omrsNameToGuid.put(typeDef.getName(), guid);
@@ -51,7 +55,7 @@ public class TypeDefStore {
      *
      * @param typeDef an unimplemented type definition
      */
-    public void addUnimplementedTypeDef(TypeDef typeDef) {
+    public synchronized void addUnimplementedTypeDef(TypeDef typeDef) {
         String guid = typeDef.getGUID();
         unimplementedTypeDefs.put(guid, typeDef);
         addAttributes(typeDef.getPropertiesDefinition(), guid);
@@ -64,14 +68,66 @@ public class TypeDefStore {
      * @param guid of the OMRS TypeDef
      */
     private void addAttributes(List<TypeDefAttribute> attributes, String guid) {
-        if (!omrsGuidToAttributeMap.containsKey(guid)) {
-            omrsGuidToAttributeMap.put(guid, new HashMap<>());
-        }
+        Map<String, TypeDefAttribute> attributeMap = omrsGuidToAttributeMap.computeIfAbsent(guid, k -> new HashMap<>());
         if (attributes != null) {
             for (TypeDefAttribute attribute : attributes) {
-                omrsGuidToAttributeMap.get(guid).put(attribute.getAttributeName(), attribute);
+                attributeMap.put(attribute.getAttributeName(), attribute);
+            }
+        }
+        // Any previously-built index of inherited attributes is now out-of-date
+        omrsGuidToAllAttributes = null;
+    }
+
+    /**
+     * Builds the index of all attributes (including inherited attributes) for every type definition in the store.
+     * This is done automatically the first time the attributes are needed after any type definition has been added,
+     * but can also be done up-front (eg. once all type definitions have been added).
+     *
+     * @return {@code Map<String, Map<String, TypeDefAttribute>>} the index (unmodifiable), keyed by type definition GUID
+     */
+    public synchronized Map<String, Map<String, TypeDefAttribute>> buildAttributeIndex() {
+        Map<String, Map<String, TypeDefAttribute>> index = omrsGuidToAllAttributes;
+        if (index == null) {
+            Map<String, Map<String, TypeDefAttribute>> built = new HashMap<>();
+            for (String guid : omrsGuidToAttributeMap.keySet()) {
+                flattenAttributes(guid, built);
             }
+            index = Collections.unmodifiableMap(built);
+            omrsGuidToAllAttributes = index;
+            if (log.isDebugEnabled()) { log.debug("Indexed attributes of {} OMRS TypeDefs.", built.size()); }
+        }
+        return index;
+    }
+
+    /**
+     * Collects all of the attributes of the specified type definition, including those of all of its supertypes, into
+     * the index being built (re-using any supertype that has already been flattened into it).
+     *
+     * @param guid of the type definition
+     * @param index the index being built
+     * @return {@code Map<String, TypeDefAttribute>} (unmodifiable)
+     */
+    private Map<String, TypeDefAttribute> flattenAttributes(String guid, Map<String, Map<String, TypeDefAttribute>> index) {
+        Map<String, TypeDefAttribute> flattened = index.get(guid);
+        if (flattened != null) {
+            return flattened;
         }
+        Map<String, TypeDefAttribute> all = new HashMap<>();
+        TypeDef typeDef = getTypeDefByGUID(guid, false);
+        if (typeDef == null) {
+            typeDef = getUnimplementedTypeDefByGUID(guid, false);
+        }
+        TypeDefLink superType = typeDef == null ? null : typeDef.getSuperType();
+        if (superType != null && omrsGuidToAttributeMap.containsKey(superType.getGUID())) {
+            all.putAll(flattenAttributes(superType.getGUID(), index));
+        }
+        Map<String, TypeDefAttribute> own = omrsGuidToAttributeMap.get(guid);
+        if (own != null) {
+            all.putAll(own);
+        }
+        flattened = Collections.unmodifiableMap(all);
+        index.put(guid, flattened);
+        return flattened;
     }
 
     /**
@@ -157,40 +213,21 @@ public class TypeDefStore {
         }
     }
 
-    /**
-     * Retrieves a map from attribute name to attribute definition for all attributes of the specified type definition.
-     *
-     * @param guid of the type definition
-     * @return {@code Map<String, TypeDefAttribute>}
-     */
-    private Map<String, TypeDefAttribute> getTypeDefAttributesByGUID(String guid) {
-        if (omrsGuidToAttributeMap.containsKey(guid)) {
-            return omrsGuidToAttributeMap.get(guid);
-        } else {
-            if (log.isWarnEnabled()) { log.warn("Unable to find attributes for OMRS TypeDef by GUID: {}", guid); }
-            return null;
-        }
-    }
-
     /**
      * Retrieves a map from attribute name to attribute definition for all attributes of the specified type definition,
      * including all of its supertypes' attributes.
      *
      * @param guid of the type definition
-     * @return {@code Map<String, TypeDefAttribute>}
+     * @return {@code Map<String, TypeDefAttribute>} (unmodifiable)
      */
     public Map<String, TypeDefAttribute> getAllTypeDefAttributesForGUID(String guid) {
-        Map<String, TypeDefAttribute> all = getTypeDefAttributesByGUID(guid);
-        if (all != null) {
-            TypeDef typeDef = getTypeDefByGUID(guid, false);
-            if (typeDef == null) {
-                typeDef = getUnimplementedTypeDefByGUID(guid);
-            }
-            TypeDefLink superType = typeDef.getSuperType();
-            if (superType != null) {
-                all.putAll(getAllTypeDefAttributesForGUID(superType.getGUID()));
-            }
+        Map<String, Map<String, TypeDefAttribute>> index = omrsGuidToAllAttributes;
+        if (index == null) {
+            // (Use the index returned, as a type definition added concurrently could already have reset the field)
+            index = buildAttributeIndex();
         }
+        Map<String, TypeDefAttribute> all = index.get(guid);
+        if (all == null && log.isWarnEnabled()) { log.warn("Unable to find attributes for OMRS TypeDef by GUID: {}", guid); }
         return all;
     }
 
@@ -3,10 +3,17 @@
 package org.odpi.egeria.connectors.ibm.igc.clientlibrary;
 
 import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -18,11 +25,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.*;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchTemplate;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.update.IGCCreate;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.update.IGCUpdate;
 import org.slf4j.Logger;
@@ -42,6 +51,9 @@ import org.springframework.web.util.UriComponentsBuilder;
  * Library of methods to connect to and interact with an IBM Information Governance Catalog environment
  * using appropriate session management.
  * <br><br>
+ * A client is safe for use by multiple threads, and can be shared between connectors through the
+ * IGCRestClientRegistry.
+ * <br><br>
  * Methods are provided to interact with REST API endpoints and process results as JsonNode objects
  * (ie. allowing direct traversal of the JSON objects) and through the use of registered POJOs to
  * automatically (de-)serialise between the JSON form and a native Java object.
@@ -62,20 +74,31 @@ public class IGCRestClient {
 
     private static final Logger log = LoggerFactory.getLogger(IGCRestClient.class);
 
+    /** The default page size of a client, unless set otherwise. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // Class loaders for the generated POJOs of each version that are packaged as nested jars (only ever the versions
+    // that have been detected), shared by all clients
+    private static final ConcurrentHashMap<IGCVersionEnum, ClassLoader> modelClassLoaders = new ConcurrentHashMap<>();
+
     private String authorization;
     private String baseURL;
     private Boolean workflowEnabled = false;
-    private List<String> cookies = null;
+    private volatile List<String> cookies = null;
     private boolean successfullyInitialised = false;
     private RestTemplate restTemplate;
 
     private IGCVersionEnum igcVersion;
-    private HashMap<String, Class> registeredPojosByType;
-    private HashMap<String, DynamicPropertyReader> typeAndPropertyToAccessor;
-    private HashMap<String, DynamicPropertyWriter> typeAndPropertyToWriter;
-    private HashMap<String, PojoIntrospector> typeToIntrospector;
+    private File startupCacheFile;
+    private ConcurrentHashMap<String, Class> registeredPojosByType;
+    private ConcurrentHashMap<String, ConcurrentHashMap<String, DynamicPropertyGetter>> typeAndPropertyToAccessor;
+    private ConcurrentHashMap<String, ConcurrentHashMap<String, DynamicPropertyWriter>> typeAndPropertyToWriter;
+    private ConcurrentHashMap<String, PojoIntrospector> typeToIntrospector;
+    private ConcurrentHashMap<String, IGCSearchTemplate> searchTemplates;
+    private IdentityCache identityCache;
+    private ReferenceDeserializer referenceDeserializer;
 
-    private int defaultPageSize = 100;
+    private volatile int defaultPageSize = DEFAULT_PAGE_SIZE;
 
     private ObjectMapper mapper;
 
@@ -98,7 +121,25 @@ public class IGCRestClient {
      * @param password the password for the user
      */
     public IGCRestClient(String host, String port, String user, String password) {
-        this("https://" + host + ":" + port, encodeBasicAuth(user, password));
+        this(host, port, user, password, null);
+    }
+
+    /**
+     * Creates a new session on the server and retains the cookies to re-use the same session for the life
+     * of the client (or until the session times out); whichever occurs first.
+     * <br><br>
+     * If a startup cache directory is provided, the details discovered about the environment (its version and the
+     * POJOs registered to handle its asset types) are kept there, and re-used by any later client for the same
+     * environment and user for as long as the environment's version is unchanged.
+     *
+     * @param host the services (domain) tier host
+     * @param port the services (domain) tier port number
+     * @param user the username with which to open and retain the session
+     * @param password the password for the user
+     * @param startupCacheDirectory the directory in which to cache startup details, or null to always discover them
+     */
+    public IGCRestClient(String host, String port, String user, String password, String startupCacheDirectory) {
+        this("https://" + host + ":" + port, encodeBasicAuth(user, password), startupCacheDirectory);
     }
 
     /**
@@ -109,6 +150,18 @@ public class IGCRestClient {
      * @param authorization the Basic-encoded authorization string to use to login to Information Server
      */
     protected IGCRestClient(String baseURL, String authorization) {
+        this(baseURL, authorization, null);
+    }
+
+    /**
+     * Creates a new session on the server and retains the cookies to re-use the same session for the life
+     * of the client (or until the session times out); whichever occurs first.
+     *
+     * @param baseURL the base URL of the domain tier of Information Server
+     * @param authorization the Basic-encoded authorization string to use to login to Information Server
+     * @param startupCacheDirectory the directory in which to cache startup details, or null to always discover them
+     */
+    protected IGCRestClient(String baseURL, String authorization, String startupCacheDirectory) {
 
         if (baseURL == null || !baseURL.startsWith("https://")) {
             if (log.isErrorEnabled()) { log.error("Cannot instantiate IGCRestClient -- baseURL must be https: {}", baseURL); }
@@ -118,34 +171,42 @@ public class IGCRestClient {
         this.baseURL = baseURL;
         this.authorization = authorization;
         this.mapper = new ObjectMapper();
-        this.registeredPojosByType = new HashMap<>();
-        this.typeAndPropertyToAccessor = new HashMap<>();
-        this.typeAndPropertyToWriter = new HashMap<>();
-        this.typeToIntrospector = new HashMap<>();
+        this.registeredPojosByType = new ConcurrentHashMap<>();
+        this.referenceDeserializer = new ReferenceDeserializer(this::getPOJOForType);
+        SimpleModule streamingReaders = new SimpleModule("IGCStreamingReaders");
+        streamingReaders.addDeserializer(Reference.class, this.referenceDeserializer);
+        this.mapper.registerModule(streamingReaders);
+        this.typeAndPropertyToAccessor = new ConcurrentHashMap<>();
+        this.typeAndPropertyToWriter = new ConcurrentHashMap<>();
+        this.typeToIntrospector = new ConcurrentHashMap<>();
+        this.searchTemplates = new ConcurrentHashMap<>();
+        this.identityCache = new IdentityCache();
         this.restTemplate = new RestTemplate();
 
         if (log.isDebugEnabled()) { log.debug("Constructing IGCRestClient..."); }
 
-        // Run a simple initial query to obtain a session and setup the cookies
-        if (this.authorization != null) {
+        IGCStartupCache startupCache = null;
+        if (this.authorization != null && startupCacheDirectory != null) {
+            String startupCacheKey = IGCStartupCache.getKeyFor(baseURL, getUserFromAuthorization(authorization));
+            this.startupCacheFile = IGCStartupCache.getFileFor(startupCacheDirectory, startupCacheKey);
+            startupCache = IGCStartupCache.load(startupCacheFile, startupCacheKey);
+        }
+
+        if (startupCache != null && restoreFromStartupCache(startupCache)) {
+
+            if (log.isInfoEnabled()) { log.info("Restored IGC version {} from startup cache: {}", this.igcVersion.getVersionString(), startupCacheFile); }
+            checkWorkflow();
+            successfullyInitialised = true;
 
-            IGCSearch igcSearch = new IGCSearch("category");
-            igcSearch.addType("term");
-            igcSearch.addType("information_governance_policy");
-            igcSearch.addType("information_governance_rule");
-            igcSearch.setPageSize(1);
-            igcSearch.setDevGlossary(true);
-            String response = searchJson(igcSearch);
+        } else if (this.authorization != null) {
+
+            // Run a simple initial query to obtain a session and setup the cookies
+            String response = checkWorkflow();
 
             if (response != null) {
 
-                if (log.isDebugEnabled()) { log.debug("Checking for workflow and registering version..."); }
+                if (log.isDebugEnabled()) { log.debug("Registering version..."); }
                 ObjectMapper tmpMapper = new ObjectMapper();
-                try {
-                    this.workflowEnabled = tmpMapper.readValue(response, ReferenceList.class).getPaging().getNumTotal() > 0;
-                } catch (IOException e) {
-                    if (log.isErrorEnabled()) { log.error("Unable to determine if workflow is enabled: {}", e); }
-                }
                 // Register the non-generated types
                 this.registerPOJO(Paging.class);
 
@@ -162,6 +223,7 @@ public class IGCRestClient {
                 }
                 if (log.isInfoEnabled()) { log.info("Detected IGC version: {}", this.igcVersion.getVersionString()); }
                 successfullyInitialised = true;
+                saveStartupCache();
 
             } else {
                 log.error("Unable to construct IGCRestClient: no authorization provided.");
@@ -171,6 +233,152 @@ public class IGCRestClient {
 
     }
 
+    /**
+     * Run a simple query to determine whether workflow is enabled in the environment (which also opens the session,
+     * if it is not yet open). As workflow can be enabled or disabled at any time, this is never cached.
+     *
+     * @return String the response to the query, or null if the query failed
+     */
+    private String checkWorkflow() {
+        IGCSearch igcSearch = new IGCSearch("category");
+        igcSearch.addType("term");
+        igcSearch.addType("information_governance_policy");
+        igcSearch.addType("information_governance_rule");
+        igcSearch.setPageSize(1);
+        igcSearch.setDevGlossary(true);
+        String response = searchJson(igcSearch);
+        if (response != null) {
+            if (log.isDebugEnabled()) { log.debug("Checking for workflow..."); }
+            try {
+                this.workflowEnabled = new ObjectMapper().readValue(response, ReferenceList.class).getPaging().getNumTotal() > 0;
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) { log.error("Unable to determine if workflow is enabled: {}", e); }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Restore the details of the environment from the provided startup cache, provided the cached version still
+     * matches the environment.
+     *
+     * @param startupCache the cached details
+     * @return boolean true if the details were restored, otherwise false (and they must be discovered)
+     */
+    private boolean restoreFromStartupCache(IGCStartupCache startupCache) {
+        IGCVersionEnum cachedVersion;
+        try {
+            cachedVersion = IGCVersionEnum.valueOf(startupCache.getIgcVersion());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            if (log.isWarnEnabled()) { log.warn("Unknown IGC version in startup cache -- ignoring it: {}", startupCache); }
+            return false;
+        }
+        if (!isVersionCurrent(cachedVersion)) {
+            if (log.isInfoEnabled()) { log.info("IGC version {} in startup cache no longer matches the environment -- discovering it again.", cachedVersion.getVersionString()); }
+            return false;
+        }
+        this.igcVersion = cachedVersion;
+        this.registerPOJO(Paging.class);
+        for (String className : startupCache.getRegisteredPojos()) {
+            try {
+                this.registerPOJO(loadModelClass(className));
+            } catch (ClassNotFoundException e) {
+                if (log.isWarnEnabled()) { log.warn("Unable to find POJO class from startup cache -- skipping: {}", className); }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Confirm that the provided version is still the one that would be detected for the environment, by checking
+     * only the asset types that distinguish it from any later version (each through a small request for that single
+     * type's definition, rather than retrieving every type).
+     *
+     * @param version the version to confirm
+     * @return boolean
+     */
+    private boolean isVersionCurrent(IGCVersionEnum version) {
+        Map<String, Boolean> typeExists = new HashMap<>();
+        for (IGCVersionEnum aVersion : IGCVersionEnum.values()) {
+            if (aVersion == version || aVersion.isHigherThan(version)) {
+                Boolean first = typeExists(aVersion.getTypeNameFirstAvailableInThisVersion(), typeExists);
+                if (first == null) {
+                    return false;
+                }
+                boolean detected = first;
+                if (detected) {
+                    Boolean notAvailable = typeExists(aVersion.getTypeNameNotAvailableInThisVersion(), typeExists);
+                    if (notAvailable == null) {
+                        return false;
+                    }
+                    detected = !notAvailable;
+                }
+                if (aVersion == version && !detected && version != IGCVersionEnum.values()[0]) {
+                    return false;
+                } else if (aVersion != version && detected) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the provided asset type exists in the environment (re-using any previous check in the provided
+     * map). Also opens the session, if it is not yet open.
+     *
+     * @param typeName the name of the IGC asset type
+     * @param checked the results of the checks made so far
+     * @return Boolean true if the type exists, false if not, or null if it could not be determined
+     */
+    private Boolean typeExists(String typeName, Map<String, Boolean> checked) {
+        if (checked.containsKey(typeName)) {
+            return checked.get(typeName);
+        }
+        Boolean exists = null;
+        try {
+            UriComponents uriComponents = UriComponentsBuilder.fromHttpUrl(baseURL + EP_TYPES + "/" + typeName).build(true);
+            ResponseEntity<String> response = restTemplate.exchange(
+                    uriComponents.toUri(),
+                    HttpMethod.GET,
+                    new HttpEntity<>(getHttpHeaders(false)),
+                    String.class);
+            setCookiesFromResponse(response);
+            exists = (response.getStatusCode() == HttpStatus.OK);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND || e.getStatusCode() == HttpStatus.BAD_REQUEST) {
+                exists = false;
+            } else if (log.isWarnEnabled()) {
+                log.warn("Unable to check for type {}: {}", typeName, e.getStatusCode());
+            }
+        } catch (RestClientException e) {
+            if (log.isWarnEnabled()) { log.warn("Unable to check for type: {}", typeName, e); }
+        }
+        if (exists != null) {
+            checked.put(typeName, exists);
+        }
+        return exists;
+    }
+
+    /**
+     * Save the details discovered about the environment to the startup cache (if there is one).
+     */
+    private void saveStartupCache() {
+        if (startupCacheFile != null && successfullyInitialised) {
+            IGCStartupCache startupCache = new IGCStartupCache();
+            startupCache.setKey(IGCStartupCache.getKeyFor(baseURL, getUserFromAuthorization(authorization)));
+            startupCache.setIgcVersion(igcVersion.name());
+            List<String> pojos = new ArrayList<>();
+            for (Class pojo : registeredPojosByType.values()) {
+                if (!pojo.equals(Paging.class)) {
+                    pojos.add(pojo.getName());
+                }
+            }
+            startupCache.setRegisteredPojos(pojos);
+            startupCache.save(startupCacheFile);
+        }
+    }
+
     /**
      * Indicates whether the client was successfully initialised (true) or not (false).
      *
@@ -340,6 +548,14 @@ public class IGCRestClient {
      */
     public String getBaseURL() { return baseURL; }
 
+    /**
+     * Retrieve the cache of the RIDs and types of assets by their qualified identity, filled as the identities of
+     * assets are determined through this connection.
+     *
+     * @return IdentityCache
+     */
+    public IdentityCache getIdentityCache() { return identityCache; }
+
     /**
      * Retrieve the default page size for this IGC REST API connection.
      *
@@ -365,6 +581,18 @@ public class IGCRestClient {
         return Base64Utils.encodeToString((username + ":" + password).getBytes(UTF_8));
     }
 
+    /**
+     * Retrieve only the username from the provided (Basic-encoded) authorization info.
+     *
+     * @param authorization the Basic-encoded authorization string
+     * @return String the username
+     */
+    private static String getUserFromAuthorization(String authorization) {
+        String credentials = new String(Base64Utils.decodeFromString(authorization), UTF_8);
+        int separator = credentials.indexOf(':');
+        return separator < 0 ? credentials : credentials.substring(0, separator);
+    }
+
     /**
      * Internal utility for making potentially repeat requests (if session expires and needs to be re-opened),
      * to upload a file to a given endpoint.
@@ -538,21 +766,23 @@ public class IGCRestClient {
      */
     public Reference getAssetRefById(String rid) {
 
-        // We can search for any object by ID by using "main_object" as the type
-        // (no properties needed)
-        IGCSearchCondition condition = new IGCSearchCondition(
-                "_id",
-                "=",
-                rid
-        );
-        IGCSearchConditionSet conditionSet = new IGCSearchConditionSet(condition);
-        IGCSearch igcSearch = new IGCSearch("main_object", conditionSet);
-        // Add non-main_object types that might also be looked-up by RID
-        igcSearch.addType("classification");
-        igcSearch.addType("label");
-        igcSearch.addType("user");
-        igcSearch.addType("group");
-        ReferenceList results = search(igcSearch);
+        ReferenceList results = search(getSearchTemplate("getAssetRefById", () -> {
+            // We can search for any object by ID by using "main_object" as the type
+            // (no properties needed)
+            IGCSearchCondition condition = new IGCSearchCondition(
+                    "_id",
+                    "=",
+                    IGCSearchTemplate.parameter(0)
+            );
+            IGCSearchConditionSet conditionSet = new IGCSearchConditionSet(condition);
+            IGCSearch igcSearch = new IGCSearch("main_object", conditionSet);
+            // Add non-main_object types that might also be looked-up by RID
+            igcSearch.addType("classification");
+            igcSearch.addType("label");
+            igcSearch.addType("user");
+            igcSearch.addType("group");
+            return igcSearch;
+        }), rid);
         Reference reference = null;
         if (results.getPaging().getNumTotal() > 0) {
             if (results.getPaging().getNumTotal() > 1) {
@@ -565,6 +795,47 @@ public class IGCRestClient {
 
     }
 
+    /**
+     * Retrieve only the minimal unique properties of each of the provided assets from IGC, in as few requests as
+     * possible. The RIDs are split into chunks of (at most) the default page size, and each chunk is resolved by a
+     * single search that OR's together the RIDs in that chunk.
+     * <br><br>
+     * Any RID that cannot be found (eg. because the asset has since been deleted) will simply be missing from the
+     * results.
+     *
+     * @param rids the Repository IDs of the assets
+     * @return {@code List<Reference>} - the minimalistic IGC objects representing the assets that could be found
+     */
+    public List<Reference> getAssetRefsByIds(List<String> rids) {
+
+        List<Reference> references = new ArrayList<>();
+        if (rids != null && !rids.isEmpty()) {
+            int chunkSize = getDefaultPageSize();
+            for (int i = 0; i < rids.size(); i += chunkSize) {
+                List<String> chunk = rids.subList(i, Math.min(i + chunkSize, rids.size()));
+                IGCSearchConditionSet conditionSet = new IGCSearchConditionSet();
+                for (String rid : chunk) {
+                    conditionSet.addCondition(new IGCSearchCondition("_id", "=", rid));
+                }
+                conditionSet.setMatchAnyCondition(true);
+                IGCSearch igcSearch = new IGCSearch("main_object", conditionSet);
+                // Add non-main_object types that might also be looked-up by RID
+                igcSearch.addType("classification");
+                igcSearch.addType("label");
+                igcSearch.addType("user");
+                igcSearch.addType("group");
+                igcSearch.setPageSize(chunkSize);
+                ReferenceList results = search(igcSearch);
+                if (results != null) {
+                    results.getAllPages(this);
+                    references.addAll(results.getItems());
+                }
+            }
+        }
+        return references;
+
+    }
+
     /**
      * Retrieve all assets that match the provided search criteria from IGC.
      *
@@ -582,8 +853,57 @@ public class IGCRestClient {
      * @return ReferenceList - the first page of results from the search
      */
     public ReferenceList search(IGCSearch igcSearch) {
+        if (igcSearch.cannotMatch()) {
+            if (log.isDebugEnabled()) { log.debug("Skipping search that cannot match any asset: {}", igcSearch); }
+            return new ReferenceList();
+        }
+        return readSearchResults(searchJson(igcSearch));
+    }
+
+    /**
+     * Retrieve all assets that match the provided search template (with the provided values bound into it) from IGC.
+     *
+     * @param template the prepared search to run
+     * @param values the values to bind into the search, in parameter order
+     * @return String - the first JSON page of results from the search
+     */
+    public String searchJson(IGCSearchTemplate template, String... values) {
+        return makeRequest(EP_SEARCH, HttpMethod.POST, MediaType.APPLICATION_JSON, template.bind(values));
+    }
+
+    /**
+     * Retrieve all assets that match the provided search template (with the provided values bound into it) from IGC.
+     *
+     * @param template the prepared search to run
+     * @param values the values to bind into the search, in parameter order
+     * @return ReferenceList - the first page of results from the search
+     */
+    public ReferenceList search(IGCSearchTemplate template, String... values) {
+        return readSearchResults(searchJson(template, values));
+    }
+
+    /**
+     * Retrieve the search template cached under the provided key, preparing it from the search given by the provided
+     * builder the first time it is needed. The key must identify everything about the search that is not bound as a
+     * parameter (eg. the type and properties it retrieves, if these vary between callers).
+     *
+     * @param key the key under which to cache the template
+     * @param builder the builder of the search from which to prepare the template (using
+     *                {@link IGCSearchTemplate#parameter(int)} in place of each value to be bound)
+     * @return IGCSearchTemplate
+     */
+    public IGCSearchTemplate getSearchTemplate(String key, Supplier<IGCSearch> builder) {
+        return searchTemplates.computeIfAbsent(key, k -> new IGCSearchTemplate(builder.get()));
+    }
+
+    /**
+     * Translate the provided JSON page of search results into a ReferenceList.
+     *
+     * @param results the JSON page of results
+     * @return ReferenceList
+     */
+    private ReferenceList readSearchResults(String results) {
         ReferenceList referenceList = null;
-        String results = searchJson(igcSearch);
         try {
             referenceList = this.mapper.readValue(results, ReferenceList.class);
         } catch (IOException e) {
@@ -837,6 +1157,8 @@ public class IGCRestClient {
      * Disconnect from IGC REST API and invalidate the session.
      */
     public void disconnect() {
+        // Keep any POJOs registered since startup, so they are also restored from the startup cache next time
+        saveStartupCache();
         makeRequest(EP_LOGOUT, HttpMethod.GET, null,null);
     }
 
@@ -852,6 +1174,11 @@ public class IGCRestClient {
      * To allow this dynamic registration to work, also ensure you have a @JsonTypeName("...") annotation
      * in your class set to the type that the IGC REST API uses to refer to the asset (eg. for Term.class
      * it would be "term"). See the generated POJOs for examples.
+     * <br><br>
+     * The introspector and the property readers for an asset POJO are built as part of registering it, so that they
+     * are ready for use (without any further setup) by the first request that needs them. If the POJO declares its
+     * own (generated) streaming reader, that is used to deserialize the asset and to read its properties, rather than
+     * reflection.
      *
      * @param clazz the Java Class (POJO) object to register
      * @see #getPOJOForType(String)
@@ -860,8 +1187,24 @@ public class IGCRestClient {
         JsonTypeName typeName = (JsonTypeName) clazz.getAnnotation(JsonTypeName.class);
         if (typeName != null) {
             String typeId = typeName.value();
+            if (clazz.equals(this.registeredPojosByType.get(typeId))) {
+                if (log.isDebugEnabled()) { log.debug("IGC type {} is already handled by POJO: {}", typeId, clazz.getCanonicalName()); }
+                return;
+            }
             this.mapper.registerSubtypes(clazz);
-            this.registeredPojosByType.put(typeId, clazz);
+            if (Reference.class.isAssignableFrom(clazz)) {
+                PojoStreamingReader streamingReader = null;
+                try {
+                    streamingReader = PojoStreamingReader.forPOJO(clazz);
+                } catch (IllegalArgumentException e) {
+                    if (log.isWarnEnabled()) { log.warn("Unable to use streaming reader of POJO {} -- it will be read by reflection.", clazz.getCanonicalName(), e); }
+                }
+                this.referenceDeserializer.registerReader(typeId, streamingReader);
+                this.registeredPojosByType.put(typeId, clazz);
+                prepareAccessors(typeId);
+            } else {
+                this.registeredPojosByType.put(typeId, clazz);
+            }
             if (log.isInfoEnabled()) { log.info("Registered IGC type {} to be handled by POJO: {}", typeId, clazz.getCanonicalName()); }
         } else {
             if (log.isErrorEnabled()) { log.error("Unable to find JsonTypeName annotation to identify type in POJO: {}", clazz.getCanonicalName()); }
@@ -878,7 +1221,31 @@ public class IGCRestClient {
      * @see #registerPOJO(Class)
      */
     public Class getPOJOForType(String typeName) {
-        return this.registeredPojosByType.get(typeName);
+        return typeName == null ? null : this.registeredPojosByType.get(typeName);
+    }
+
+    /**
+     * Build the introspector and a property reader for every property of the provided (registered) asset type.
+     *
+     * @param type the IGC asset type for which to build the accessors
+     */
+    private void prepareAccessors(String type) {
+        List<String> properties;
+        try {
+            properties = getIntrospector(type).getAllProperties();
+        } catch (IllegalArgumentException e) {
+            if (log.isDebugEnabled()) { log.debug("Unable to introspect POJO for type {} -- accessors will be built on first use.", type, e); }
+            return;
+        }
+        if (properties != null) {
+            for (String property : properties) {
+                try {
+                    getAccessor(type, property);
+                } catch (IllegalArgumentException e) {
+                    if (log.isDebugEnabled()) { log.debug("Unable to build reader for property {} of type {} -- skipping.", property, type, e); }
+                }
+            }
+        }
     }
 
     /**
@@ -896,7 +1263,7 @@ public class IGCRestClient {
         sbPojoName.append(".");
         sbPojoName.append(IGCRestConstants.getClassNameForAssetType(assetType));
         try {
-            igcPOJO = Class.forName(sbPojoName.toString());
+            igcPOJO = loadModelClass(sbPojoName.toString());
         } catch (ClassNotFoundException e) {
             if (log.isErrorEnabled()) { log.error("Unable to find POJO class: {}", sbPojoName.toString(), e); }
         }
@@ -904,23 +1271,74 @@ public class IGCRestClient {
     }
 
     /**
-     * Returns true iff the workflow is enabled in the environment against which the REST connection is defined.
+     * Load the provided POJO class: from the classpath if it is there, otherwise from the nested jar of generated
+     * POJOs for the detected version of IGC (if there is one).
      *
-     * @return Boolean
+     * @param className the fully-qualified name of the POJO class
+     * @return Class
+     * @throws ClassNotFoundException if the class cannot be found in either
      */
-    public Boolean isWorkflowEnabled() {
-        return this.workflowEnabled;
+    private Class loadModelClass(String className) throws ClassNotFoundException {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            ClassLoader modelClassLoader = getModelClassLoader(getIgcVersion());
+            if (modelClassLoader == null) {
+                throw e;
+            }
+            return Class.forName(className, true, modelClassLoader);
+        }
     }
 
     /**
-     * Cache a dynamic property reader to access properties from the provided asset type.
+     * Retrieve the class loader for the nested jar of generated POJOs for the provided version of IGC, opening the jar
+     * the first time it is needed. (The nested jars of any other versions are never opened.)
      *
-     * @param type the IGC asset type from which to retrieve the property
-     * @param property the name of the property to retrieve
-     * @param accessor the dynamic property reader that will retrieve it
+     * @param version the version of IGC
+     * @return ClassLoader, or null if there is no nested jar for the version
      */
-    private void addAccessor(String type, String property, DynamicPropertyReader accessor) {
-        typeAndPropertyToAccessor.put(type + "$" + property, accessor);
+    private static ClassLoader getModelClassLoader(IGCVersionEnum version) {
+        ClassLoader modelClassLoader = modelClassLoaders.get(version);
+        if (modelClassLoader == null) {
+            modelClassLoader = modelClassLoaders.computeIfAbsent(version, IGCRestClient::openModelJar);
+        }
+        return modelClassLoader;
+    }
+
+    /**
+     * Open the nested jar of generated POJOs for the provided version of IGC (copying it out to a temporary file, as
+     * a nested jar cannot be read directly by a class loader).
+     *
+     * @param version the version of IGC
+     * @return ClassLoader, or null if there is no nested jar for the version (or it could not be opened)
+     */
+    private static ClassLoader openModelJar(IGCVersionEnum version) {
+        ClassLoader parent = IGCRestClient.class.getClassLoader();
+        String jarName = IGCRestConstants.IGC_REST_GENERATED_MODEL_JARS + "/" + version.getVersionString() + ".jar";
+        URL nestedJar = parent.getResource(jarName);
+        if (nestedJar == null) {
+            if (log.isDebugEnabled()) { log.debug("No nested jar of generated POJOs found: {}", jarName); }
+            return null;
+        }
+        try (InputStream jarInput = nestedJar.openStream()) {
+            File jarFile = File.createTempFile("igc-models-" + version.getVersionString() + "-", ".jar");
+            jarFile.deleteOnExit();
+            Files.copy(jarInput, jarFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (log.isInfoEnabled()) { log.info("Loading generated POJOs for IGC version {} from: {}", version.getVersionString(), jarName); }
+            return new URLClassLoader(new URL[]{ jarFile.toURI().toURL() }, parent);
+        } catch (IOException e) {
+            if (log.isErrorEnabled()) { log.error("Unable to open nested jar of generated POJOs: {}", jarName, e); }
+            return null;
+        }
+    }
+
+    /**
+     * Returns true iff the workflow is enabled in the environment against which the REST connection is defined.
+     *
+     * @return Boolean
+     */
+    public Boolean isWorkflowEnabled() {
+        return this.workflowEnabled;
     }
 
     /**
@@ -929,26 +1347,36 @@ public class IGCRestClient {
      *
      * @param type the IGC asset type from which to retrieve the property
      * @param property the name of the property to retrieve
-     * @return DynamicPropertyReader
+     * @return DynamicPropertyGetter
      */
-    private DynamicPropertyReader getAccessor(String type, String property) {
-        DynamicPropertyReader accessor = typeAndPropertyToAccessor.getOrDefault(type + "$" + property, null);
+    private DynamicPropertyGetter getAccessor(String type, String property) {
+        if (type == null) {
+            // Cannot be cached (a ConcurrentHashMap does not allow null keys), but nor can there be a POJO for it
+            return new DynamicPropertyReader(null, property);
+        }
+        ConcurrentHashMap<String, DynamicPropertyGetter> accessors = typeAndPropertyToAccessor.get(type);
+        if (accessors == null) {
+            accessors = typeAndPropertyToAccessor.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+        }
+        DynamicPropertyGetter accessor = accessors.get(property);
         if (accessor == null) {
-            accessor = new DynamicPropertyReader(getPOJOForType(type), property);
-            addAccessor(type, property, accessor);
+            accessor = accessors.computeIfAbsent(property, k -> createAccessor(type, k));
         }
         return accessor;
     }
 
     /**
-     * Cache a dynamic property writer to update properties for the provided asset type.
+     * Create an accessor for a property of the provided asset type: from the generated accessor table of the POJO's
+     * streaming reader if it has one, otherwise a dynamic property reader.
      *
-     * @param type the IGC asset type for which to update a property
-     * @param property the name of the property to update
-     * @param writer the dynamic property writer that will update it
+     * @param type the IGC asset type from which to retrieve the property
+     * @param property the name of the property to retrieve
+     * @return DynamicPropertyGetter
      */
-    private void addWriter(String type, String property, DynamicPropertyWriter writer) {
-        typeAndPropertyToWriter.put(type + "$" + property, writer);
+    private DynamicPropertyGetter createAccessor(String type, String property) {
+        PojoStreamingReader streamingReader = referenceDeserializer.getReader(type);
+        DynamicPropertyGetter accessor = (streamingReader == null) ? null : streamingReader.getAccessor(property);
+        return (accessor != null) ? accessor : new DynamicPropertyReader(getPOJOForType(type), property);
     }
 
     /**
@@ -960,24 +1388,20 @@ public class IGCRestClient {
      * @return DynamicPropertyWriter
      */
     private DynamicPropertyWriter getWriter(String type, String property) {
-        DynamicPropertyWriter writer = typeAndPropertyToWriter.getOrDefault(type + "$" + property, null);
+        if (type == null) {
+            return new DynamicPropertyWriter(null, property);
+        }
+        ConcurrentHashMap<String, DynamicPropertyWriter> writers = typeAndPropertyToWriter.get(type);
+        if (writers == null) {
+            writers = typeAndPropertyToWriter.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+        }
+        DynamicPropertyWriter writer = writers.get(property);
         if (writer == null) {
-            writer = new DynamicPropertyWriter(getPOJOForType(type), property);
-            addWriter(type, property, writer);
+            writer = writers.computeIfAbsent(property, k -> new DynamicPropertyWriter(getPOJOForType(type), k));
         }
         return writer;
     }
 
-    /**
-     * Cache a dynamic POJO introspector to retrieve static details about the POJO.
-     *
-     * @param type the IGC asset type for which to access static details
-     * @param introspector the dynamic POJO introspector
-     */
-    private void addIntrospector(String type, PojoIntrospector introspector) {
-        typeToIntrospector.put(type, introspector);
-    }
-
     /**
      * Retrieve a dynamic POJO introspector to retrieve static details about the provided asset type, and create one if
      * it does not already exist.
@@ -986,14 +1410,28 @@ public class IGCRestClient {
      * @return PojoIntrospector
      */
     private PojoIntrospector getIntrospector(String type) {
-        PojoIntrospector introspector = typeToIntrospector.getOrDefault(type, null);
+        if (type == null) {
+            return new PojoIntrospector(null);
+        }
+        PojoIntrospector introspector = typeToIntrospector.get(type);
         if (introspector == null) {
-            introspector = new PojoIntrospector(getPOJOForType(type));
-            addIntrospector(type, introspector);
+            introspector = typeToIntrospector.computeIfAbsent(type, k -> new PojoIntrospector(getPOJOForType(k)));
         }
         return introspector;
     }
 
+    /**
+     * Retrieve a (cached) reader for the named property of the provided IGC asset type, so that callers retrieving
+     * the same property from many objects of the same type can resolve the reader once and re-use it directly.
+     *
+     * @param type the IGC asset type from which to retrieve the property
+     * @param property the name of the property to retrieve
+     * @return DynamicPropertyGetter
+     */
+    public DynamicPropertyGetter getPropertyReader(String type, String property) {
+        return getAccessor(type, property);
+    }
+
     /**
      * Retrieve a property of an IGC object based on the property's name.
      *
@@ -1003,7 +1441,7 @@ public class IGCRestClient {
      */
     public Object getPropertyByName(Reference object, String property) {
         if (object != null) {
-            DynamicPropertyReader accessor = getAccessor(object.getType(), property);
+            DynamicPropertyGetter accessor = getAccessor(object.getType(), property);
             return accessor.getProperty(object);
         } else {
             return null;
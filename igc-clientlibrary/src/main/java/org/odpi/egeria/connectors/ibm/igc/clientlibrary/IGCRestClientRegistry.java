@@ -0,0 +1,162 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Shares a single IGCRestClient (and with it the session, type details, registered POJOs and accessor caches) between
+ * all of the connectors in a server that connect to the same IGC environment as the same user, with the same
+ * client-wide settings (startup cache directory, default page size and identity cache size). Connectors that need
+ * different settings are each given their own client, so that none of them changes the settings of another.
+ * <br><br>
+ * Clients are reference-counted: each call to acquire a client must be matched by a call to release it, and the
+ * client's session is only closed once the last connector using it has released it.
+ */
+public final class IGCRestClientRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(IGCRestClientRegistry.class);
+
+    private static final Map<String, SharedClient> clientsByKey = new HashMap<>();
+    private static final Map<IGCRestClient, SharedClient> clientsByInstance = new IdentityHashMap<>();
+
+    /**
+     * A client shared by one or more connectors.
+     */
+    private static final class SharedClient {
+
+        private final String key;
+        private final IGCRestClient client;
+        private int references;
+
+        SharedClient(String key, IGCRestClient client) {
+            this.key = key;
+            this.client = client;
+            this.references = 0;
+        }
+
+    }
+
+    private IGCRestClientRegistry() {
+        // Only static methods
+    }
+
+    /**
+     * Retrieve the client for the provided IGC environment and user, opening a new session only if there is no
+     * client already open for them.
+     * <br><br>
+     * Note that a newly-created client is only shared if it was successfully initialised; the caller should check
+     * this (as for any IGCRestClient) before using it.
+     *
+     * @param host the services (domain) tier host
+     * @param port the services (domain) tier port number
+     * @param user the username with which to open and retain the session
+     * @param password the password for the user
+     * @return IGCRestClient
+     * @see #release(IGCRestClient)
+     */
+    public static IGCRestClient acquire(String host, String port, String user, String password) {
+        return acquire(host, port, user, password, null);
+    }
+
+    /**
+     * Retrieve the client for the provided IGC environment and user, opening a new session only if there is no
+     * client already open for them (and using the provided startup cache directory for any new client).
+     *
+     * @param host the services (domain) tier host
+     * @param port the services (domain) tier port number
+     * @param user the username with which to open and retain the session
+     * @param password the password for the user
+     * @param startupCacheDirectory the directory in which to cache startup details, or null to always discover them
+     * @return IGCRestClient
+     * @see #release(IGCRestClient)
+     */
+    public static IGCRestClient acquire(String host, String port, String user, String password, String startupCacheDirectory) {
+        return acquire(host, port, user, password, startupCacheDirectory, IGCRestClient.DEFAULT_PAGE_SIZE, IdentityCache.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Retrieve the client for the provided IGC environment, user and client-wide settings, opening a new session only
+     * if there is no client already open for exactly these.
+     * <br><br>
+     * The settings are only applied when the client is created, so they must not be changed on the client that is
+     * returned (as it may be shared). Registering further POJOs on it is fine, as that only adds to what the client
+     * can handle.
+     *
+     * @param host the services (domain) tier host
+     * @param port the services (domain) tier port number
+     * @param user the username with which to open and retain the session
+     * @param password the password for the user
+     * @param startupCacheDirectory the directory in which to cache startup details, or null to always discover them
+     * @param defaultPageSize the default page size for the client (or 0 or less for the client's own default)
+     * @param identityCacheSize the maximum number of asset identities to cache in the client
+     * @return IGCRestClient
+     * @see #release(IGCRestClient)
+     */
+    public static synchronized IGCRestClient acquire(String host,
+                                                     String port,
+                                                     String user,
+                                                     String password,
+                                                     String startupCacheDirectory,
+                                                     int defaultPageSize,
+                                                     int identityCacheSize) {
+
+        int pageSize = defaultPageSize > 0 ? defaultPageSize : IGCRestClient.DEFAULT_PAGE_SIZE;
+
+        // The credentials are part of the key, so that a client is never shared with a caller using different ones
+        String key = host + ":" + port + "/" + IGCRestClient.encodeBasicAuth(user, password)
+                + "|" + (startupCacheDirectory == null ? "" : startupCacheDirectory)
+                + "|" + pageSize
+                + "|" + identityCacheSize;
+        SharedClient shared = clientsByKey.get(key);
+        if (shared == null) {
+            IGCRestClient client = new IGCRestClient(host, port, user, password, startupCacheDirectory);
+            if (!client.isSuccessfullyInitialised()) {
+                return client;
+            }
+            client.setDefaultPageSize(pageSize);
+            client.getIdentityCache().setMaximumSize(identityCacheSize);
+            shared = new SharedClient(key, client);
+            clientsByKey.put(key, shared);
+            clientsByInstance.put(client, shared);
+            if (log.isInfoEnabled()) { log.info("Opened shared IGC REST client for {}@{}:{}", user, host, port); }
+        }
+        shared.references++;
+        if (log.isDebugEnabled()) { log.debug("IGC REST client for {}@{}:{} now has {} reference(s).", user, host, port, shared.references); }
+        return shared.client;
+
+    }
+
+    /**
+     * Release the provided client, closing its session if no other connector is still using it. (A client that was
+     * not obtained through this registry is closed immediately.)
+     *
+     * @param client the client to release
+     * @see #acquire(String, String, String, String, String, int, int)
+     */
+    public static synchronized void release(IGCRestClient client) {
+
+        if (client == null) {
+            return;
+        }
+        SharedClient shared = clientsByInstance.get(client);
+        if (shared == null) {
+            client.disconnect();
+        } else {
+            shared.references--;
+            if (shared.references <= 0) {
+                clientsByKey.remove(shared.key);
+                clientsByInstance.remove(client);
+                client.disconnect();
+                if (log.isInfoEnabled()) { log.info("Closed shared IGC REST client: {}", client.getBaseURL()); }
+            }
+        }
+
+    }
+
+}
@@ -20,6 +20,7 @@ public class IGCRestConstants {
 
     public static final String IGC_REST_COMMON_MODEL_PKG = "org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common";
     public static final String IGC_REST_GENERATED_MODEL_PKG = "org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.generated";
+    public static final String IGC_REST_GENERATED_MODEL_JARS = "igc-models";
 
     private static final List<String> MODIFICATION_DETAILS = createModificationDetails();
 
@@ -0,0 +1,140 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The details an IGCRestClient discovers about an IGC environment when it is first constructed (the version of the
+ * environment and the POJOs registered to handle its asset types), kept on disk so that a client re-connecting to the
+ * same environment can skip that discovery. (Whether workflow is enabled can change at any time, so is not cached.)
+ * <br><br>
+ * The cache is only used once the client has confirmed (through a small number of cheap requests for individual type
+ * definitions) that the cached version still matches the environment.
+ */
+@JsonIgnoreProperties(ignoreUnknown=true)
+public class IGCStartupCache {
+
+    private static final Logger log = LoggerFactory.getLogger(IGCStartupCache.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * The 'key' property identifies the environment and user name (as a hash) for which the details were cached.
+     */
+    protected String key;
+
+    /**
+     * The 'igcVersion' property gives the name of the IGCVersionEnum that was detected for the environment.
+     */
+    protected String igcVersion;
+
+    /**
+     * The 'registeredPojos' property lists the class names of all POJOs that were registered with the client.
+     */
+    protected List<String> registeredPojos = new ArrayList<>();
+
+    /** @see #key */ @JsonProperty("key") public String getKey() { return this.key; }
+    /** @see #key */ @JsonProperty("key") public void setKey(String key) { this.key = key; }
+
+    /** @see #igcVersion */ @JsonProperty("igcVersion") public String getIgcVersion() { return this.igcVersion; }
+    /** @see #igcVersion */ @JsonProperty("igcVersion") public void setIgcVersion(String igcVersion) { this.igcVersion = igcVersion; }
+
+    /** @see #registeredPojos */ @JsonProperty("registeredPojos") public List<String> getRegisteredPojos() { return this.registeredPojos; }
+    /** @see #registeredPojos */ @JsonProperty("registeredPojos") public void setRegisteredPojos(List<String> registeredPojos) { this.registeredPojos = registeredPojos; }
+
+    /**
+     * Calculate the key under which to cache the details of the provided environment and user: a hash of only the
+     * base URL and user name, so that nothing derived from the password is ever written to disk.
+     *
+     * @param baseURL the base URL of the domain tier of Information Server
+     * @param user the name of the user used to login to Information Server
+     * @return String
+     */
+    public static String getKeyFor(String baseURL, String user) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((baseURL + "|" + user).getBytes(UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Retrieve the file in which to cache the details for the provided key.
+     *
+     * @param directory the directory in which cached details are kept
+     * @param key the key of the environment and user
+     * @return File
+     */
+    public static File getFileFor(String directory, String key) {
+        return new File(directory, "igc-startup-" + key.substring(0, 16) + ".json");
+    }
+
+    /**
+     * Load the cached details from the provided file, if they exist and are for the provided key.
+     *
+     * @param file the file from which to load the cached details
+     * @param key the key of the environment and user
+     * @return IGCStartupCache, or null if there are no (usable) cached details
+     */
+    public static IGCStartupCache load(File file, String key) {
+        IGCStartupCache cache = null;
+        if (file.exists()) {
+            try {
+                cache = mapper.readValue(file, IGCStartupCache.class);
+                if (!key.equals(cache.getKey())) {
+                    cache = null;
+                }
+            } catch (IOException e) {
+                if (log.isWarnEnabled()) { log.warn("Unable to read IGC startup cache from {} -- ignoring it.", file, e); }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Save the cached details to the provided file, atomically replacing any previous version.
+     *
+     * @param file the file to which to save the cached details
+     */
+    public void save(File file) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Unable to create directory for IGC startup cache: " + parent);
+            }
+            mapper.writeValue(temp, this);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) { log.warn("Unable to save IGC startup cache to: {}", file, e); }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IGCStartupCache{igcVersion=" + igcVersion + ", registeredPojos=" + registeredPojos.size() + "}";
+    }
+
+}
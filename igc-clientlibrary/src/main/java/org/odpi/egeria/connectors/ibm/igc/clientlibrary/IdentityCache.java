@@ -0,0 +1,179 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary;
+
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Identity;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded cache of the Repository ID (RID) and type of the assets with each qualified identity (as given by
+ * {@link Identity#toString()}), so that an asset can be found by its identity through a simple search by RID rather
+ * than a search that joins on every level of its context (host, database, schema, table, etc).
+ * <br><br>
+ * The cache is filled from the identities of assets as they are retrieved, and only the most recently used identities
+ * are retained. Since an identity depends on the asset's context, any change to an asset must be reported through
+ * {@link #invalidate(String)}: this removes every identity of which the asset is a part (ie. the identity of the asset
+ * itself, and of anything within it).
+ */
+public class IdentityCache {
+
+    /**
+     * The default maximum number of identities to retain.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final Map<String, Entry> entriesByIdentity;
+    private final Map<String, Set<String>> identitiesByRid;
+    private int maximumSize;
+
+    /**
+     * An asset's RID and type, along with the RIDs of the assets in its context.
+     */
+    private static final class Entry {
+
+        private final Reference asset;
+        private final Set<String> rids;
+
+        Entry(Reference asset, Set<String> rids) {
+            this.asset = asset;
+            this.rids = rids;
+        }
+
+    }
+
+    /**
+     * Create a new identity cache retaining (at most) the default number of identities.
+     */
+    public IdentityCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Create a new identity cache retaining (at most) the provided number of identities.
+     *
+     * @param maximumSize the maximum number of identities to retain (or 0 to disable the cache)
+     */
+    public IdentityCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.identitiesByRid = new HashMap<>();
+        this.entriesByIdentity = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > IdentityCache.this.maximumSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Set the maximum number of identities to retain, removing the least recently used identities if there are
+     * already more than this.
+     *
+     * @param maximumSize the maximum number of identities to retain (or 0 to disable the cache)
+     */
+    public synchronized void setMaximumSize(int maximumSize) {
+        this.maximumSize = Math.max(0, maximumSize);
+        while (entriesByIdentity.size() > this.maximumSize) {
+            Map.Entry<String, Entry> eldest = entriesByIdentity.entrySet().iterator().next();
+            unindex(eldest.getKey(), eldest.getValue());
+            entriesByIdentity.remove(eldest.getKey());
+        }
+    }
+
+    /**
+     * Cache the provided identity. (Identities without a RID, or whose context does not give the RID of every asset
+     * within it, are not cached: they could not be invalidated by a change to any asset in their context.)
+     *
+     * @param identity the identity to cache
+     * @param context the context of the identity (from the asset itself)
+     */
+    public synchronized void put(Identity identity, Iterable<Reference> context) {
+        if (maximumSize <= 0 || identity == null || identity.getRid() == null || identity.getAssetType() == null) {
+            return;
+        }
+        Set<String> rids = new HashSet<>();
+        rids.add(identity.getRid());
+        for (Reference parent : context) {
+            if (parent.getId() == null) {
+                return;
+            }
+            rids.add(parent.getId());
+        }
+        String key = identity.toString();
+        Entry previous = entriesByIdentity.remove(key);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        entriesByIdentity.put(key, new Entry(new Reference(identity.getName(), identity.getAssetType(), identity.getRid()), rids));
+        for (String rid : rids) {
+            identitiesByRid.computeIfAbsent(rid, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Retrieve the asset with the provided qualified identity.
+     *
+     * @param identity the qualified identity string of the asset
+     * @return Reference giving (only) the name, type and RID of the asset, or null if the identity is not cached
+     */
+    public synchronized Reference get(String identity) {
+        Entry entry = entriesByIdentity.get(identity);
+        return entry == null ? null : entry.asset;
+    }
+
+    /**
+     * Remove every identity of which the asset with the provided RID is a part, as that asset has changed.
+     *
+     * @param rid the Repository ID (RID) of the asset that has changed
+     */
+    public synchronized void invalidate(String rid) {
+        Set<String> identities = identitiesByRid.remove(rid);
+        if (identities != null) {
+            for (String identity : identities) {
+                Entry entry = entriesByIdentity.remove(identity);
+                if (entry != null) {
+                    unindex(identity, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all identities from the cache.
+     */
+    public synchronized void clear() {
+        entriesByIdentity.clear();
+        identitiesByRid.clear();
+    }
+
+    /**
+     * Retrieve the number of identities that are cached.
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        return entriesByIdentity.size();
+    }
+
+    private void unindex(String identity, Entry entry) {
+        for (String rid : entry.rids) {
+            Set<String> identities = identitiesByRid.get(rid);
+            if (identities != null) {
+                identities.remove(identity);
+                if (identities.isEmpty()) {
+                    identitiesByRid.remove(rid);
+                }
+            }
+        }
+    }
+
+}
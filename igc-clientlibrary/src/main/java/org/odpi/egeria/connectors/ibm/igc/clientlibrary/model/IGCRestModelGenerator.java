@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestConstants;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.PojoStreamingReader;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Type;
 import org.odpi.openmetadata.http.HttpHelper;
 import org.slf4j.Logger;
@@ -150,6 +151,14 @@ public class IGCRestModelGenerator {
         igcRestClient = new IGCRestClient(hostname, port, username, password);
     }
 
+    /**
+     * Create a generator without any connection to IGC, that can only generate POJOs from type definitions that have
+     * already been retrieved (see {@link #createPOJOForType(JsonNode, String, IGCVersionEnum)}).
+     */
+    IGCRestModelGenerator() {
+        igcRestClient = null;
+    }
+
     public void generateForAllIgcTypesInEnvironment() {
 
         String igcVersion = igcRestClient.getIgcVersion().getVersionString();
@@ -255,6 +264,9 @@ public class IGCRestModelGenerator {
         }
         detail.setJavaType(javaType);
 
+        detail.setJsonName(name);
+        detail.setReadExpression(getReadExpressionForJavaType(javaType));
+
         String propName = name;
         StringBuilder declMember = getPropertyHeading(name, displayName, typeObj, javaType);
         Matcher m = IGCRestConstants.INVALID_NAMING_CHARS.matcher(propName);
@@ -271,6 +283,7 @@ public class IGCRestModelGenerator {
             declMember.append(System.lineSeparator());
         }
         detail.setMember(declMember.toString());
+        detail.setFieldName(propName);
 
         StringBuilder getSetter = new StringBuilder();
         String getSetPrepend = "    /** @see #" + propName + " */ @JsonProperty(\"" + name + "\") ";
@@ -288,6 +301,87 @@ public class IGCRestModelGenerator {
 
     }
 
+    private String getReadExpressionForJavaType(String javaType) {
+        String expression;
+        if (javaType.startsWith("ArrayList<")) {
+            expression = "readList(p, ctxt, " + javaType.substring("ArrayList<".length(), javaType.length() - 1) + ".class)";
+        } else {
+            expression = "read" + javaType + "(p, ctxt)";
+        }
+        return expression;
+    }
+
+    private String getStreamingReader(String className, PropertyList propertyList) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("    /**");
+        sb.append(System.lineSeparator());
+        sb.append("     * Reads (and provides accessors for) the properties of this POJO without reflection.");
+        sb.append(System.lineSeparator());
+        sb.append("     */");
+        sb.append(System.lineSeparator());
+        sb.append("    public static class " + PojoStreamingReader.NESTED_CLASS_NAME + " extends PojoStreamingReader {");
+        sb.append(System.lineSeparator());
+        sb.append(System.lineSeparator());
+        sb.append("        @Override public Reference newInstance() { return new " + className + "(); }");
+        sb.append(System.lineSeparator());
+        sb.append(System.lineSeparator());
+        sb.append("        @Override public boolean readProperty(String property, Reference reference, JsonParser p, DeserializationContext ctxt) throws IOException {");
+        sb.append(System.lineSeparator());
+        sb.append("            " + className + " pojo = (" + className + ") reference;");
+        sb.append(System.lineSeparator());
+        sb.append("            switch (property) {");
+        sb.append(System.lineSeparator());
+        for (PropertyDetail detail : propertyList.getDetails()) {
+            sb.append("                case \"" + detail.getJsonName() + "\": pojo." + detail.getFieldName() + " = " + detail.getReadExpression() + "; return true;");
+            sb.append(System.lineSeparator());
+        }
+        sb.append("                default: return super.readProperty(property, reference, p, ctxt);");
+        sb.append(System.lineSeparator());
+        sb.append("            }");
+        sb.append(System.lineSeparator());
+        sb.append("        }");
+        sb.append(System.lineSeparator());
+        sb.append(System.lineSeparator());
+        sb.append("        @Override protected void addAccessors(Map<String, DynamicPropertyGetter> accessors) {");
+        sb.append(System.lineSeparator());
+        sb.append("            super.addAccessors(accessors);");
+        sb.append(System.lineSeparator());
+        for (PropertyDetail detail : propertyList.getDetails()) {
+            String accessor = "pojo -> ((" + className + ") pojo)." + detail.getFieldName();
+            sb.append("            accessors.put(\"" + detail.getJsonName() + "\", " + accessor + ");");
+            sb.append(System.lineSeparator());
+            if (!detail.getJsonName().equals(detail.getFieldName())) {
+                sb.append("            accessors.put(\"" + detail.getFieldName() + "\", " + accessor + ");");
+                sb.append(System.lineSeparator());
+            }
+        }
+        sb.append("        }");
+        sb.append(System.lineSeparator());
+        sb.append(System.lineSeparator());
+        sb.append("    }");
+        sb.append(System.lineSeparator());
+        sb.append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    private String getAliasStreamingReader(String className, String aliasClassName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("    /**");
+        sb.append(System.lineSeparator());
+        sb.append("     * Reads (and provides accessors for) the properties of this POJO without reflection.");
+        sb.append(System.lineSeparator());
+        sb.append("     */");
+        sb.append(System.lineSeparator());
+        sb.append("    public static class " + PojoStreamingReader.NESTED_CLASS_NAME + " extends " + aliasClassName + "." + PojoStreamingReader.NESTED_CLASS_NAME + " {");
+        sb.append(System.lineSeparator());
+        sb.append("        @Override public " + IGCRestConstants.IGC_REST_COMMON_MODEL_PKG + ".Reference newInstance() { return new " + className + "(); }");
+        sb.append(System.lineSeparator());
+        sb.append("    }");
+        sb.append(System.lineSeparator());
+        sb.append(System.lineSeparator());
+        return sb.toString();
+    }
+
     private PropertyList getPropertiesForPOJO(BufferedWriter fs, ArrayNode properties) throws IOException {
 
         PropertyList propertiesList = new PropertyList();
@@ -304,6 +398,7 @@ public class IGCRestModelGenerator {
 
                 PropertyDetail details = getPropertyDetailForPOJO(propName, typeObj, maxNum, property.path("displayName").asText());
                 if (details != null) {
+                    propertiesList.addDetail(details);
                     propertiesList.addMember(details.getMember());
                     propertiesList.addGetterSetter(details.getGetSet());
                     propertiesList.addToAllProperties(propName);
@@ -334,7 +429,14 @@ public class IGCRestModelGenerator {
 
     }
 
-    private void createPOJOForType(JsonNode jsonProps, String directory, IGCVersionEnum version) {
+    /**
+     * Generate the POJO (and its streaming reader) for a single IGC type.
+     *
+     * @param jsonProps the definition of the type, as retrieved from IGC (including its view and create properties)
+     * @param directory the directory into which to write the POJO
+     * @param version the version of IGC from which the definition was retrieved
+     */
+    void createPOJOForType(JsonNode jsonProps, String directory, IGCVersionEnum version) {
 
         String packageName = IGCRestConstants.IGC_REST_GENERATED_MODEL_PKG + "." + version.getVersionString();
 
@@ -369,6 +471,12 @@ public class IGCRestModelGenerator {
                     fs.append(System.lineSeparator());
                     fs.append("import com.fasterxml.jackson.annotation.JsonProperty;");
                     fs.append(System.lineSeparator());
+                    fs.append("import com.fasterxml.jackson.core.JsonParser;");
+                    fs.append(System.lineSeparator());
+                    fs.append("import com.fasterxml.jackson.databind.DeserializationContext;");
+                    fs.append(System.lineSeparator());
+                    fs.append("import java.io.IOException;");
+                    fs.append(System.lineSeparator());
                     fs.append("import java.util.Arrays;");
                     fs.append(System.lineSeparator());
                     fs.append("import java.util.Date;");
@@ -377,6 +485,8 @@ public class IGCRestModelGenerator {
                     fs.append(System.lineSeparator());
                     fs.append("import java.util.ArrayList;");
                     fs.append(System.lineSeparator());
+                    fs.append("import java.util.Map;");
+                    fs.append(System.lineSeparator());
                 }
 
                 fs.append(System.lineSeparator());
@@ -486,6 +596,10 @@ public class IGCRestModelGenerator {
                     fs.append(System.lineSeparator());
                     fs.append("    public static List<String> getAllProperties() { return ALL_PROPERTIES; }");
                     fs.append(System.lineSeparator());
+                    fs.append(System.lineSeparator());
+                    fs.append(getStreamingReader(className, propertyList));
+                } else {
+                    fs.append(getAliasStreamingReader(className, IGCRestConstants.getClassNameForAssetType(ALIAS_OBJECTS.get(id))));
                 }
 
                 fs.append("    public static Boolean is" + className + "(Object obj) { return (obj.getClass() == " + className + ".class); }");
@@ -527,6 +641,7 @@ public class IGCRestModelGenerator {
 
     protected class PropertyList {
 
+        private List<PropertyDetail> details;
         private List<String> members;
         private List<String> gettersSetters;
 
@@ -536,6 +651,7 @@ public class IGCRestModelGenerator {
         private List<String> allProperties;
 
         public PropertyList() {
+            details = new ArrayList<>();
             members = new ArrayList<>();
             gettersSetters = new ArrayList<>();
             nonRelationship = new ArrayList<>();
@@ -544,6 +660,8 @@ public class IGCRestModelGenerator {
             allProperties = new ArrayList<>();
         }
 
+        public void addDetail(PropertyDetail detail) { details.add(detail); }
+        public List<PropertyDetail> getDetails() { return this.details; }
         public void addMember(String member) { members.add(member); }
         public void addGetterSetter(String getterSetter) { gettersSetters.add(getterSetter); }
         public List<String> getMembers() { return this.members; }
@@ -565,6 +683,9 @@ public class IGCRestModelGenerator {
         private String member;
         private String getSet;
         private String javaType;
+        private String jsonName;
+        private String fieldName;
+        private String readExpression;
 
         public PropertyDetail() {
             // Nothing to do by default...
@@ -573,10 +694,16 @@ public class IGCRestModelGenerator {
         public void setMember(String member) { this.member = member; }
         public void setGetSet(String getSet) { this.getSet = getSet; }
         public void setJavaType(String javaType) { this.javaType = javaType; }
+        public void setJsonName(String jsonName) { this.jsonName = jsonName; }
+        public void setFieldName(String fieldName) { this.fieldName = fieldName; }
+        public void setReadExpression(String readExpression) { this.readExpression = readExpression; }
 
         public String getMember() { return this.member; }
         public String getGetSet() { return this.getSet; }
         public String getJavaType() { return this.javaType; }
+        public String getJsonName() { return this.jsonName; }
+        public String getFieldName() { return this.fieldName; }
+        public String getReadExpression() { return this.readExpression; }
 
     }
 
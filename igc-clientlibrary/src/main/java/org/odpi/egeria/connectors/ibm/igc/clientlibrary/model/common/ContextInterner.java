@@ -0,0 +1,98 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Canonicalizes the '_context' of references, so that the parents of an asset are stored once and shared: every
+ * asset within the same parent (eg. all of the columns of a table) shares a single '_context' list, and every list
+ * that includes a given parent (eg. the tables, and the columns of those tables, within a schema) shares a single
+ * Reference for that parent.
+ * <br><br>
+ * Only plain references (with no '_context' of their own) are shared, and only the most recently used chains and
+ * parents are retained -- anything else is simply left as it was given.
+ */
+final class ContextInterner {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private static final Map<String, ArrayList<Reference>> chains = new LruMap<>();
+    private static final Map<String, Reference> parents = new LruMap<>();
+
+    private ContextInterner() {
+        // Only static methods
+    }
+
+    /**
+     * Retrieve the canonical (shared) equivalent of the provided '_context'. Note that the list returned may be
+     * shared with any number of other references, and must therefore not be modified.
+     *
+     * @param context the '_context' of a reference
+     * @return {@code ArrayList<Reference>} the shared equivalent, or the provided list itself if it cannot be shared
+     */
+    static ArrayList<Reference> intern(ArrayList<Reference> context) {
+
+        if (context == null || context.isEmpty()) {
+            return context;
+        }
+        String[] keys = new String[context.size()];
+        StringBuilder chainKey = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            Reference parent = context.get(i);
+            if (parent == null || parent.getClass() != Reference.class || parent.hasContext()) {
+                return context;
+            }
+            keys[i] = getKey(parent);
+            chainKey.append(keys[i]).append('\n');
+        }
+
+        synchronized (ContextInterner.class) {
+            ArrayList<Reference> shared = chains.get(chainKey.toString());
+            if (shared == null) {
+                shared = new ArrayList<>(keys.length);
+                for (int i = 0; i < keys.length; i++) {
+                    Reference parent = parents.get(keys[i]);
+                    if (parent == null) {
+                        parent = context.get(i);
+                        parents.put(keys[i], parent);
+                    }
+                    shared.add(parent);
+                }
+                chains.put(chainKey.toString(), shared);
+            }
+            return shared;
+        }
+
+    }
+
+    /**
+     * Retrieve the key that identifies the provided (plain) reference: two references with the same key are
+     * indistinguishable.
+     *
+     * @param reference the reference for which to retrieve the key
+     * @return String
+     */
+    private static String getKey(Reference reference) {
+        return reference.getType() + '\0' + reference.getId() + '\0' + reference.getName() + '\0' + reference.getUrl();
+    }
+
+    /**
+     * A map that retains only its most recently used entries.
+     */
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        LruMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+
+    }
+
+}
@@ -0,0 +1,265 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the properties of a POJO directly from a streaming parser (without reflection), and provides a table of
+ * accessors to retrieve those properties again by name.
+ * <br><br>
+ * This base class handles only the properties common to every {@link Reference}; the IGCRestModelGenerator emits a
+ * subclass (named 'StreamingReader', nested within each generated POJO) that handles all of the other properties of
+ * that POJO.
+ */
+public class PojoStreamingReader {
+
+    /**
+     * The name of the class nested within a POJO that provides its streaming reader.
+     */
+    public static final String NESTED_CLASS_NAME = "StreamingReader";
+
+    private volatile Map<String, DynamicPropertyGetter> accessors;
+
+    /**
+     * Retrieve the streaming reader declared by the provided POJO itself (not inherited from any superclass).
+     *
+     * @param pojoClass the POJO for which to retrieve the streaming reader
+     * @return PojoStreamingReader, or null if the POJO does not declare one
+     */
+    public static PojoStreamingReader forPOJO(Class<?> pojoClass) {
+        for (Class<?> nested : pojoClass.getDeclaredClasses()) {
+            if (nested.getSimpleName().equals(NESTED_CLASS_NAME) && PojoStreamingReader.class.isAssignableFrom(nested)) {
+                try {
+                    return (PojoStreamingReader) nested.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("Unable to create streaming reader for POJO (" + pojoClass + ").", e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create a new, empty instance of the POJO.
+     *
+     * @return Reference
+     */
+    public Reference newInstance() {
+        return new Reference();
+    }
+
+    /**
+     * Read the value of the named property from the parser into the provided POJO. The parser must be positioned on
+     * the first token of the value, and will be left on the last token of the value.
+     *
+     * @param property the name of the property (as it appears in the JSON)
+     * @param pojo the POJO into which to read the value
+     * @param p the parser from which to read the value
+     * @param ctxt the deserialization context
+     * @return boolean true if the property was read, or false if it is not a property of the POJO (and still needs
+     *                 to be skipped)
+     * @throws IOException on any error reading the value
+     */
+    public boolean readProperty(String property, Reference pojo, JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (property) {
+            case "_name":
+                pojo._name = readString(p, ctxt);
+                return true;
+            case "_type":
+                pojo.setType(readString(p, ctxt));
+                return true;
+            case "_id":
+                pojo.setId(readString(p, ctxt));
+                return true;
+            case "_url":
+                pojo.setUrl(readString(p, ctxt));
+                return true;
+            case "_context":
+                pojo.setContext(readList(p, ctxt, Reference.class));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Retrieve the accessor for the named property of the POJO.
+     *
+     * @param property the name of the property
+     * @return DynamicPropertyGetter, or null if there is no accessor for the property
+     */
+    public DynamicPropertyGetter getAccessor(String property) {
+        Map<String, DynamicPropertyGetter> table = this.accessors;
+        if (table == null) {
+            Map<String, DynamicPropertyGetter> built = new HashMap<>();
+            addAccessors(built);
+            table = Collections.unmodifiableMap(built);
+            this.accessors = table;
+        }
+        return table.get(property);
+    }
+
+    /**
+     * Add an accessor for each property of the POJO to the provided table.
+     *
+     * @param accessors the table of accessors, keyed by property name
+     */
+    protected void addAccessors(Map<String, DynamicPropertyGetter> accessors) {
+        // The common properties are accessed directly through the getters of Reference itself
+    }
+
+    /**
+     * Read a single string value.
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @return String
+     * @throws IOException on any error reading the value
+     */
+    protected static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.getCurrentToken();
+        if (t == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (t == JsonToken.VALUE_STRING) {
+            return p.getText();
+        } else if (t != null && t.isScalarValue()) {
+            return p.getValueAsString();
+        }
+        return ctxt.readValue(p, String.class);
+    }
+
+    /**
+     * Read a single boolean value.
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @return Boolean
+     * @throws IOException on any error reading the value
+     */
+    protected static Boolean readBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.getCurrentToken();
+        if (t == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (t == JsonToken.VALUE_TRUE || t == JsonToken.VALUE_FALSE) {
+            return p.getBooleanValue();
+        }
+        return ctxt.readValue(p, Boolean.class);
+    }
+
+    /**
+     * Read a single numeric value.
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @return Number
+     * @throws IOException on any error reading the value
+     */
+    protected static Number readNumber(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.getCurrentToken();
+        if (t == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getNumberValue();
+        }
+        return ctxt.readValue(p, Number.class);
+    }
+
+    /**
+     * Read a single date value (given by IGC as epoch milliseconds).
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @return Date
+     * @throws IOException on any error reading the value
+     */
+    protected static Date readDate(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.getCurrentToken();
+        if (t == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (t == JsonToken.VALUE_NUMBER_INT) {
+            return new Date(p.getLongValue());
+        }
+        return ctxt.readValue(p, Date.class);
+    }
+
+    /**
+     * Read a single reference to another asset.
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @return Reference
+     * @throws IOException on any error reading the value
+     */
+    protected static Reference readReference(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return ctxt.readValue(p, Reference.class);
+    }
+
+    /**
+     * Read a (paged) list of references to other assets.
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @return ReferenceList
+     * @throws IOException on any error reading the value
+     */
+    protected static ReferenceList readReferenceList(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return ctxt.readValue(p, ReferenceList.class);
+    }
+
+    /**
+     * Read an array of values of the provided type.
+     *
+     * @param p the parser positioned on the value
+     * @param ctxt the deserialization context
+     * @param elementType the type of each value in the array
+     * @param <T> the type of each value in the array
+     * @return {@code ArrayList<T>}
+     * @throws IOException on any error reading the value
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> ArrayList<T> readList(JsonParser p, DeserializationContext ctxt, Class<T> elementType) throws IOException {
+        JsonToken t = p.getCurrentToken();
+        if (t == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (t != JsonToken.START_ARRAY) {
+            return ctxt.readValue(p, ctxt.getTypeFactory().constructCollectionType(ArrayList.class, elementType));
+        }
+        ArrayList<T> list = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            Object value;
+            if (elementType == String.class) {
+                value = readString(p, ctxt);
+            } else if (elementType == Date.class) {
+                value = readDate(p, ctxt);
+            } else if (elementType == Number.class) {
+                value = readNumber(p, ctxt);
+            } else if (elementType == Boolean.class) {
+                value = readBoolean(p, ctxt);
+            } else if (elementType == Reference.class) {
+                value = readReference(p, ctxt);
+            } else {
+                value = ctxt.readValue(p, elementType);
+            }
+            list.add((T) value);
+        }
+        list.trimToSize();
+        return list;
+    }
+
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.*;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearch;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchCondition;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchConditionSet;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchTemplate;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestConstants;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.search.IGCSearchSorting;
@@ -44,7 +45,7 @@ public class Reference extends ObjectPrinter {
 
     public Reference(String name, String type, String id) {
         this._name = name;
-        this._type = type;
+        setType(type);
         this._id = id;
     }
 
@@ -64,8 +65,11 @@ public class Reference extends ObjectPrinter {
      * Provides the context to the unique identity of this asset. Note that while this will exist on
      * almost all IGC assets, it is not present on absolutely all of them -- also be aware that without
      * v11.7.0.2+ and an optional parameter it uses, this will always be 'null' in a ReferenceList
+     * <br><br>
+     * (Only created when first needed, and otherwise shared with every other asset that has the same parents: see
+     * {@link #setContext(ArrayList)}.)
      */
-    protected ArrayList<Reference> _context = new ArrayList<>();
+    protected ArrayList<Reference> _context;
 
     /**
      * The '_name' property of a Reference is equivalent to its 'name' property, but will always be
@@ -78,6 +82,8 @@ public class Reference extends ObjectPrinter {
      * The '_type' property defines the type of asset this Reference represents. To allow a Reference to
      * be automatically translated into a Java object, you must first register the Java class that should
      * interpret this data type using {@link IGCRestClient#registerPOJO(Class)}.
+     * <br><br>
+     * (Always interned, as the same few types are repeated across every reference.)
      */
     protected String _type;
 
@@ -90,23 +96,82 @@ public class Reference extends ObjectPrinter {
     /**
      * The '_url' property provides a navigable link directly to the full details of asset this Reference represents,
      * within a given IGC environment.
+     * <br><br>
+     * (Only kept here if it cannot be derived from the '_id': see {@link #urlPrefix}.)
      */
     protected String _url;
 
-    /** @see #_context */ @JsonProperty("_context") public ArrayList<Reference> getContext() { return this._context; }
-    /** @see #_context */ @JsonProperty("_context") public void setContext(ArrayList<Reference> _context) { this._context = _context; }
+    /**
+     * The part of the '_url' that precedes the '_id', when the '_url' ends with the '_id' -- which is the case for
+     * every asset, so that the '_url' can be derived on demand from this (interned) prefix rather than being kept
+     * in full on every reference.
+     */
+    @JsonIgnore private String urlPrefix;
+
+    /** @see #_context */ @JsonProperty("_context") public ArrayList<Reference> getContext() {
+        if (this._context == null) {
+            this._context = new ArrayList<>();
+        }
+        return this._context;
+    }
+
+    /**
+     * Set the '_context' of the asset. The list actually kept is shared with every other asset that has the same
+     * parents, so must not be modified once it has been set (set a new list instead).
+     *
+     * @param _context the parents of the asset
+     * @see #_context
+     */
+    @JsonProperty("_context") public void setContext(ArrayList<Reference> _context) { this._context = ContextInterner.intern(_context); }
 
     /** @see #_name */ @JsonProperty("_name") public String getName() { return this._name; }
     /** @see #_name */ @JsonProperty("_name") public void setName(String _name) { this._name = _name; }
 
     /** @see #_type */ @JsonProperty("_type") public String getType() { return this._type; }
-    /** @see #_type */ @JsonProperty("_type") public void setType(String _type) { this._type = _type; }
+    /** @see #_type */ @JsonProperty("_type") public void setType(String _type) { this._type = (_type == null ? null : _type.intern()); }
 
     /** @see #_id */ @JsonProperty("_id") public String getId() { return this._id; }
-    /** @see #_id */ @JsonProperty("_id") public void setId(String _id) { this._id = _id; }
+    /** @see #_id */ @JsonProperty("_id") public void setId(String _id) {
+        if (this.urlPrefix != null) {
+            // Keep the '_url' derived from the previous '_id' before replacing it
+            this._url = getUrl();
+            this.urlPrefix = null;
+        }
+        this._id = _id;
+        compactUrl();
+    }
 
-    /** @see #_url */ @JsonProperty("_url") public String getUrl() { return this._url; }
-    /** @see #_url */ @JsonProperty("_url") public void setUrl(String _url) { this._url = _url; }
+    /** @see #_url */ @JsonProperty("_url") public String getUrl() {
+        if (this.urlPrefix != null && this._id != null) {
+            return this.urlPrefix + this._id;
+        }
+        return this._url;
+    }
+    /** @see #_url */ @JsonProperty("_url") public void setUrl(String _url) {
+        this._url = _url;
+        this.urlPrefix = null;
+        compactUrl();
+    }
+
+    /**
+     * Indicates whether the asset has a (non-empty) '_context', without creating one if it does not.
+     *
+     * @return boolean
+     */
+    @JsonIgnore public boolean hasContext() { return this._context != null && !this._context.isEmpty(); }
+
+    /**
+     * Replace a full '_url' that ends with the '_id' by its (interned) prefix, from which it can be derived again.
+     */
+    private void compactUrl() {
+        if (this._url != null && this._id != null && !this._id.isEmpty()) {
+            int prefixLength = this._url.length() - this._id.length();
+            if (prefixLength > 0 && this._url.endsWith(this._id) && this._url.charAt(prefixLength - 1) == '/') {
+                this.urlPrefix = this._url.substring(0, prefixLength).intern();
+                this._url = null;
+            }
+        }
+    }
 
     @JsonIgnore public boolean isFullyRetrieved() { return this.fullyRetrieved; }
     @JsonIgnore public void setFullyRetrieved() { this.fullyRetrieved = true; }
@@ -133,16 +198,21 @@ public class Reference extends ObjectPrinter {
                                                     int pageSize,
                                                     IGCSearchSorting sorting) {
         Reference assetWithProperties = null;
-        IGCSearchCondition idOnly = new IGCSearchCondition("_id", "=", this._id);
-        IGCSearchConditionSet idOnlySet = new IGCSearchConditionSet(idOnly);
-        IGCSearch igcSearch = new IGCSearch(Reference.getAssetTypeForSearch(this.getType()), properties, idOnlySet);
-        if (pageSize > 0) {
-            igcSearch.setPageSize(pageSize);
-        }
-        if (sorting != null) {
-            igcSearch.addSortingCriteria(sorting);
-        }
-        ReferenceList assetsWithProperties = igcrest.search(igcSearch);
+        String searchType = Reference.getAssetTypeForSearch(this.getType());
+        String templateKey = "getAssetWithSubsetOfProperties|" + searchType + "|" + String.join(",", properties) + "|" + pageSize + "|" + (sorting == null ? "" : sorting.getSortObject().toString());
+        IGCSearchTemplate template = igcrest.getSearchTemplate(templateKey, () -> {
+            IGCSearchCondition idOnly = new IGCSearchCondition("_id", "=", IGCSearchTemplate.parameter(0));
+            IGCSearchConditionSet idOnlySet = new IGCSearchConditionSet(idOnly);
+            IGCSearch igcSearch = new IGCSearch(searchType, properties, idOnlySet);
+            if (pageSize > 0) {
+                igcSearch.setPageSize(pageSize);
+            }
+            if (sorting != null) {
+                igcSearch.addSortingCriteria(sorting);
+            }
+            return igcSearch;
+        });
+        ReferenceList assetsWithProperties = igcrest.search(template, this._id);
         if (!assetsWithProperties.getItems().isEmpty()) {
             assetWithProperties = assetsWithProperties.getItems().get(0);
         }
@@ -276,23 +346,27 @@ public class Reference extends ObjectPrinter {
         boolean success = true;
         // Only bother retrieving the context if it isn't already present
 
-        if (this._context.isEmpty()) {
+        if (!hasContext()) {
 
             boolean bHasModificationDetails = igcrest.hasModificationDetails(this.getType());
 
-            IGCSearchCondition idOnly = new IGCSearchCondition("_id", "=", this.getId());
-            IGCSearchConditionSet idOnlySet = new IGCSearchConditionSet(idOnly);
-            IGCSearch igcSearch = new IGCSearch(this.getType(), idOnlySet);
-            if (bHasModificationDetails) {
-                igcSearch.addProperties(IGCRestConstants.getModificationProperties());
-            }
-            igcSearch.setPageSize(2);
-            ReferenceList assetsWithCtx = igcrest.search(igcSearch);
+            String assetType = this.getType();
+            IGCSearchTemplate template = igcrest.getSearchTemplate("populateContext|" + assetType + "|" + bHasModificationDetails, () -> {
+                IGCSearchCondition idOnly = new IGCSearchCondition("_id", "=", IGCSearchTemplate.parameter(0));
+                IGCSearchConditionSet idOnlySet = new IGCSearchConditionSet(idOnly);
+                IGCSearch igcSearch = new IGCSearch(assetType, idOnlySet);
+                if (bHasModificationDetails) {
+                    igcSearch.addProperties(IGCRestConstants.getModificationProperties());
+                }
+                igcSearch.setPageSize(2);
+                return igcSearch;
+            });
+            ReferenceList assetsWithCtx = igcrest.search(template, this.getId());
             success = (!assetsWithCtx.getItems().isEmpty());
             if (success) {
 
                 Reference assetWithCtx = assetsWithCtx.getItems().get(0);
-                this._context = new ArrayList(assetWithCtx.getContext());
+                setContext(new ArrayList<>(assetWithCtx.getContext()));
 
                 if (bHasModificationDetails) {
                     igcrest.setPropertyByName(this, IGCRestConstants.MOD_CREATED_ON, igcrest.getPropertyByName(assetWithCtx, IGCRestConstants.MOD_CREATED_ON));
@@ -310,7 +384,8 @@ public class Reference extends ObjectPrinter {
     }
 
     /**
-     * Retrieves the semantic identity of the asset.
+     * Retrieves the semantic identity of the asset (and caches the RID and type of the asset against that identity
+     * in the connection's {@link org.odpi.egeria.connectors.ibm.igc.clientlibrary.IdentityCache}).
      *
      * @param igcrest a REST API connection to use in confirming the identity of the asset
      * @return Identity
@@ -318,7 +393,8 @@ public class Reference extends ObjectPrinter {
     public Identity getIdentity(IGCRestClient igcrest) {
         if (this.identity == null) {
             this.populateContext(igcrest);
-            this.identity = new Identity(this._context, this.getType(), this.getName(), this.getId());
+            this.identity = new Identity(this.getContext(), this.getType(), this.getName(), this.getId());
+            igcrest.getIdentityCache().put(this.identity, this.getContext());
         }
         return this.identity;
     }
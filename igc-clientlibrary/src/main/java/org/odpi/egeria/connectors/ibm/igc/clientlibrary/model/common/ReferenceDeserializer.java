@@ -0,0 +1,235 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerFactory;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Deserializes any {@link Reference} (including those within a {@link ReferenceList}) by resolving the POJO for its
+ * '_type' and then reading it through that POJO's {@link PojoStreamingReader}: avoiding the reflection-based bean
+ * deserializers, and (as IGC gives the '_type' first) any buffering of tokens to find the type. (An object for which
+ * the '_type' is not the first property is buffered until its '_type' is known.)
+ * <br><br>
+ * POJOs without a streaming reader of their own (eg. custom POJOs) are still deserialized by Jackson's bean
+ * deserializers. Until a streaming reader has been registered for at least one type, every object is deserialized
+ * entirely by Jackson's own handling of the {@code @JsonTypeInfo} of {@link Reference}, exactly as without this
+ * deserializer.
+ */
+public class ReferenceDeserializer extends StdDeserializer<Reference> {
+
+    private static final String TYPE_PROPERTY = "_type";
+
+    private static final PojoStreamingReader REFERENCE_READER = new PojoStreamingReader();
+
+    private final transient Function<String, Class> registeredPojos;
+    private final transient Map<String, Class> annotatedSubtypes;
+    private final transient ConcurrentHashMap<String, PojoStreamingReader> readersByType;
+    private transient volatile JsonDeserializer<Object> referenceBeanDeserializer;
+
+    /**
+     * Create a new deserializer that resolves POJOs through the provided lookup.
+     *
+     * @param registeredPojos lookup of the POJO registered for an IGC asset type (or null if none is registered)
+     */
+    public ReferenceDeserializer(Function<String, Class> registeredPojos) {
+        super(Reference.class);
+        this.registeredPojos = registeredPojos;
+        this.annotatedSubtypes = new HashMap<>();
+        addAnnotatedSubtypes(Reference.class);
+        this.readersByType = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Register the streaming reader to use for the provided IGC asset type.
+     *
+     * @param typeName the IGC asset type
+     * @param reader the streaming reader for the POJO registered for that type, or null if it has none
+     */
+    public void registerReader(String typeName, PojoStreamingReader reader) {
+        if (reader == null) {
+            readersByType.remove(typeName);
+        } else {
+            readersByType.put(typeName, reader);
+        }
+    }
+
+    /**
+     * Retrieve the streaming reader registered for the provided IGC asset type.
+     *
+     * @param typeName the IGC asset type
+     * @return PojoStreamingReader, or null if there is none
+     */
+    public PojoStreamingReader getReader(String typeName) {
+        return typeName == null ? null : readersByType.get(typeName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Reference deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+
+        if (readersByType.isEmpty()) {
+            return (Reference) getReferenceBeanDeserializer(ctxt).deserialize(p, ctxt);
+        }
+
+        JsonToken t = p.getCurrentToken();
+        if (t == JsonToken.START_OBJECT) {
+            t = p.nextToken();
+        }
+        if (t == JsonToken.FIELD_NAME && TYPE_PROPERTY.equals(p.getCurrentName())) {
+            p.nextToken();
+            String typeName = p.getValueAsString();
+            return readObject(typeName, p, ctxt);
+        }
+
+        // Otherwise buffer the rest of the object until its type is known, and then read it as if the type came first
+        TokenBuffer buffer = new TokenBuffer(p, ctxt);
+        buffer.writeStartObject();
+        String typeName = null;
+        for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+            String property = p.getCurrentName();
+            p.nextToken();
+            if (typeName == null && TYPE_PROPERTY.equals(property)) {
+                typeName = p.getValueAsString();
+                p.skipChildren();
+            } else {
+                buffer.writeFieldName(property);
+                buffer.copyCurrentStructure(p);
+            }
+        }
+        buffer.writeEndObject();
+        JsonParser buffered = buffer.asParser(p);
+        buffered.nextToken();
+        return readObject(typeName, buffered, ctxt);
+
+    }
+
+    /**
+     * Once any streaming reader has been registered, the type is always read from the object itself (see
+     * {@link #deserialize(JsonParser, DeserializationContext)}) rather than through Jackson's type handling.
+     */
+    @Override
+    public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer) throws IOException {
+        if (readersByType.isEmpty()) {
+            return typeDeserializer.deserializeTypedFromObject(p, ctxt);
+        }
+        return deserialize(p, ctxt);
+    }
+
+    /**
+     * Retrieve Jackson's own bean deserializer for {@link Reference} itself (which cannot be found through the context,
+     * as that would return this deserializer).
+     *
+     * @param ctxt the deserialization context
+     * @return {@code JsonDeserializer<Object>}
+     * @throws IOException on any error building the deserializer
+     */
+    private JsonDeserializer<Object> getReferenceBeanDeserializer(DeserializationContext ctxt) throws IOException {
+        JsonDeserializer<Object> deserializer = referenceBeanDeserializer;
+        if (deserializer == null) {
+            JavaType type = ctxt.constructType(Reference.class);
+            deserializer = BeanDeserializerFactory.instance.buildBeanDeserializer(ctxt, type, ctxt.getConfig().introspect(type));
+            if (deserializer instanceof ResolvableDeserializer) {
+                ((ResolvableDeserializer) deserializer).resolve(ctxt);
+            }
+            referenceBeanDeserializer = deserializer;
+        }
+        return deserializer;
+    }
+
+    /**
+     * Read the remainder of an object of the provided type, from the parser positioned just before the next property
+     * (ie. on the value of the type, or the start of the object).
+     *
+     * @param typeName the IGC asset type of the object
+     * @param p the parser
+     * @param ctxt the deserialization context
+     * @return Reference
+     * @throws IOException on any error reading the object
+     */
+    private Reference readObject(String typeName, JsonParser p, DeserializationContext ctxt) throws IOException {
+
+        PojoStreamingReader reader = getReader(typeName);
+        Class pojoClass = null;
+        if (reader == null && typeName != null) {
+            pojoClass = registeredPojos.apply(typeName);
+            if (pojoClass == null) {
+                pojoClass = annotatedSubtypes.get(typeName);
+            }
+        }
+        if (reader == null && pojoClass == null) {
+            reader = REFERENCE_READER;
+        }
+
+        Reference pojo;
+        if (reader != null) {
+            pojo = reader.newInstance();
+            pojo.setType(typeName);
+            pojo = readProperties(reader, pojo, p, ctxt);
+        } else {
+            // (The type has already been resolved, so the bean deserializer is used without any type handling)
+            JsonDeserializer<Object> deserializer = ctxt.findContextualValueDeserializer(ctxt.constructType(pojoClass), null);
+            p.nextToken();
+            pojo = (Reference) deserializer.deserialize(p, ctxt);
+            pojo.setType(typeName);
+        }
+        return pojo;
+
+    }
+
+    /**
+     * Read each of the remaining properties of an object through the provided streaming reader.
+     *
+     * @param reader the streaming reader for the object's POJO
+     * @param pojo the POJO into which to read the properties
+     * @param p the parser, positioned just before the next property
+     * @param ctxt the deserialization context
+     * @return Reference the POJO
+     * @throws IOException on any error reading the object
+     */
+    private Reference readProperties(PojoStreamingReader reader, Reference pojo, JsonParser p, DeserializationContext ctxt) throws IOException {
+        for (JsonToken t = p.nextToken(); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+            String property = p.getCurrentName();
+            p.nextToken();
+            if (!reader.readProperty(property, pojo, p, ctxt)) {
+                p.skipChildren();
+            }
+        }
+        return pojo;
+    }
+
+    /**
+     * Add all subtypes declared (directly or indirectly) through annotations on the provided POJO.
+     *
+     * @param pojoClass the POJO from which to add subtypes
+     */
+    private void addAnnotatedSubtypes(Class<?> pojoClass) {
+        JsonSubTypes subTypes = pojoClass.getAnnotation(JsonSubTypes.class);
+        if (subTypes != null) {
+            for (JsonSubTypes.Type subType : subTypes.value()) {
+                if (!annotatedSubtypes.containsKey(subType.name())) {
+                    annotatedSubtypes.put(subType.name(), subType.value());
+                    addAnnotatedSubtypes(subType.value());
+                }
+            }
+        }
+    }
+
+}
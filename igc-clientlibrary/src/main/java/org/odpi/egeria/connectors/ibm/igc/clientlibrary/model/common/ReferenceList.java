@@ -6,7 +6,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestClient;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.zip.CRC32;
 
 /**
  * Provides a standard class for any relationship in IGC, by including 'paging' details and 'items' array.
@@ -21,22 +23,38 @@ public class ReferenceList extends ObjectPrinter {
      * The 'paging' property of a ReferenceList gives the aspects related to paging (eg. number of items in the page,
      * total number for the relationship, etc).
      * <br><br>
-     * Will be a single {@link Paging} object.
+     * Will be a single {@link Paging} object (only created when first needed, if not given).
      */
-    protected Paging paging = new Paging();
+    protected Paging paging;
 
     /**
      * The 'items' property of a ReferenceList gives the actual items that are part of this particular page.
      * <br><br>
-     * Will be a ArrayList of {@link Reference} objects.
+     * Will be a ArrayList of {@link Reference} objects (only created when first needed, if not given, and otherwise
+     * trimmed to the number of items it holds).
      */
-    protected ArrayList<Reference> items = new ArrayList<>();
+    protected ArrayList<Reference> items;
 
-    /** @see #paging */ @JsonProperty("paging") public Paging getPaging() { return this.paging; }
+    /** @see #paging */ @JsonProperty("paging") public Paging getPaging() {
+        if (this.paging == null) {
+            this.paging = new Paging();
+        }
+        return this.paging;
+    }
     /** @see #paging */ @JsonProperty("paging") public void setPaging(Paging paging) { this.paging = paging; }
 
-    /** @see #items */ @JsonProperty("items") public ArrayList<Reference> getItems() { return this.items; }
-    /** @see #items */ @JsonProperty("items") public void setItems(ArrayList<Reference> items) { this.items = items; }
+    /** @see #items */ @JsonProperty("items") public ArrayList<Reference> getItems() {
+        if (this.items == null) {
+            this.items = new ArrayList<>();
+        }
+        return this.items;
+    }
+    /** @see #items */ @JsonProperty("items") public void setItems(ArrayList<Reference> items) {
+        if (items != null) {
+            items.trimToSize();
+        }
+        this.items = items;
+    }
 
     /**
      * Returns true iff there are more (unretrieved) pages for the relationships that this object represents.
@@ -44,7 +62,7 @@ public class ReferenceList extends ObjectPrinter {
      * @return Boolean
      */
     public Boolean hasMorePages() {
-        return (this.paging.hasMore());
+        return (getPaging().hasMore());
     }
 
     /**
@@ -53,17 +71,38 @@ public class ReferenceList extends ObjectPrinter {
      * @param igcrest the IGCRestClient connection to use to retrieve the relationships
      */
     public void getAllPages(IGCRestClient igcrest) {
-        this.items = new ArrayList(igcrest.getAllPages(this.items, this.paging));
+        this.items = new ArrayList(igcrest.getAllPages(getItems(), getPaging()));
         this.paging = new Paging(this.items.size());
     }
 
+    /**
+     * Calculate a checksum over the total number of relationships that this object represents and the Repository
+     * IDs (RIDs) of (up to) the first numItems of them. Comparing the checksum of the first page of a relationship
+     * against the same number of items from a previously fully-retrieved version of the relationship gives a cheap
+     * indication of whether the remaining pages need to be retrieved at all.
+     *
+     * @param numItems the number of items (from the start of the list) to include in the checksum
+     * @return long
+     */
+    public long getChecksum(int numItems) {
+        CRC32 checksum = new CRC32();
+        Integer numTotal = getPaging().getNumTotal();
+        checksum.update(String.valueOf(numTotal).getBytes(StandardCharsets.UTF_8));
+        int limit = Math.min(numItems, getItems().size());
+        for (int i = 0; i < limit; i++) {
+            checksum.update(',');
+            checksum.update(String.valueOf(this.items.get(i).getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return checksum.getValue();
+    }
+
     /**
      * Retrieve the next page of relationships that this object represents.
      *
      * @param igcrest the IGCRestClient connection to use to retrieve the relationships
      */
     public void getNextPage(IGCRestClient igcrest) {
-        ReferenceList nextPage = igcrest.getNextPage(this.paging);
+        ReferenceList nextPage = igcrest.getNextPage(getPaging());
         this.items = new ArrayList(nextPage.getItems());
         this.paging = nextPage.getPaging();
     }
@@ -0,0 +1,527 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.search;
+
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Plans a search by a (Java) regular expression that IGC cannot evaluate itself: the literal strings that any matching
+ * value must contain are pushed down to IGC as 'like' conditions (to prune the results as far as possible), and the
+ * regular expression itself is then applied to the (far fewer) results that IGC returns.
+ * <br><br>
+ * For example, the regular expression {@code "CUST_[0-9]+_ADDR.*"} can only match values that start with
+ * {@code "CUST_"} and contain {@code "_ADDR"}, so only values that are {@code like 'CUST_%'} and
+ * {@code like '%_ADDR%'} need to be retrieved from IGC to then be matched against the regular expression.
+ * <br><br>
+ * The analysis is deliberately conservative: any construct it does not understand (eg. alternation, or embedded
+ * flags that change how literals are matched) simply contributes no literals, so the conditions pushed down to IGC
+ * are only ever a superset of the values the regular expression matches.
+ */
+public class IGCRegexSearchPlan {
+
+    /**
+     * The maximum number of literals to push down to IGC as conditions (the longest are used).
+     */
+    private static final int MAX_PUSHED_LITERALS = 3;
+
+    /**
+     * The minimum length of a literal that can appear anywhere in a value for it to be worth pushing down to IGC.
+     */
+    private static final int MIN_CONTAINED_LENGTH = 2;
+
+    private static final Comparator<Literal> LONGEST_FIRST = Comparator.comparingInt((Literal literal) -> literal.text.length()).reversed();
+
+    private final String regex;
+    private final Pattern pattern;
+    private final List<Literal> literals;
+
+    /**
+     * A literal string that any matching value must contain, and whether it must appear at the start or end of the
+     * value.
+     */
+    private static final class Literal {
+
+        private final String text;
+        private final boolean atStart;
+        private final boolean atEnd;
+
+        Literal(String text, boolean atStart, boolean atEnd) {
+            this.text = text;
+            this.atStart = atStart;
+            this.atEnd = atEnd;
+        }
+
+    }
+
+    /**
+     * The literals found within a sequence of a regular expression.
+     */
+    private static final class Analysis {
+
+        private final List<Literal> literals = new ArrayList<>();
+        private boolean pureLiteral = true;
+
+        Literal getPrefix() {
+            return (!literals.isEmpty() && literals.get(0).atStart) ? literals.get(0) : null;
+        }
+
+        static Analysis none() {
+            Analysis none = new Analysis();
+            none.pureLiteral = false;
+            return none;
+        }
+
+    }
+
+    /**
+     * Thrown internally when the regular expression uses a construct that prevents any literals from being trusted.
+     */
+    private static final class UnsupportedConstruct extends Exception {
+        UnsupportedConstruct() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Plan a search by the provided regular expression.
+     *
+     * @param regex the regular expression that values must (fully) match
+     * @throws PatternSyntaxException if the regular expression is not valid
+     */
+    public IGCRegexSearchPlan(String regex) {
+        this.regex = regex;
+        this.pattern = Pattern.compile(regex);
+        Analysis analysis;
+        try {
+            analysis = analyse(regex, 0, regex.length());
+        } catch (UnsupportedConstruct | RuntimeException e) {
+            // Anything that cannot be analysed is simply evaluated (in full) against the results
+            analysis = Analysis.none();
+        }
+        this.literals = analysis.literals;
+    }
+
+    /**
+     * Retrieve the regular expression being searched.
+     *
+     * @return String
+     */
+    public String getRegex() { return regex; }
+
+    /**
+     * Retrieve the literal strings that any value matching the regular expression must contain, longest first.
+     *
+     * @return {@code List<String>}
+     */
+    public List<String> getRequiredLiterals() {
+        List<Literal> sorted = new ArrayList<>(literals);
+        sorted.sort(LONGEST_FIRST);
+        List<String> required = new ArrayList<>(sorted.size());
+        for (Literal literal : sorted) {
+            required.add(literal.text);
+        }
+        return required;
+    }
+
+    /**
+     * Retrieve the conditions to push down to IGC for the provided property: these are only the conditions that every
+     * value matching the regular expression must meet, so the results must still be checked using
+     * {@link #matches(Object)}. If nothing can be pushed down, the set of conditions will be empty.
+     *
+     * @param property the IGC property to be searched
+     * @return IGCSearchConditionSet - the conditions, all of which must match
+     */
+    public IGCSearchConditionSet getSearchConditions(String property) {
+        IGCSearchConditionSet conditions = new IGCSearchConditionSet();
+        List<Literal> sorted = new ArrayList<>(literals);
+        sorted.sort(LONGEST_FIRST);
+        int pushed = 0;
+        for (Literal literal : sorted) {
+            if (pushed >= MAX_PUSHED_LITERALS) {
+                break;
+            }
+            if (literal.atStart && literal.atEnd) {
+                conditions.addCondition(new IGCSearchCondition(property, "=", literal.text));
+            } else if (literal.atStart) {
+                conditions.addCondition(new IGCSearchCondition(property, "like {0}%", literal.text));
+            } else if (literal.atEnd) {
+                conditions.addCondition(new IGCSearchCondition(property, "like %{0}", literal.text));
+            } else if (literal.text.length() >= MIN_CONTAINED_LENGTH) {
+                conditions.addCondition(new IGCSearchCondition(property, "like %{0}%", literal.text));
+            } else {
+                continue;
+            }
+            pushed++;
+        }
+        return conditions;
+    }
+
+    /**
+     * Indicates whether the provided value of a property (fully) matches the regular expression. References are
+     * matched by their name, and collections match if any of their values matches.
+     *
+     * @param value the value of the property
+     * @return boolean
+     */
+    public boolean matches(Object value) {
+        if (value == null) {
+            return false;
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (matches(item)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String candidate = (value instanceof Reference) ? ((Reference) value).getName() : value.toString();
+        return candidate != null && pattern.matcher(candidate).matches();
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+
+    /**
+     * Find the literals within the provided sequence of the regular expression (ie. between the start and end, which
+     * must not include any unbalanced group).
+     *
+     * @param re the regular expression
+     * @param start the index of the start of the sequence
+     * @param end the index of the end of the sequence (exclusive)
+     * @return Analysis
+     * @throws UnsupportedConstruct if no literals in the regular expression can be trusted
+     */
+    private static Analysis analyse(String re, int start, int end) throws UnsupportedConstruct {
+
+        Analysis analysis = new Analysis();
+        StringBuilder run = new StringBuilder();
+        boolean runAtStart = true;
+        int i = start;
+        if (i < end && re.charAt(i) == '^') {
+            i++;
+        }
+
+        while (i < end) {
+
+            char c = re.charAt(i);
+            if (c == '|') {
+                // Any literal found could be in only one of the alternatives
+                return Analysis.none();
+            } else if (c == '$' && i == end - 1) {
+                i++;
+            } else if (c == '\\' && i + 1 < end && re.charAt(i + 1) == 'Q') {
+                int close = re.indexOf("\\E", i + 2);
+                int quoteEnd = (close < 0 || close > end) ? end : close;
+                int next = (close < 0 || close > end) ? end : close + 2;
+                String quoted = re.substring(i + 2, quoteEnd);
+                if (!quoted.isEmpty()) {
+                    // Any quantifier applies only to the last character of the quoted text
+                    int last = quoted.offsetByCodePoints(quoted.length(), -1);
+                    run.append(quoted, 0, last);
+                    int[] quantifier = readQuantifier(re, next, end);
+                    runAtStart = addLiteral(analysis, run, runAtStart, quoted.substring(last), quantifier);
+                    next = quantifier == null ? next : quantifier[1];
+                }
+                i = next;
+            } else if (c == '\\') {
+                int[] escape = readEscape(re, i, end);
+                int[] quantifier = readQuantifier(re, escape[1], end);
+                if (escape[0] >= 0) {
+                    runAtStart = addLiteral(analysis, run, runAtStart, new String(Character.toChars(escape[0])), quantifier);
+                } else {
+                    runAtStart = addBreak(analysis, run, runAtStart);
+                }
+                i = quantifier == null ? escape[1] : quantifier[1];
+            } else if (c == '[') {
+                int next = skipClass(re, i, end);
+                int[] quantifier = readQuantifier(re, next, end);
+                runAtStart = addBreak(analysis, run, runAtStart);
+                i = quantifier == null ? next : quantifier[1];
+            } else if (c == '(') {
+                int close = findGroupEnd(re, i, end);
+                int[] quantifier = readQuantifier(re, close + 1, end);
+                Analysis group = analyseGroup(re, i, close);
+                boolean required = quantifier == null || quantifier[0] > 0;
+                if (group != null && required && group.pureLiteral && quantifier == null) {
+                    // A group of only literals (and no quantifier) simply continues the current run
+                    for (Literal literal : group.literals) {
+                        run.append(literal.text);
+                    }
+                } else {
+                    boolean groupAtStart = runAtStart && run.length() == 0;
+                    addBreak(analysis, run, runAtStart);
+                    if (group != null && required) {
+                        Literal prefix = group.getPrefix();
+                        for (Literal literal : group.literals) {
+                            if (!literal.text.isEmpty()) {
+                                analysis.literals.add(new Literal(literal.text, groupAtStart && literal == prefix, false));
+                            }
+                        }
+                    }
+                    runAtStart = false;
+                }
+                i = quantifier == null ? close + 1 : quantifier[1];
+            } else if (c == '.' || c == '^' || c == '$') {
+                int[] quantifier = readQuantifier(re, i + 1, end);
+                runAtStart = addBreak(analysis, run, runAtStart);
+                i = quantifier == null ? i + 1 : quantifier[1];
+            } else if (c == '*' || c == '+' || c == '?' || c == '{') {
+                // A quantifier that does not follow anything that could be a literal
+                throw new UnsupportedConstruct();
+            } else {
+                int codePoint = re.codePointAt(i);
+                int next = i + Character.charCount(codePoint);
+                int[] quantifier = readQuantifier(re, next, end);
+                runAtStart = addLiteral(analysis, run, runAtStart, new String(Character.toChars(codePoint)), quantifier);
+                i = quantifier == null ? next : quantifier[1];
+            }
+
+        }
+
+        // Whatever run remains reaches the end of the sequence
+        if (run.length() > 0) {
+            analysis.literals.add(new Literal(run.toString(), runAtStart, true));
+        }
+        if (analysis.pureLiteral && analysis.literals.isEmpty()) {
+            analysis.literals.add(new Literal("", true, true));
+        }
+        return analysis;
+
+    }
+
+    /**
+     * Analyse the group starting at the provided index.
+     *
+     * @param re the regular expression
+     * @param open the index of the opening parenthesis of the group
+     * @param close the index of the closing parenthesis of the group
+     * @return Analysis of the group's contents, or null if the group does not consume any of the value (lookaround)
+     * @throws UnsupportedConstruct if the group sets flags that change how literals are matched
+     */
+    private static Analysis analyseGroup(String re, int open, int close) throws UnsupportedConstruct {
+        int contentStart = open + 1;
+        if (contentStart < close && re.charAt(contentStart) == '?') {
+            char kind = contentStart + 1 < close ? re.charAt(contentStart + 1) : ')';
+            if (kind == ':' || kind == '>') {
+                contentStart += 2;
+            } else if (kind == '=' || kind == '!') {
+                return null;
+            } else if (kind == '<') {
+                char next = contentStart + 2 < close ? re.charAt(contentStart + 2) : ')';
+                if (next == '=' || next == '!') {
+                    return null;
+                }
+                contentStart = re.indexOf('>', contentStart) + 1;
+            } else {
+                // Embedded flags (eg. case-insensitivity, or comments) change the meaning of any literal
+                throw new UnsupportedConstruct();
+            }
+        }
+        return analyse(re, contentStart, close);
+    }
+
+    /**
+     * Add a literal character (or string) to the current run of literals, taking account of any quantifier on it.
+     *
+     * @return boolean - whether the next run (if any) would be at the start of the sequence
+     */
+    private static boolean addLiteral(Analysis analysis, StringBuilder run, boolean runAtStart, String literal, int[] quantifier) {
+        if (quantifier == null) {
+            run.append(literal);
+            return runAtStart;
+        }
+        analysis.pureLiteral = false;
+        if (quantifier[0] > 0) {
+            // The literal must appear (at least once), but whatever follows need not directly follow it
+            run.append(literal);
+        }
+        if (run.length() > 0) {
+            analysis.literals.add(new Literal(run.toString(), runAtStart, false));
+            run.setLength(0);
+        }
+        return false;
+    }
+
+    /**
+     * End the current run of literals, as something other than a literal has been found.
+     *
+     * @return boolean - whether the next run (if any) would be at the start of the sequence (always false)
+     */
+    private static boolean addBreak(Analysis analysis, StringBuilder run, boolean runAtStart) {
+        analysis.pureLiteral = false;
+        if (run.length() > 0) {
+            analysis.literals.add(new Literal(run.toString(), runAtStart, false));
+            run.setLength(0);
+        }
+        return false;
+    }
+
+    /**
+     * Read the quantifier (if any) at the provided index.
+     *
+     * @return int[] - the minimum number of repetitions and the index following the quantifier, or null if there is
+     * no quantifier at the index
+     */
+    private static int[] readQuantifier(String re, int i, int end) {
+        if (i >= end) {
+            return null;
+        }
+        int min;
+        int next;
+        char c = re.charAt(i);
+        if (c == '*' || c == '?') {
+            min = 0;
+            next = i + 1;
+        } else if (c == '+') {
+            min = 1;
+            next = i + 1;
+        } else if (c == '{') {
+            int close = re.indexOf('}', i);
+            String bounds = re.substring(i + 1, close);
+            int comma = bounds.indexOf(',');
+            min = Integer.parseInt((comma < 0 ? bounds : bounds.substring(0, comma)).trim());
+            next = close + 1;
+        } else {
+            return null;
+        }
+        // Skip any reluctant or possessive modifier
+        if (next < end && (re.charAt(next) == '?' || re.charAt(next) == '+')) {
+            next++;
+        }
+        return new int[] { min, next };
+    }
+
+    /**
+     * Read the escape sequence at the provided index.
+     *
+     * @return int[] - the literal character the escape represents (or -1 if it does not represent a single literal
+     * character) and the index following the escape
+     */
+    private static int[] readEscape(String re, int i, int end) {
+        char c = re.charAt(i + 1);
+        int next = i + 2;
+        switch (c) {
+            case 't': return new int[] { '\t', next };
+            case 'n': return new int[] { '\n', next };
+            case 'r': return new int[] { '\r', next };
+            case 'f': return new int[] { '\f', next };
+            case 'a': return new int[] { '\u0007', next };
+            case 'e': return new int[] { '\u001B', next };
+            case 'x':
+                if (next < end && re.charAt(next) == '{') {
+                    int close = re.indexOf('}', next);
+                    return new int[] { Integer.parseInt(re.substring(next + 1, close), 16), close + 1 };
+                }
+                return new int[] { Integer.parseInt(re.substring(next, next + 2), 16), next + 2 };
+            case 'u':
+                return new int[] { Integer.parseInt(re.substring(next, next + 4), 16), next + 4 };
+            case 'c':
+                return new int[] { -1, next + 1 };
+            case 'p':
+            case 'P':
+                if (next < end && re.charAt(next) == '{') {
+                    return new int[] { -1, re.indexOf('}', next) + 1 };
+                }
+                // (Only a single-letter property class consumes the character following the escape)
+                return new int[] { -1, next + 1 };
+            case 'b':
+            case 'N':
+                if (next < end && re.charAt(next) == '{') {
+                    return new int[] { -1, re.indexOf('}', next) + 1 };
+                }
+                return new int[] { -1, next };
+            case 'k':
+                return new int[] { -1, re.indexOf('>', next) + 1 };
+            default:
+                if (c >= '0' && c <= '9') {
+                    // Octal values and back-references: simply skip all of the digits
+                    while (next < end && Character.isDigit(re.charAt(next))) {
+                        next++;
+                    }
+                    return new int[] { -1, next };
+                } else if (Character.isLetter(c)) {
+                    // Character classes (\d, \w, etc) and boundaries (\b, \A, etc)
+                    return new int[] { -1, next };
+                }
+                // Any other escaped character is simply that character
+                int codePoint = re.codePointAt(i + 1);
+                return new int[] { codePoint, i + 1 + Character.charCount(codePoint) };
+        }
+    }
+
+    /**
+     * Find the index following the character class starting at the provided index.
+     */
+    private static int skipClass(String re, int open, int end) {
+        int depth = 0;
+        int i = open;
+        while (i < end) {
+            char c = re.charAt(i);
+            if (c == '\\' && i + 1 < end && re.charAt(i + 1) == 'Q') {
+                int close = re.indexOf("\\E", i + 2);
+                i = close < 0 ? end : close + 2;
+                continue;
+            } else if (c == '\\') {
+                i += 2;
+                continue;
+            } else if (c == '[') {
+                depth++;
+                // A ']' immediately after the opening (or its negation) is part of the class
+                if (i + 1 < end && re.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < end && re.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return end;
+    }
+
+    /**
+     * Find the index of the parenthesis that closes the group starting at the provided index.
+     */
+    private static int findGroupEnd(String re, int open, int end) {
+        int depth = 0;
+        int i = open;
+        while (i < end) {
+            char c = re.charAt(i);
+            if (c == '\\' && i + 1 < end && re.charAt(i + 1) == 'Q') {
+                int close = re.indexOf("\\E", i + 2);
+                i = close < 0 ? end : close + 2;
+                continue;
+            } else if (c == '\\') {
+                i += 2;
+                continue;
+            } else if (c == '[') {
+                i = skipClass(re, i, end);
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+            i++;
+        }
+        return end - 1;
+    }
+
+}
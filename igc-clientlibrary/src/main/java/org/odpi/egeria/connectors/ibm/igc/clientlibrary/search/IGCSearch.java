@@ -143,6 +143,17 @@ public class IGCSearch {
         this.devGlossary = on;
     }
 
+    /**
+     * Indicates whether the conditions of this search can never match any asset (for example, because they require
+     * an asset to have two different RIDs), so that there is no need to run the search at all.
+     *
+     * @return boolean
+     */
+    public boolean cannotMatch() {
+        return conditions != null && conditions.size() > 0
+                && IGCSearchConditionOptimizer.optimize(conditions.getConditionSetObject()) == IGCSearchConditionOptimizer.Result.NEVER;
+    }
+
     /**
      * Retrieves the query string for this search object.
      *
@@ -158,7 +169,14 @@ public class IGCSearch {
             query.set("pageSize", nf.numberNode(pageSize));
         }
         if (conditions != null && conditions.size() > 0) {
-            query.set("where", conditions.getConditionSetObject());
+            // Send the normalised conditions (or none at all, if they would match everything); conditions that can
+            // never match are sent as given (see cannotMatch)
+            IGCSearchConditionOptimizer.Result where = IGCSearchConditionOptimizer.optimize(conditions.getConditionSetObject());
+            if (where.getConditionSet() != null) {
+                query.set("where", where.getConditionSet());
+            } else if (where == IGCSearchConditionOptimizer.Result.NEVER) {
+                query.set("where", conditions.getConditionSetObject());
+            }
         }
         if (sortings != null && !sortings.isEmpty()) {
             ArrayNode anSorts = nf.arrayNode();
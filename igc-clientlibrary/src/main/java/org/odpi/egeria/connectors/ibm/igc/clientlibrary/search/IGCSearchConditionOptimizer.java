@@ -0,0 +1,314 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Normalises the (JSON) conditions of a search before it is sent to IGC, so that IGC has a simpler query to run:
+ * <ul>
+ *     <li>nested sets that add nothing (a single condition, or the same operator as the set that contains them) are
+ *          flattened into the set that contains them;</li>
+ *     <li>duplicate conditions are removed;</li>
+ *     <li>equality conditions OR'd together against the same property are merged into a single 'in' condition;</li>
+ *     <li>conditions that can never match (or always match) are removed, as are any sets they decide; and</li>
+ *     <li>the conditions AND'd together are ordered with the most selective (eg. by RID, or by equality) first.</li>
+ * </ul>
+ * The conditions are never modified in place: the normalised conditions are built as new JSON objects.
+ */
+final class IGCSearchConditionOptimizer {
+
+    private static final JsonNodeFactory nf = JsonNodeFactory.instance;
+
+    private static final String CONDITIONS = "conditions";
+    private static final String OPERATOR = "operator";
+    private static final String NEGATED = "negated";
+    private static final String PROPERTY = "property";
+    private static final String VALUE = "value";
+
+    private static final String AND = "and";
+    private static final String OR = "or";
+    private static final String EQUALS = "=";
+    private static final String IN = "in";
+    private static final String RID = "_id";
+
+    private static final Comparator<JsonNode> MOST_SELECTIVE_FIRST = Comparator.comparingInt(IGCSearchConditionOptimizer::getSelectivityRank);
+
+    /**
+     * The outcome of normalising a set of conditions: either conditions that still need to be evaluated by IGC, or
+     * the knowledge that they would always (or never) match.
+     */
+    static final class Result {
+
+        static final Result ALWAYS = new Result(null);
+        static final Result NEVER = new Result(null);
+
+        private final ObjectNode conditionSet;
+
+        private Result(ObjectNode conditionSet) {
+            this.conditionSet = conditionSet;
+        }
+
+        /**
+         * Retrieve the normalised set of conditions.
+         *
+         * @return ObjectNode, or null if the conditions would always (or never) match
+         */
+        ObjectNode getConditionSet() { return conditionSet; }
+
+    }
+
+    private IGCSearchConditionOptimizer() {
+        // Only static methods
+    }
+
+    /**
+     * Normalise the provided set of conditions.
+     *
+     * @param conditionSet the JSON set of conditions (as given by {@link IGCSearchConditionSet#getConditionSetObject()})
+     * @return Result
+     */
+    static Result optimize(ObjectNode conditionSet) {
+
+        JsonNode conditions = conditionSet.path(CONDITIONS);
+        boolean negated = conditionSet.path(NEGATED).asBoolean(false);
+        boolean matchAny = OR.equals(conditionSet.path(OPERATOR).asText(AND));
+        if (conditions.size() == 0) {
+            // A set without any conditions places no limit on the search -- unless it is negated, in which case it
+            // is left for IGC to interpret
+            return negated ? new Result(conditionSet) : Result.ALWAYS;
+        }
+
+        // Normalise each condition first, deciding the set as soon as any condition decides it
+        List<JsonNode> remaining = new ArrayList<>();
+        for (JsonNode condition : conditions) {
+            Result outcome = isSet(condition) ? optimize((ObjectNode) condition) : optimizeCondition(condition);
+            if (outcome == Result.ALWAYS) {
+                if (matchAny) {
+                    return negate(Result.ALWAYS, negated);
+                }
+            } else if (outcome == Result.NEVER) {
+                if (!matchAny) {
+                    return negate(Result.NEVER, negated);
+                }
+            } else {
+                addFlattened(remaining, outcome.getConditionSet() == null ? condition : outcome.getConditionSet(), matchAny);
+            }
+        }
+
+        // Then remove duplicates, and merge (or check) equalities against the same property
+        List<JsonNode> distinct = new ArrayList<>(new LinkedHashSet<>(remaining));
+        if (matchAny) {
+            distinct = mergeEqualities(distinct);
+        } else {
+            if (hasConflictingRIDs(distinct)) {
+                return negate(Result.NEVER, negated);
+            }
+            distinct.sort(MOST_SELECTIVE_FIRST);
+        }
+
+        if (distinct.isEmpty()) {
+            return negate(matchAny ? Result.NEVER : Result.ALWAYS, negated);
+        } else if (distinct.size() == 1 && isSet(distinct.get(0)) && !distinct.get(0).path(NEGATED).asBoolean(false)) {
+            // A set with only a single (plain) set within it is simply that set
+            ObjectNode inner = (ObjectNode) distinct.get(0);
+            return negate(new Result(inner), negated);
+        }
+
+        ObjectNode optimized = nf.objectNode();
+        ArrayNode optimizedConditions = nf.arrayNode();
+        optimizedConditions.addAll(distinct);
+        optimized.set(CONDITIONS, optimizedConditions);
+        optimized.set(OPERATOR, nf.textNode(matchAny ? OR : AND));
+        return negate(new Result(optimized), negated);
+
+    }
+
+    /**
+     * Normalise a single (leaf) condition.
+     *
+     * @param condition the JSON condition
+     * @return Result - whose condition set is null if the condition itself should be used as-is
+     */
+    private static Result optimizeCondition(JsonNode condition) {
+        JsonNode value = condition.path(VALUE);
+        if (IN.equals(condition.path(OPERATOR).asText()) && value.isArray() && value.size() == 0) {
+            // Nothing can be in an empty list
+            return negate(Result.NEVER, condition.path(NEGATED).asBoolean(false));
+        }
+        return new Result(null);
+    }
+
+    /**
+     * Add the provided (normalised) condition to the list of conditions for a set, flattening it into that list if it
+     * is itself a set that adds nothing.
+     *
+     * @param conditions the list of conditions for the set
+     * @param condition the condition to add
+     * @param matchAny whether the set matches any (true) or all (false) of its conditions
+     */
+    private static void addFlattened(List<JsonNode> conditions, JsonNode condition, boolean matchAny) {
+        if (isSet(condition) && !condition.path(NEGATED).asBoolean(false)) {
+            JsonNode inner = condition.path(CONDITIONS);
+            boolean innerMatchAny = OR.equals(condition.path(OPERATOR).asText(AND));
+            if (inner.size() == 1 || innerMatchAny == matchAny) {
+                for (JsonNode innerCondition : inner) {
+                    conditions.add(innerCondition);
+                }
+                return;
+            }
+        }
+        conditions.add(condition);
+    }
+
+    /**
+     * Merge all (non-negated) equality and 'in' conditions against the same property into a single 'in' condition.
+     *
+     * @param conditions the conditions of a set that matches any of its conditions
+     * @return {@code List<JsonNode>} the merged conditions
+     */
+    private static List<JsonNode> mergeEqualities(List<JsonNode> conditions) {
+
+        Map<String, Integer> countByProperty = new LinkedHashMap<>();
+        for (JsonNode condition : conditions) {
+            if (isMergeableEquality(condition)) {
+                countByProperty.merge(condition.path(PROPERTY).asText(), 1, Integer::sum);
+            }
+        }
+
+        Map<String, Set<JsonNode>> valuesByProperty = new LinkedHashMap<>();
+        Map<String, ObjectNode> inByProperty = new LinkedHashMap<>();
+        List<JsonNode> merged = new ArrayList<>();
+        for (JsonNode condition : conditions) {
+            String property = condition.path(PROPERTY).asText();
+            if (isMergeableEquality(condition) && countByProperty.get(property) > 1) {
+                if (!inByProperty.containsKey(property)) {
+                    // Keep the merged condition at the position of the first condition against the property
+                    ObjectNode in = nf.objectNode();
+                    in.put(PROPERTY, property);
+                    in.put(OPERATOR, IN);
+                    inByProperty.put(property, in);
+                    valuesByProperty.put(property, new LinkedHashSet<>());
+                    merged.add(in);
+                }
+                JsonNode value = condition.path(VALUE);
+                if (value.isArray()) {
+                    for (JsonNode each : value) {
+                        valuesByProperty.get(property).add(each);
+                    }
+                } else {
+                    valuesByProperty.get(property).add(value);
+                }
+            } else {
+                merged.add(condition);
+            }
+        }
+        for (Map.Entry<String, ObjectNode> entry : inByProperty.entrySet()) {
+            entry.getValue().putArray(VALUE).addAll(valuesByProperty.get(entry.getKey()));
+        }
+        return merged;
+
+    }
+
+    /**
+     * Indicates whether the provided conditions (all of which must match) require an asset to have more than one RID.
+     *
+     * @param conditions the conditions of a set that matches all of its conditions
+     * @return boolean
+     */
+    private static boolean hasConflictingRIDs(List<JsonNode> conditions) {
+        JsonNode rid = null;
+        for (JsonNode condition : conditions) {
+            if (!isSet(condition) && RID.equals(condition.path(PROPERTY).asText())
+                    && EQUALS.equals(condition.path(OPERATOR).asText())
+                    && !condition.path(NEGATED).asBoolean(false)
+                    && condition.path(VALUE).isTextual()
+                    && !IGCSearchTemplate.isParameter(condition.path(VALUE).asText())) {
+                if (rid == null) {
+                    rid = condition.path(VALUE);
+                } else if (!rid.equals(condition.path(VALUE))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMergeableEquality(JsonNode condition) {
+        if (isSet(condition) || condition.path(NEGATED).asBoolean(false)) {
+            return false;
+        }
+        String operator = condition.path(OPERATOR).asText();
+        JsonNode value = condition.path(VALUE);
+        return (EQUALS.equals(operator) && value.isTextual()) || (IN.equals(operator) && value.isArray());
+    }
+
+    /**
+     * Rank a condition by how selective it is likely to be (lower is more selective).
+     *
+     * @param condition the condition to rank
+     * @return int
+     */
+    private static int getSelectivityRank(JsonNode condition) {
+        if (isSet(condition)) {
+            return 8;
+        } else if (condition.path(NEGATED).asBoolean(false)) {
+            return 7;
+        }
+        String operator = condition.path(OPERATOR).asText();
+        boolean byRid = RID.equals(condition.path(PROPERTY).asText());
+        switch (operator) {
+            case EQUALS:
+                return byRid ? 0 : 1;
+            case IN:
+                return byRid ? 0 : 2;
+            case "like {0}%":
+                return 3;
+            case "<":
+            case "<=":
+            case ">":
+            case ">=":
+                return 4;
+            case "isNull":
+                return 6;
+            default:
+                return 5;
+        }
+    }
+
+    private static boolean isSet(JsonNode condition) {
+        return !condition.has(PROPERTY);
+    }
+
+    private static Result negate(Result result, boolean negated) {
+        if (!negated) {
+            return result;
+        } else if (result == Result.ALWAYS) {
+            return Result.NEVER;
+        } else if (result == Result.NEVER) {
+            return Result.ALWAYS;
+        }
+        ObjectNode conditionSet = result.getConditionSet();
+        if (conditionSet.path(NEGATED).asBoolean(false)) {
+            // Negating a negated set gives back the set itself
+            ObjectNode positive = conditionSet.deepCopy();
+            positive.remove(NEGATED);
+            return new Result(positive);
+        }
+        ObjectNode negatedSet = conditionSet.deepCopy();
+        negatedSet.set(NEGATED, nf.booleanNode(true));
+        return new Result(negatedSet);
+    }
+
+}
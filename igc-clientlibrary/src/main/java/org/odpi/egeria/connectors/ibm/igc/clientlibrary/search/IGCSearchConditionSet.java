@@ -6,9 +6,19 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * Manages the composition of multiple {@link IGCSearchCondition} objects into a coherent set of conditions,
  * including how those conditions should be combined (ie. whether AND'd or OR'd).
+ * <br><br>
+ * A set can also include regular expression conditions (see {@link #addRegexCondition(String, IGCRegexSearchPlan)}),
+ * which IGC can only partially evaluate: these must then also be checked against each result, using
+ * {@link #matchesRegexConditions(Function)}.
  */
 public class IGCSearchConditionSet {
 
@@ -18,8 +28,17 @@ public class IGCSearchConditionSet {
     private String conditionJoin = "and";
     private boolean negateAll = false;
 
+    // The regular expression, if this set holds only the conditions pushed down to IGC for that regular expression
+    private String regexProperty = null;
+    private IGCRegexSearchPlan regexPlan = null;
+
+    // Those conditions within this set that involve a regular expression, and the number of those that do not
+    private List<IGCSearchConditionSet> regexConditions;
+    private int otherConditions = 0;
+
     public IGCSearchConditionSet() {
         this.conditions = nf.arrayNode();
+        this.regexConditions = new ArrayList<>();
     }
 
     /**
@@ -39,6 +58,24 @@ public class IGCSearchConditionSet {
      */
     public void addCondition(IGCSearchCondition condition) {
         this.conditions.add(condition.getConditionObject());
+        this.otherConditions++;
+    }
+
+    /**
+     * Adds a condition that the provided property must (fully) match the provided regular expression. Only the
+     * conditions that can be derived from the regular expression's literals are sent to IGC, so the results of the
+     * search must also be checked using {@link #matchesRegexConditions(Function)}.
+     *
+     * @param property the IGC property that must match the regular expression
+     * @param regexPlan the plan for the regular expression
+     */
+    public void addRegexCondition(String property, IGCRegexSearchPlan regexPlan) {
+        IGCSearchConditionSet pushedDown = regexPlan.getSearchConditions(property);
+        pushedDown.regexProperty = property;
+        pushedDown.regexPlan = regexPlan;
+        // (A set without any conditions places no limit on the search)
+        this.conditions.add(pushedDown.getConditionSetObject());
+        this.regexConditions.add(pushedDown);
     }
 
     /**
@@ -64,6 +101,11 @@ public class IGCSearchConditionSet {
      */
     public void addNestedConditionSet(IGCSearchConditionSet igcConditions) {
         this.conditions.add(igcConditions.getConditionSetObject());
+        if (igcConditions.hasRegexConditions()) {
+            this.regexConditions.add(igcConditions.copy());
+        } else {
+            this.otherConditions++;
+        }
     }
 
     /**
@@ -75,6 +117,108 @@ public class IGCSearchConditionSet {
         return this.conditions.size();
     }
 
+    /**
+     * Indicates whether this set (or any set nested within it) includes regular expression conditions.
+     *
+     * @return boolean
+     */
+    public boolean hasRegexConditions() {
+        return regexPlan != null || !regexConditions.isEmpty();
+    }
+
+    /**
+     * Indicates whether the regular expression conditions of this set can be checked against the results of the
+     * search alone. This is not possible when a regular expression is negated, or is only one alternative among
+     * conditions that IGC evaluates (as it is then unknown which of the alternatives each result matched).
+     *
+     * @return boolean
+     */
+    public boolean canMatchRegexConditionsLocally() {
+        if (regexPlan != null || regexConditions.isEmpty()) {
+            return true;
+        } else if (negateAll || (conditionJoin.equals("or") && otherConditions > 0)) {
+            return false;
+        }
+        for (IGCSearchConditionSet regexCondition : regexConditions) {
+            if (!regexCondition.canMatchRegexConditionsLocally()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indicates whether a result of the search matches the regular expression conditions of this set. (Only valid
+     * when {@link #canMatchRegexConditionsLocally()}.)
+     *
+     * @param valueOf the function to retrieve the value of a property from the result
+     * @return boolean
+     */
+    public boolean matchesRegexConditions(Function<String, Object> valueOf) {
+        if (regexPlan != null) {
+            return regexPlan.matches(valueOf.apply(regexProperty));
+        } else if (regexConditions.isEmpty()) {
+            return true;
+        }
+        boolean matchAny = conditionJoin.equals("or");
+        for (IGCSearchConditionSet regexCondition : regexConditions) {
+            if (regexCondition.matchesRegexConditions(valueOf) == matchAny) {
+                return matchAny;
+            }
+        }
+        return !matchAny;
+    }
+
+    /**
+     * Returns the properties that must be retrieved by the search to check its results against the regular
+     * expression conditions of this set.
+     *
+     * @return {@code List<String>}
+     */
+    public List<String> getRegexProperties() {
+        Set<String> properties = new LinkedHashSet<>();
+        if (regexProperty != null) {
+            properties.add(regexProperty);
+        }
+        for (IGCSearchConditionSet regexCondition : regexConditions) {
+            properties.addAll(regexCondition.getRegexProperties());
+        }
+        return new ArrayList<>(properties);
+    }
+
+    /**
+     * Returns the regular expressions used by the conditions of this set.
+     *
+     * @return {@code List<String>}
+     */
+    public List<String> getRegexes() {
+        Set<String> regexes = new LinkedHashSet<>();
+        if (regexPlan != null) {
+            regexes.add(regexPlan.getRegex());
+        }
+        for (IGCSearchConditionSet regexCondition : regexConditions) {
+            regexes.addAll(regexCondition.getRegexes());
+        }
+        return new ArrayList<>(regexes);
+    }
+
+    /**
+     * Returns a copy of this set as it currently stands (as its JSON structure is when it is nested in another set).
+     *
+     * @return IGCSearchConditionSet
+     */
+    private IGCSearchConditionSet copy() {
+        IGCSearchConditionSet copy = new IGCSearchConditionSet();
+        copy.conditions = this.conditions;
+        copy.conditionJoin = this.conditionJoin;
+        copy.negateAll = this.negateAll;
+        copy.regexProperty = this.regexProperty;
+        copy.regexPlan = this.regexPlan;
+        copy.regexConditions = new ArrayList<>(this.regexConditions);
+        copy.otherConditions = this.otherConditions;
+        return copy;
+    }
+
     /**
      * Returns the JSON structure for the set of conditions.
      *
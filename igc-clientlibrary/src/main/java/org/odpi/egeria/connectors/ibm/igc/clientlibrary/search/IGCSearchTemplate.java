@@ -0,0 +1,164 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.search;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A search whose structure is fixed, but whose values (eg. the RID of the asset to find) are only bound when it is
+ * run: the query is serialized once, when the template is prepared, and each run only writes the bound values into
+ * the pre-serialized JSON (rather than building and serializing the full query again).
+ * <br><br>
+ * To prepare a template, build an IGCSearch as usual, but use {@link #parameter(int)} in place of each value to be
+ * bound; for example, to find any asset by its RID:<br>
+ * <pre>
+ *   IGCSearchConditionSet byId = new IGCSearchConditionSet(new IGCSearchCondition("_id", "=", IGCSearchTemplate.parameter(0)));
+ *   IGCSearchTemplate template = new IGCSearchTemplate(new IGCSearch("main_object", byId));
+ *   ReferenceList results = igcRestClient.search(template, rid);
+ * </pre>
+ * Templates are immutable, so a single template can be shared by any number of threads.
+ */
+public class IGCSearchTemplate {
+
+    private static final String PARAMETER_START = "\u0000igc-search-parameter-";
+    private static final String PARAMETER_END = "\u0000";
+
+    // How the placeholders appear once serialized (as JSON strings, with the control characters escaped)
+    private static final String SERIALIZED_START = "\"\\u0000igc-search-parameter-";
+    private static final String SERIALIZED_END = "\\u0000\"";
+
+    private final String[] fragments;
+    private final int[] parameters;
+    private final int parameterCount;
+    private final int fixedLength;
+
+    /**
+     * Prepare a template from the provided search, in which {@link #parameter(int)} has been used in place of each
+     * value to be bound.
+     *
+     * @param igcSearch the search from which to prepare the template
+     */
+    public IGCSearchTemplate(IGCSearch igcSearch) {
+
+        String query = igcSearch.getQuery().toString();
+        List<String> fragmentList = new ArrayList<>();
+        List<Integer> parameterList = new ArrayList<>();
+        int maxParameter = -1;
+        int from = 0;
+        int start = query.indexOf(SERIALIZED_START);
+        while (start >= 0) {
+            int end = query.indexOf(SERIALIZED_END, start + SERIALIZED_START.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated parameter in search: " + query);
+            }
+            int index = Integer.parseInt(query.substring(start + SERIALIZED_START.length(), end));
+            maxParameter = Math.max(maxParameter, index);
+            fragmentList.add(query.substring(from, start));
+            parameterList.add(index);
+            from = end + SERIALIZED_END.length();
+            start = query.indexOf(SERIALIZED_START, from);
+        }
+        fragmentList.add(query.substring(from));
+
+        this.fragments = fragmentList.toArray(new String[0]);
+        this.parameters = new int[parameterList.size()];
+        int length = 0;
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = parameterList.get(i);
+        }
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.parameterCount = maxParameter + 1;
+        this.fixedLength = length;
+
+    }
+
+    /**
+     * Retrieve the placeholder to use (in place of a value) for the numbered parameter when building the search from
+     * which to prepare a template.
+     *
+     * @param index the (zero-based) number of the parameter
+     * @return String
+     */
+    public static String parameter(int index) {
+        return PARAMETER_START + index + PARAMETER_END;
+    }
+
+    /**
+     * Indicates whether the provided value is the placeholder for a parameter (rather than an actual value).
+     *
+     * @param value the value to check
+     * @return boolean
+     */
+    static boolean isParameter(String value) {
+        return value != null && value.startsWith(PARAMETER_START) && value.endsWith(PARAMETER_END);
+    }
+
+    /**
+     * Retrieve the number of values that must be bound to run the search.
+     *
+     * @return int
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Bind the provided values into the template, giving the query for the search.
+     *
+     * @param values the values to bind, in parameter order
+     * @return String - the JSON of the query
+     */
+    public String bind(String... values) {
+        StringBuilder sb = new StringBuilder(fixedLength + 64 * parameters.length);
+        try {
+            writeTo(sb, values);
+        } catch (IOException e) {
+            // A StringBuilder never throws an IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Bind the provided values into the template, writing the query for the search directly to the provided output.
+     *
+     * @param out the output to which to write the JSON of the query
+     * @param values the values to bind, in parameter order
+     * @throws IOException on any error writing to the output
+     */
+    public void writeTo(Appendable out, String... values) throws IOException {
+        if (values.length != parameterCount) {
+            throw new IllegalArgumentException("Search requires " + parameterCount + " value(s), but " + values.length + " were provided.");
+        }
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        for (int i = 0; i < parameters.length; i++) {
+            out.append(fragments[i]);
+            String value = values[parameters[i]];
+            if (value == null) {
+                out.append("null");
+            } else {
+                out.append('"');
+                out.append(new String(encoder.quoteAsString(value)));
+                out.append('"');
+            }
+        }
+        out.append(fragments[fragments.length - 1]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parameters.length; i++) {
+            sb.append(fragments[i]).append('?').append(parameters[i]);
+        }
+        return sb.append(fragments[fragments.length - 1]).toString();
+    }
+
+}
@@ -0,0 +1,179 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCRestConstants;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.IGCVersionEnum;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.PojoStreamingReader;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.Reference;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceDeserializer;
+import org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common.ReferenceList;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test that the POJOs produced by the generator compile, and that a page of search results read through their
+ * streaming readers gives exactly what Jackson's own (reflective) deserialization of the same page gives.
+ */
+public class IGCRestModelGeneratorTest {
+
+    private static final String TYPE_NAME = "fixture_asset";
+    private static final IGCVersionEnum VERSION = IGCVersionEnum.V11710;
+
+    private Class<?> pojoClass;
+    private PojoStreamingReader reader;
+    private ReferenceList viaReader;
+    private ReferenceList viaJackson;
+
+    @BeforeClass
+    public void generateAndCompile() throws Exception {
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new SkipException("No Java compiler is available to compile the generated POJO.");
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode typeDefinition = mapper.readTree(getResource("fixture_asset_type.json"));
+
+        Path sourceDir = Files.createTempDirectory("igc-generated-src");
+        Path classDir = Files.createTempDirectory("igc-generated-classes");
+        new IGCRestModelGenerator().createPOJOForType(typeDefinition, sourceDir.toString(), VERSION);
+
+        File source = sourceDir.resolve(IGCRestConstants.getClassNameForAssetType(TYPE_NAME) + ".java").toFile();
+        assertTrue(source.isFile(), "The generator did not write a POJO for the fixture type.");
+        int result = compiler.run(null, null, null,
+                "-nowarn",
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classDir.toString(),
+                source.getPath());
+        assertEquals(result, 0, "The generated POJO does not compile.");
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{ classDir.toUri().toURL() }, getClass().getClassLoader());
+        pojoClass = loader.loadClass(IGCRestConstants.IGC_REST_GENERATED_MODEL_PKG + "." + VERSION.getVersionString()
+                + "." + IGCRestConstants.getClassNameForAssetType(TYPE_NAME));
+        reader = PojoStreamingReader.forPOJO(pojoClass);
+
+        // Wired up the same way as the IGCRestClient wires up its own mapper
+        ReferenceDeserializer deserializer = new ReferenceDeserializer(type -> TYPE_NAME.equals(type) ? pojoClass : null);
+        ObjectMapper streaming = new ObjectMapper();
+        SimpleModule module = new SimpleModule("IGCStreamingReaders");
+        module.addDeserializer(Reference.class, deserializer);
+        streaming.registerModule(module);
+        streaming.registerSubtypes(pojoClass);
+        deserializer.registerReader(TYPE_NAME, reader);
+
+        ObjectMapper reflective = new ObjectMapper();
+        reflective.registerSubtypes(pojoClass);
+
+        viaReader = streaming.readValue(getResource("fixture_asset_page.json"), ReferenceList.class);
+        viaJackson = reflective.readValue(getResource("fixture_asset_page.json"), ReferenceList.class);
+
+    }
+
+    @Test
+    public void testStreamingReaderGenerated() {
+        assertNotNull(reader, "The generated POJO has no streaming reader.");
+        assertEquals(reader.getClass().getDeclaringClass(), pojoClass);
+        assertEquals(reader.newInstance().getClass(), pojoClass);
+    }
+
+    @Test
+    public void testSameAsJackson() {
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.valueToTree(viaReader), mapper.valueToTree(viaJackson));
+    }
+
+    @Test
+    public void testPage() {
+        assertEquals(viaReader.getPaging().getNumTotal(), Integer.valueOf(3));
+        assertEquals(viaReader.getPaging().getEndIndex(), Integer.valueOf(2));
+        assertNotNull(viaReader.getPaging().getNextPageURL());
+        List<Reference> items = viaReader.getItems();
+        assertEquals(items.size(), 3);
+        assertSame(items.get(0).getClass(), pojoClass);
+        assertSame(items.get(1).getClass(), pojoClass, "An item whose _type is not its first property was not read as its POJO.");
+        assertSame(items.get(2).getClass(), Reference.class, "An item of an unregistered type was not read as a Reference.");
+        assertEquals(items.get(2).getName(), "third");
+    }
+
+    @Test
+    public void testProperties() {
+
+        Reference first = viaReader.getItems().get(0);
+        assertEquals(first.getType(), TYPE_NAME);
+        assertEquals(first.getName(), "first");
+        assertTrue(first.getId().endsWith("4p4oq84j2o2bm"));
+        assertEquals(first.getContext().size(), 1);
+        assertEquals(first.getContext().get(0).getType(), "host");
+
+        assertEquals(getProperty(first, "name"), "first");
+        assertEquals(getProperty(first, "short_description"), "The first asset");
+        assertEquals(getProperty(first, "default"), "yes");
+        assertEquals(getProperty(first, "__default"), "yes");
+        assertEquals(getProperty(first, "enabled"), Boolean.TRUE);
+        assertEquals(((Number) getProperty(first, "size")).intValue(), 42);
+        assertEquals(getProperty(first, "modified_on"), new Date(1571234567890L));
+        assertEquals(getProperty(first, "aliases"), Arrays.asList("one", "1st"));
+        assertEquals(getProperty(first, "status"), "ACTIVE");
+
+        Reference folder = (Reference) getProperty(first, "parent_folder");
+        assertEquals(folder.getType(), "data_file_folder");
+        assertEquals(folder.getName(), "folder");
+
+        ReferenceList fields = (ReferenceList) getProperty(first, "fields");
+        assertEquals(fields.getPaging().getNumTotal(), Integer.valueOf(1));
+        assertEquals(fields.getItems().get(0).getType(), "data_file_field");
+
+        Reference second = viaReader.getItems().get(1);
+        assertEquals(second.getType(), TYPE_NAME);
+        assertEquals(getProperty(second, "enabled"), Boolean.FALSE);
+        assertEquals(((Number) getProperty(second, "size")).doubleValue(), 2.5);
+        assertTrue(((List<?>) getProperty(second, "aliases")).isEmpty());
+        assertNull(getProperty(second, "parent_folder"));
+        assertNull(getProperty(second, "short_description"));
+
+    }
+
+    @Test
+    public void testUnknownProperty() {
+        assertNull(reader.getAccessor("unmapped_property"));
+    }
+
+    private Object getProperty(Reference pojo, String property) {
+        assertNotNull(reader.getAccessor(property), "No accessor for property: " + property);
+        return reader.getAccessor(property).getProperty(pojo);
+    }
+
+    private InputStream getResource(String name) throws IOException {
+        InputStream stream = getClass().getResourceAsStream("/generator/" + name);
+        if (stream == null) {
+            throw new IOException("Unable to find test resource: " + name);
+        }
+        return stream;
+    }
+
+}
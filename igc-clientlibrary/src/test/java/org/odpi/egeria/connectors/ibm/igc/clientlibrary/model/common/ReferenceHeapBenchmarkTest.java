@@ -0,0 +1,150 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.model.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Measures the heap used by a large page of references (the columns of a set of database tables, each with the full
+ * '_context' of its host, database, schema and table), as they are held by the client library, against the heap the
+ * same references would use if every one of them held its own copy of each string and of its '_context'.
+ * <br><br>
+ * The number of columns defaults to 50,000 and can be changed through the 'igc.benchmark.columns' system property
+ * (eg. -Digc.benchmark.columns=200000); the measurements are logged at INFO level.
+ */
+public class ReferenceHeapBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceHeapBenchmarkTest.class);
+
+    private static final String URL_PREFIX = "https://infosvr.example.com:9443/ibm/iis/igc-rest/v1/assets/";
+
+    private static final int COLUMNS_PER_TABLE = 25;
+    private static final int TABLES_PER_SCHEMA = 100;
+
+    @Test
+    public void testCompactReferencesUseLessHeap() throws IOException {
+
+        int numColumns = Integer.getInteger("igc.benchmark.columns", 50000);
+
+        byte[] json = generatePage(numColumns);
+
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule("IGCStreamingReaders");
+        module.addDeserializer(Reference.class, new ReferenceDeserializer(type -> null));
+        mapper.registerModule(module);
+
+        long before = getUsedHeap();
+        ReferenceList compact = mapper.readValue(json, ReferenceList.class);
+        long compactBytes = getUsedHeap() - before;
+
+        before = getUsedHeap();
+        List<Reference> expanded = expand(compact.getItems());
+        long expandedBytes = getUsedHeap() - before;
+
+        if (log.isInfoEnabled()) {
+            log.info("{} references (each with {} parents): {} KB of heap compact, {} KB uncompacted ({}% saving).",
+                    expanded.size(),
+                    compact.getItems().get(0).getContext().size(),
+                    compactBytes / 1024,
+                    expandedBytes / 1024,
+                    100 - (compactBytes * 100 / Math.max(expandedBytes, 1)));
+        }
+
+        assertEquals(compact.getItems().size(), numColumns);
+        assertEquals(expanded.size(), numColumns);
+        Reference first = compact.getItems().get(0);
+        Reference sameTable = compact.getItems().get(1);
+        assertSame(first.getContext(), sameTable.getContext(), "Columns of the same table do not share their context.");
+        assertEquals(first.getUrl(), URL_PREFIX + first.getId());
+        assertTrue(compactBytes < expandedBytes, "Compact references (" + compactBytes + " bytes) do not use less heap than uncompacted ones (" + expandedBytes + " bytes).");
+
+    }
+
+    /**
+     * Generate a page of column references in the form returned by IGC.
+     *
+     * @param numColumns the number of columns in the page
+     * @return byte[] the JSON of the page
+     */
+    private static byte[] generatePage(int numColumns) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"paging\":{\"numTotal\":").append(numColumns).append(",\"pageSize\":").append(numColumns).append(",\"end\":").append(numColumns - 1).append(",\"begin\":0},\"items\":[");
+        for (int i = 0; i < numColumns; i++) {
+            int table = i / COLUMNS_PER_TABLE;
+            int schema = table / TABLES_PER_SCHEMA;
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"_type\":\"database_column\",\"_id\":\"").append(rid("c", i)).append("\",\"_url\":\"").append(URL_PREFIX).append(rid("c", i));
+            sb.append("\",\"_name\":\"COLUMN_").append(i % COLUMNS_PER_TABLE).append("\",\"_context\":[");
+            appendParent(sb, "host", rid("h", 0), "INFOSVR.EXAMPLE.COM").append(',');
+            appendParent(sb, "database", rid("d", 0), "SAMPLE").append(',');
+            appendParent(sb, "database_schema", rid("s", schema), "SCHEMA_" + schema).append(',');
+            appendParent(sb, "database_table", rid("t", table), "TABLE_" + table);
+            sb.append("]}");
+        }
+        sb.append("]}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder appendParent(StringBuilder sb, String type, String rid, String name) {
+        return sb.append("{\"_type\":\"").append(type).append("\",\"_id\":\"").append(rid).append("\",\"_url\":\"").append(URL_PREFIX).append(rid).append("\",\"_name\":\"").append(name).append("\"}");
+    }
+
+    private static String rid(String kind, int index) {
+        return String.format("b1c497ce.%s%07d.001mts4g9.%07d.rtg2.1gmj", kind, index, index);
+    }
+
+    /**
+     * Copy the provided references into the form in which they would be held without any compaction: every string
+     * (including the full '_url') and every '_context' held separately by each reference.
+     *
+     * @param references the references to copy
+     * @return {@code List<Reference>}
+     */
+    private static List<Reference> expand(List<Reference> references) {
+        List<Reference> expanded = new ArrayList<>(references.size());
+        for (Reference reference : references) {
+            Reference copy = copyOf(reference);
+            copy._context = new ArrayList<>();
+            for (Reference parent : reference.getContext()) {
+                Reference parentCopy = copyOf(parent);
+                parentCopy._context = new ArrayList<>();
+                copy._context.add(parentCopy);
+            }
+            expanded.add(copy);
+        }
+        return expanded;
+    }
+
+    private static Reference copyOf(Reference reference) {
+        Reference copy = new Reference();
+        copy._name = new String(reference.getName());
+        copy._type = new String(reference.getType());
+        copy._id = new String(reference.getId());
+        copy._url = new String(reference.getUrl());
+        return copy;
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,138 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.search;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the conditions pushed down to IGC for regular expressions: these must only ever be conditions that every value
+ * matching the regular expression meets.
+ */
+public class IGCRegexSearchPlanTest {
+
+    private static final String PROPERTY = "name";
+
+    @Test
+    public void testPureLiteral() {
+        assertConditions("abc", equalTo("abc"));
+        assertConditions("^abc$", equalTo("abc"));
+    }
+
+    @Test
+    public void testPrefixAndContained() {
+        assertConditions("CUST_[0-9]+_ADDR.*", startsWith("CUST_"), contains("_ADDR"));
+    }
+
+    @Test
+    public void testQuantifiedLiterals() {
+        // A quantifier only applies to the character before it, which must not be taken as required when optional
+        assertConditions("ab+cd", startsWith("ab"), endsWith("cd"));
+        assertConditions("ab*cd", endsWith("cd"), startsWith("a"));
+        assertConditions("abc?", startsWith("ab"));
+        assertConditions("abc{0,3}def", endsWith("def"), startsWith("ab"));
+        assertConditions("ab{2,}cd.*", startsWith("ab"), contains("cd"));
+    }
+
+    @Test
+    public void testQuotedLiterals() {
+        assertConditions("\\Qa.b\\E", equalTo("a.b"));
+        assertConditions("\\Qa.b\\E.*", startsWith("a.b"));
+        assertConditions("x\\Q(y)\\Ez", equalTo("x(y)z"));
+        // An unterminated quote runs to the end of the regular expression
+        assertConditions("\\Qopen", equalTo("open"));
+    }
+
+    @Test
+    public void testGroups() {
+        assertConditions("(abc)def", equalTo("abcdef"));
+        assertConditions("(?<n>pre)fix.*", startsWith("prefix"));
+        assertConditions("(?:abc)+def.*", startsWith("abc"), contains("def"));
+        assertConditions("(abc)?def", endsWith("def"));
+    }
+
+    @Test
+    public void testLookarounds() {
+        assertConditions("(?=foo)foobar.*", contains("foobar"));
+        assertConditions("foo(?!bar).*", startsWith("foo"));
+        assertConditions("(?<=a)bc.*", contains("bc"));
+        assertConditions("(?<!a)bc", endsWith("bc"));
+    }
+
+    @Test
+    public void testAlternation() {
+        assertNoConditions("ab|cd");
+        assertConditions("(ab|cd)efg.*", contains("efg"));
+        assertConditions("abc(d|e)", startsWith("abc"));
+    }
+
+    @Test
+    public void testEmbeddedFlags() {
+        assertNoConditions("(?i)abc.*");
+        assertNoConditions("abc(?i)def");
+        assertNoConditions("(?i:abc)def.*");
+        assertNoConditions("a(?x) b c.*");
+    }
+
+    @Test
+    public void testEscapes() {
+        // A word boundary consumes nothing beyond itself (not even the character following it)
+        assertConditions(".*\\b[A-Z]+_ID", endsWith("_ID"));
+        assertConditions("x \\b[ab]c", startsWith("x "), endsWith("c"));
+        assertConditions("ab\\bcd", startsWith("ab"), endsWith("cd"));
+        assertConditions("ab\\b{g}cd", startsWith("ab"), endsWith("cd"));
+        // A single-letter property class does consume the character following it
+        assertConditions("ab\\pLcd", startsWith("ab"), endsWith("cd"));
+        assertConditions("ab\\p{Lu}cd", startsWith("ab"), endsWith("cd"));
+        assertConditions("a\\.b", equalTo("a.b"));
+    }
+
+    @Test
+    public void testNothingToPushDown() {
+        assertNoConditions(".*");
+        assertNoConditions("[a-z]+");
+        assertNoConditions(".*x.");
+    }
+
+    @Test
+    public void testMatches() {
+        IGCRegexSearchPlan plan = new IGCRegexSearchPlan("CUST_[0-9]+_ADDR.*");
+        assertTrue(plan.matches("CUST_12_ADDRESS"));
+        assertFalse(plan.matches("CUST_X_ADDR"));
+        assertFalse(plan.matches(null));
+    }
+
+    private static IGCSearchCondition equalTo(String value) {
+        return new IGCSearchCondition(PROPERTY, "=", value);
+    }
+
+    private static IGCSearchCondition startsWith(String value) {
+        return new IGCSearchCondition(PROPERTY, "like {0}%", value);
+    }
+
+    private static IGCSearchCondition endsWith(String value) {
+        return new IGCSearchCondition(PROPERTY, "like %{0}", value);
+    }
+
+    private static IGCSearchCondition contains(String value) {
+        return new IGCSearchCondition(PROPERTY, "like %{0}%", value);
+    }
+
+    private static void assertConditions(String regex, IGCSearchCondition... expected) {
+        IGCSearchConditionSet expectedSet = new IGCSearchConditionSet();
+        for (IGCSearchCondition condition : expected) {
+            expectedSet.addCondition(condition);
+        }
+        IGCSearchConditionSet actual = new IGCRegexSearchPlan(regex).getSearchConditions(PROPERTY);
+        assertEquals(actual.getConditionSetObject(), expectedSet.getConditionSetObject(), "Conditions for: " + regex);
+    }
+
+    private static void assertNoConditions(String regex) {
+        IGCSearchConditionSet actual = new IGCRegexSearchPlan(regex).getSearchConditions(PROPERTY);
+        assertEquals(actual.size(), 0, "Conditions for: " + regex);
+    }
+
+}
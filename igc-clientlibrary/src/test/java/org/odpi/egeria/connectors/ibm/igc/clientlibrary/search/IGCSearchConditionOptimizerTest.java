@@ -0,0 +1,248 @@
+/* SPDX-License-Identifier: Apache-2.0 */
+/* Copyright Contributors to the ODPi Egeria project. */
+package org.odpi.egeria.connectors.ibm.igc.clientlibrary.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Test the normalisation of search conditions before they are sent to IGC: the normalised conditions must always match
+ * exactly the same assets as the original conditions.
+ */
+public class IGCSearchConditionOptimizerTest {
+
+    private static final JsonNodeFactory nf = JsonNodeFactory.instance;
+
+    private static final String RID_1 = "b1c497ce.60641b50.001mtr9ic.0a4k6cn.2gqnb3.n5okf9dltmh3kmk0shflr";
+    private static final String RID_2 = "b1c497ce.54bd3a08.001mtr9ic.6jbd7dv.qpk7pb.4nrk4ugt4p4oq84j2o2bm";
+
+    @Test
+    public void testNestedSets() {
+
+        // Sets with a single condition, or the same operator as the set containing them, are flattened
+        assertOptimized(
+                and(eq("a", "1"),
+                        and(eq("b", "2"), cond("c", "like %{0}%", "x")),
+                        or(eq("d", "4"))),
+                and(eq("a", "1"), eq("b", "2"), eq("d", "4"), cond("c", "like %{0}%", "x")));
+
+        // Sets with a different operator are kept, and a set holding only a single such set is simply that set
+        assertOptimized(
+                and(eq("a", "1"), or(eq("b", "2"), eq("c", "3"))),
+                and(eq("a", "1"), or(eq("b", "2"), eq("c", "3"))));
+        assertOptimized(
+                and(or(eq("a", "1"), eq("b", "2"))),
+                or(eq("a", "1"), eq("b", "2")));
+
+        // The most selective conditions are AND'd first
+        assertOptimized(
+                and(or(eq("x", "1"), eq("y", "2")), cond("d", "isNull", (String) null), cond("c", ">", "5"), eq("_id", RID_1)),
+                and(eq("_id", RID_1), cond("c", ">", "5"), cond("d", "isNull", (String) null), or(eq("x", "1"), eq("y", "2"))));
+
+        // Duplicates are removed
+        assertOptimized(
+                and(eq("a", "1"), and(eq("a", "1"), eq("b", "2"))),
+                and(eq("a", "1"), eq("b", "2")));
+
+    }
+
+    @Test
+    public void testNegatedSets() {
+
+        // A negated set is never flattened into the set containing it
+        assertOptimized(
+                and(eq("a", "1"), not(and(eq("b", "2"), eq("c", "3")))),
+                and(eq("a", "1"), not(and(eq("b", "2"), eq("c", "3")))));
+        assertOptimized(
+                or(eq("a", "1"), not(or(eq("b", "2"), eq("c", "3")))),
+                or(eq("a", "1"), not(or(eq("b", "2"), eq("c", "3")))));
+
+        // ... nor is the set within it, when negated itself
+        assertOptimized(
+                not(and(not(or(eq("a", "1"), eq("b", "2"))))),
+                not(and(not(or(eq("a", "1"), eq("b", "2"))))));
+
+        // A negated set keeps its negation when its own nested sets are flattened
+        assertOptimized(
+                not(and(eq("a", "1"), and(eq("b", "2")))),
+                not(and(eq("a", "1"), eq("b", "2"))));
+
+        // Negated conditions are never merged, and are AND'd after any that are not negated
+        assertOptimized(
+                and(cond("a", "=", "1", true), eq("b", "2")),
+                and(eq("b", "2"), cond("a", "=", "1", true)));
+
+    }
+
+    @Test
+    public void testMergeEqualities() {
+
+        // Equalities (and 'in' conditions) OR'd against the same property become a single 'in' condition, in place of
+        // the first of them
+        assertOptimized(
+                or(eq("a", "1"), eq("b", "3"), eq("a", "2"), in("a", "2", "4")),
+                or(in("a", "1", "2", "4"), eq("b", "3")));
+        assertOptimized(
+                or(eq("_id", RID_1), eq("_id", RID_2)),
+                or(in("_id", RID_1, RID_2)));
+
+        // ... including those flattened from nested sets
+        assertOptimized(
+                or(eq("a", "1"), or(eq("a", "2"), eq("b", "3"))),
+                or(in("a", "1", "2"), eq("b", "3")));
+
+        // ... but never negated ones, nor a single equality against a property
+        assertOptimized(
+                or(eq("a", "1"), cond("a", "=", "2", true), eq("b", "3")),
+                or(eq("a", "1"), cond("a", "=", "2", true), eq("b", "3")));
+
+        // ... nor those AND'd together
+        assertOptimized(
+                and(eq("a", "1"), eq("a", "2")),
+                and(eq("a", "1"), eq("a", "2")));
+
+    }
+
+    @Test
+    public void testConflictingRIDs() {
+
+        // An asset can only have a single RID
+        assertSame(optimize(and(eq("_id", RID_1), eq("name", "x"), eq("_id", RID_2))), IGCSearchConditionOptimizer.Result.NEVER);
+        assertSame(optimize(and(eq("name", "x"), and(eq("_id", RID_1)), or(eq("_id", RID_2)))), IGCSearchConditionOptimizer.Result.NEVER);
+        assertSame(optimize(not(and(eq("_id", RID_1), eq("_id", RID_2)))), IGCSearchConditionOptimizer.Result.ALWAYS);
+        assertOptimized(
+                or(eq("name", "x"), and(eq("_id", RID_1), eq("_id", RID_2))),
+                or(eq("name", "x")));
+
+        // ... but the same RID more than once, a negated RID, or RIDs that are only OR'd do not conflict
+        assertOptimized(
+                and(eq("_id", RID_1), eq("_id", RID_1)),
+                and(eq("_id", RID_1)));
+        assertOptimized(
+                and(eq("_id", RID_1), cond("_id", "=", RID_2, true)),
+                and(eq("_id", RID_1), cond("_id", "=", RID_2, true)));
+        assertOptimized(
+                and(eq("name", "x"), or(eq("_id", RID_1), eq("_id", RID_2))),
+                and(in("_id", RID_1, RID_2), eq("name", "x")));
+
+        // ... nor do the placeholders for the parameters of a template, whose values are not yet known
+        String first = IGCSearchTemplate.parameter(0);
+        String second = IGCSearchTemplate.parameter(1);
+        assertOptimized(
+                and(eq("_id", first), eq("_id", RID_1)),
+                and(eq("_id", first), eq("_id", RID_1)));
+        assertOptimized(
+                and(eq("_id", first), eq("_id", second)),
+                and(eq("_id", first), eq("_id", second)));
+
+    }
+
+    @Test
+    public void testEmptySets() {
+
+        // A set without any conditions places no limit on the search, unless it is negated
+        assertSame(optimize(new IGCSearchConditionSet().getConditionSetObject()), IGCSearchConditionOptimizer.Result.ALWAYS);
+        ObjectNode negatedEmpty = not(nf.objectNode());
+        assertEquals(optimize(negatedEmpty).getConditionSet(), negatedEmpty);
+
+        // ... so it is dropped from a set that must match all of its conditions, but decides one that matches any
+        assertOptimized(
+                and(eq("a", "1"), nf.objectNode()),
+                and(eq("a", "1")));
+        assertSame(optimize(and(nf.objectNode(), nf.objectNode())), IGCSearchConditionOptimizer.Result.ALWAYS);
+        assertSame(optimize(or(eq("a", "1"), nf.objectNode())), IGCSearchConditionOptimizer.Result.ALWAYS);
+        assertSame(optimize(not(or(eq("a", "1"), nf.objectNode()))), IGCSearchConditionOptimizer.Result.NEVER);
+
+        // Nothing can be in an empty list, which decides a set that must match all of its conditions
+        assertSame(optimize(and(eq("a", "1"), in("b"))), IGCSearchConditionOptimizer.Result.NEVER);
+        assertSame(optimize(and(eq("a", "1"), or(in("b"), in("c")))), IGCSearchConditionOptimizer.Result.NEVER);
+        assertSame(optimize(not(and(eq("a", "1"), in("b")))), IGCSearchConditionOptimizer.Result.ALWAYS);
+
+        // ... but is dropped from a set that matches any of its conditions
+        assertOptimized(
+                or(eq("a", "1"), in("b")),
+                or(eq("a", "1")));
+
+        // ... and anything is not in an empty list
+        assertOptimized(
+                and(eq("a", "1"), negatedIn("b")),
+                and(eq("a", "1")));
+
+    }
+
+    @Test
+    public void testNotModifiedInPlace() {
+        ObjectNode conditions = and(eq("a", "1"), or(eq("b", "2"), eq("b", "3")), not(and(eq("c", "4"), and(eq("d", "5")))));
+        ObjectNode original = conditions.deepCopy();
+        optimize(conditions);
+        assertEquals(conditions, original);
+    }
+
+    private static void assertOptimized(ObjectNode conditions, ObjectNode expected) {
+        IGCSearchConditionOptimizer.Result result = optimize(conditions);
+        assertEquals(result.getConditionSet(), expected, "Unexpected normalisation of: " + conditions);
+    }
+
+    private static IGCSearchConditionOptimizer.Result optimize(ObjectNode conditions) {
+        return IGCSearchConditionOptimizer.optimize(conditions);
+    }
+
+    private static ObjectNode eq(String property, String value) {
+        return new IGCSearchCondition(property, "=", value).getConditionObject();
+    }
+
+    private static ObjectNode cond(String property, String operator, String value) {
+        return new IGCSearchCondition(property, operator, value).getConditionObject();
+    }
+
+    private static ObjectNode cond(String property, String operator, String value, boolean negated) {
+        return new IGCSearchCondition(property, operator, value, negated).getConditionObject();
+    }
+
+    private static ObjectNode in(String property, String... values) {
+        ObjectNode condition = nf.objectNode();
+        condition.put("property", property);
+        condition.put("operator", "in");
+        ArrayNode array = condition.putArray("value");
+        for (String value : values) {
+            array.add(value);
+        }
+        return condition;
+    }
+
+    private static ObjectNode negatedIn(String property, String... values) {
+        ObjectNode condition = in(property, values);
+        condition.put("negated", true);
+        return condition;
+    }
+
+    private static ObjectNode and(JsonNode... conditions) {
+        return set("and", conditions);
+    }
+
+    private static ObjectNode or(JsonNode... conditions) {
+        return set("or", conditions);
+    }
+
+    private static ObjectNode not(ObjectNode conditionSet) {
+        ObjectNode negated = conditionSet.deepCopy();
+        negated.put("negated", true);
+        return negated;
+    }
+
+    private static ObjectNode set(String operator, JsonNode... conditions) {
+        ObjectNode conditionSet = nf.objectNode();
+        conditionSet.putArray("conditions").addAll(Arrays.asList(conditions));
+        conditionSet.put("operator", operator);
+        return conditionSet;
+    }
+
+}